@@ -0,0 +1,53 @@
+#!/usr/bin/env bash
+# Fast-startup variant of the backend: AOT-processed bean definitions, lazy initialisation
+# (application-prod.properties), no devtools, and a class-data-sharing (CDS) archive.
+#
+#   scripts/fast-start.sh build        mvn -Pprod package, extract the jar, record the CDS archive
+#   scripts/fast-start.sh run [args]   start the extracted app with AOT and the archive
+#
+# The archive is only valid for the JDK and the exact jars it was recorded with, so rebuild it
+# whenever either changes (a stale archive is ignored by the JVM, it just stops helping).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+OUT=target/fast-start
+ARCHIVE=netdash.jsa
+PROD_OPTS=(-Dspring.aot.enabled=true)
+APP_ARGS=(--spring.profiles.active=prod)
+
+app_jar() {
+    ls "$OUT"/netdash-backend-*.jar 2>/dev/null | head -n 1
+}
+
+build() {
+    ${MVN:-mvn} -B -q -Pprod -DskipTests clean package
+    local jar
+    jar=$(ls target/netdash-backend-*.jar | head -n 1)
+
+    # An exploded layout (app jar + lib/) is what CDS can map; a nested fat jar is not
+    rm -rf "$OUT"
+    java -Djarmode=tools -jar "$jar" extract --destination "$OUT"
+
+    # Training run: refresh the context once, archive every class loaded, then exit
+    jar=$(basename "$(app_jar)")
+    (cd "$OUT" && java -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=off -Dspring.context.exit=onRefresh \
+        "${PROD_OPTS[@]}" -jar "$jar" "${APP_ARGS[@]}")
+    echo "Fast-start build ready in $OUT ($(du -h "$OUT/$ARCHIVE" | cut -f1) CDS archive)"
+}
+
+run() {
+    local jar
+    jar=$(app_jar)
+    if [[ -z "$jar" || ! -f "$OUT/$ARCHIVE" ]]; then
+        echo "No fast-start build in $OUT; run '$0 build' first" >&2
+        exit 1
+    fi
+    cd "$OUT"
+    exec java -XX:SharedArchiveFile="$ARCHIVE" "${PROD_OPTS[@]}" -jar "$(basename "$jar")" "${APP_ARGS[@]}" "$@"
+}
+
+case "${1:-}" in
+    build) build ;;
+    run) shift; run "$@" ;;
+    *) echo "Usage: $0 build | run [app args]" >&2; exit 2 ;;
+esac
@@ -0,0 +1,103 @@
+#!/usr/bin/env bash
+# Startup benchmark for the fast-startup build (run scripts/fast-start.sh build first).
+#
+#   scripts/startup-benchmark.sh [runs]        default 5 runs per mode
+#
+# Each mode adds one optimisation to the previous one, all on the same extracted jar:
+#   baseline   java -jar, default profile
+#   lazy       + prod profile (lazy initialisation, no JMX)
+#   aot        + AOT-generated bean definitions
+#   aot+cds    + class-data-sharing archive
+#
+# Per run it records the time from launch until Spring reports the context started ("ready"),
+# the JVM's own startup figure from that log line, and the latency of the first and second
+# request to BENCH_URL (the first one pays for lazily created controllers and MVC setup).
+# MongoDB should be reachable so the request measures the real path; set BENCH_URL to a
+# different endpoint to measure something else. Prints one CSV line per run, then medians.
+set -euo pipefail
+
+cd "$(dirname "$0")/../target/fast-start"
+RUNS=${1:-5}
+PORT=${BENCH_PORT:-18080}
+URL=${BENCH_URL:-http://localhost:$PORT/api/devices/page?offset=0&limit=50}
+JAR=$(ls netdash-backend-*.jar | head -n 1)
+ARCHIVE=netdash.jsa
+RESULTS=$(mktemp)
+trap 'rm -f "$RESULTS" bench.log' EXIT
+
+mode_opts() {
+    case "$1" in
+        baseline) echo "" ;;
+        lazy) echo "--profile" ;;
+        aot) echo "--profile -Dspring.aot.enabled=true" ;;
+        aot+cds) echo "--profile -Dspring.aot.enabled=true -XX:SharedArchiveFile=$ARCHIVE" ;;
+    esac
+}
+
+now_ms() {
+    date +%s%3N
+}
+
+run_once() {
+    local mode=$1 jvm=() args=(--server.port="$PORT")
+    for opt in $(mode_opts "$mode"); do
+        if [[ "$opt" == --profile ]]; then
+            args+=(--spring.profiles.active=prod)
+        else
+            jvm+=("$opt")
+        fi
+    done
+
+    local start ready pid
+    start=$(now_ms)
+    java "${jvm[@]}" -jar "$JAR" "${args[@]}" > bench.log 2>&1 &
+    pid=$!
+    until grep -q "Started NetDashBackendApplication" bench.log; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "Backend exited during startup ($mode):" >&2
+            tail -n 20 bench.log >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    ready=$(( $(now_ms) - start ))
+    local reported
+    reported=$(grep -o "process running for [0-9.]*" bench.log | grep -o "[0-9.]*$")
+
+    local first second
+    first=$(curl -s -o /dev/null -w "%{time_total}" "$URL")
+    second=$(curl -s -o /dev/null -w "%{time_total}" "$URL")
+
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    echo "$mode,$ready,$(awk "BEGIN{print $reported*1000}"),$(awk "BEGIN{print $first*1000}"),$(awk "BEGIN{print $second*1000}")" \
+        | tee -a "$RESULTS"
+}
+
+median() {
+    sort -n | awk '{v[NR]=$1} END {print (NR % 2) ? v[(NR+1)/2] : (v[NR/2] + v[NR/2+1]) / 2}'
+}
+
+echo "mode,ready_ms,jvm_reported_ms,first_request_ms,second_request_ms"
+for mode in baseline lazy aot aot+cds; do
+    if [[ "$mode" == aot+cds && ! -f "$ARCHIVE" ]]; then
+        echo "No $ARCHIVE; skipping aot+cds" >&2
+        continue
+    fi
+    for ((i = 0; i < RUNS; i++)); do
+        run_once "$mode"
+    done
+done
+
+echo
+echo "Medians over $RUNS runs"
+printf "%-10s %10s %14s %16s %17s\n" mode ready_ms jvm_reported_ms first_request_ms second_request_ms
+for mode in baseline lazy aot aot+cds; do
+    grep -q "^$mode," "$RESULTS" || continue
+    printf "%-10s" "$mode"
+    for column in 2 3 4 5; do
+        printf " %*s" $((column == 2 ? 10 : column == 3 ? 14 : column == 4 ? 16 : 17)) \
+            "$(grep "^$mode," "$RESULTS" | cut -d, -f"$column" | median)"
+    done
+    echo
+done
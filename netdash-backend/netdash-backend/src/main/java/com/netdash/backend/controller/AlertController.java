@@ -0,0 +1,82 @@
+package com.netdash.backend.controller;
+
+import com.netdash.backend.model.AlertEvent;
+import com.netdash.backend.model.AlertRule;
+import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.service.AlertService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/alerts")
+@CrossOrigin(origins = "*")
+public class AlertController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertController.class);
+
+    @Autowired
+    private AlertService alertService;
+
+    // 🔹 GET currently firing alerts
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<AlertEvent>>> getActiveAlerts() {
+        List<AlertEvent> alerts = new ArrayList<>(alertService.getActiveAlerts());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Active alerts retrieved", alerts));
+    }
+
+    // 🔹 GET recent FIRING/CLEARED events, newest first
+    @GetMapping("/events")
+    public ResponseEntity<ApiResponse<List<AlertEvent>>> getRecentEvents() {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Alert events retrieved", alertService.getRecentEvents()));
+    }
+
+    // 🔹 GET: Push channel for alert events (Server-Sent Events)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts() {
+        return alertService.subscribe();
+    }
+
+    // 🔹 GET all alert rules
+    @GetMapping("/rules")
+    public ResponseEntity<ApiResponse<List<AlertRule>>> getRules() {
+        return ResponseEntity.ok(new ApiResponse<>(true, "Alert rules retrieved", alertService.getRules()));
+    }
+
+    // 🔹 POST: Create or replace an alert rule
+    @PostMapping("/rules")
+    public ResponseEntity<ApiResponse<AlertRule>> saveRule(@RequestBody AlertRule rule) {
+        if (rule.getMetric() == null || rule.getOperator() == null || rule.getConsecutiveSamples() < 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Rule metric, operator and consecutiveSamples >= 1 are required", null));
+        }
+        try {
+            AlertRule saved = alertService.saveRule(rule);
+            logger.info("Alert rule saved: {}", saved.getName());
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(new ApiResponse<>(true, "Alert rule saved", saved));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+    }
+
+    // 🔹 DELETE an alert rule
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<ApiResponse<Void>> deleteRule(@PathVariable String id) {
+        if (!alertService.deleteRule(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Alert rule not found", null));
+        }
+        logger.info("Alert rule deleted: id={}", id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "Alert rule deleted", null));
+    }
+}
@@ -0,0 +1,124 @@
+package com.netdash.backend.controller;
+
+import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.model.ImportResult;
+import com.netdash.backend.service.BulkTransferService;
+import com.netdash.backend.service.MetricRollupService;
+import com.netdash.backend.service.MetricStores;
+import com.netdash.backend.service.SegmentMetricStore;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+@RestController
+@RequestMapping("/api/devices")
+@CrossOrigin(origins = "*")
+public class BulkTransferController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkTransferController.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private BulkTransferService bulkTransferService;
+
+    @Autowired
+    private MetricStores metricStores;
+
+    // 🔹 GET: Stream every device as NDJSON or CSV
+    @GetMapping("/export")
+    public ResponseEntity<?> exportDevices(@RequestParam(defaultValue = "ndjson") String format) {
+        if (!BulkTransferService.isSupportedFormat(format)) {
+            return unsupportedFormat(format);
+        }
+
+        StreamingResponseBody body = out -> {
+            long count = bulkTransferService.exportDevices(out, format);
+            logger.info("Exported {} devices as {}", count, format);
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaTypeFor(format))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"devices." + format + "\"")
+                .body(body);
+    }
+
+    // 🔹 GET: Stream stored metric history (optionally one device/metric) as NDJSON or CSV
+    @GetMapping("/history/export")
+    public ResponseEntity<?> exportHistory(@RequestParam(defaultValue = "ndjson") String format,
+                                           @RequestParam(defaultValue = "1m") String tier,
+                                           @RequestParam(required = false) String deviceId,
+                                           @RequestParam(required = false) String metric,
+                                           @RequestParam(required = false) String from,
+                                           @RequestParam(required = false) String to) {
+        if (!BulkTransferService.isSupportedFormat(format)) {
+            return unsupportedFormat(format);
+        }
+        boolean raw = SegmentMetricStore.RAW.equals(tier) && metricStores.supportsRaw();
+        if (!raw && !Arrays.asList(MetricRollupService.TIERS).contains(tier)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "Unknown rollup tier: " + tier, null));
+        }
+
+        Instant end;
+        Instant start;
+        try {
+            end = to != null ? Instant.parse(to) : Instant.now();
+            start = from != null ? Instant.parse(from) : end.minus(Duration.ofDays(1));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "from/to must be ISO-8601 instants", null));
+        }
+
+        StreamingResponseBody body = out -> {
+            long count = bulkTransferService.exportHistory(out, format, deviceId, metric, start, end, tier);
+            logger.info("Exported {} {} rollups as {}", count, tier, format);
+        };
+        return ResponseEntity.ok()
+                .contentType(mediaTypeFor(format))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"history-" + tier + "." + format + "\"")
+                .body(body);
+    }
+
+    // 🔹 POST: Stream-import devices (NDJSON or CSV with a header row, gzip accepted), upserting by id
+    @PostMapping("/import")
+    public ResponseEntity<?> importDevices(@RequestParam(defaultValue = "ndjson") String format,
+                                           HttpServletRequest request) throws IOException {
+        if (!BulkTransferService.isSupportedFormat(format)) {
+            return unsupportedFormat(format);
+        }
+
+        InputStream in = request.getInputStream();
+        if ("gzip".equalsIgnoreCase(request.getHeader(HttpHeaders.CONTENT_ENCODING))) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        ImportResult result = bulkTransferService.importDevices(in, format);
+
+        String message = result.getFailed() == 0
+                ? "Imported " + result.getImported() + " devices"
+                : "Imported " + result.getImported() + " devices, " + result.getFailed() + " rows failed";
+        return ResponseEntity.ok(new ApiResponse<>(result.getFailed() == 0, message, result));
+    }
+
+    private static MediaType mediaTypeFor(String format) {
+        return BulkTransferService.CSV.equals(format) ? MediaType.parseMediaType("text/csv") : NDJSON;
+    }
+
+    private static ResponseEntity<ApiResponse<Object>> unsupportedFormat(String format) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse<>(false, "Unsupported format: " + format + " (use ndjson or csv)", null));
+    }
+}
@@ -0,0 +1,30 @@
+package com.netdash.backend.controller;
+
+import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.service.ClusterCoordinator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cluster")
+@CrossOrigin(origins = "*")
+public class ClusterController {
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    // 🔹 GET: This node's identity, owned partitions and the live cluster members
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getClusterStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", clusterCoordinator.isEnabled());
+        status.put("nodeId", clusterCoordinator.getNodeId());
+        status.put("ownedPartitions", clusterCoordinator.getOwnedPartitions());
+        status.put("liveNodes", clusterCoordinator.getLiveNodes());
+        return ResponseEntity.ok(new ApiResponse<>(true, "Cluster status", status));
+    }
+}
@@ -2,17 +2,29 @@ package com.netdash.backend.controller;
 
 import com.netdash.backend.model.Device;
 import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.model.DevicePage;
+import com.netdash.backend.model.PatchResult;
 import com.netdash.backend.repository.DeviceRepository;
+import com.netdash.backend.service.AdmissionControlService;
+import com.netdash.backend.service.AlertService;
 import com.netdash.backend.service.DeviceDiscoveryService;
+import com.netdash.backend.service.DevicePatchService;
+import com.netdash.backend.service.DeviceQueryService;
+import com.netdash.backend.service.DeviceRevisionTracker;
+import com.netdash.backend.service.NetconfService;
+import com.netdash.backend.service.SnmpCredentialService;
+import com.netdash.backend.service.SnmpMetricsService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,12 +41,91 @@ public class DeviceController {
     @Autowired
     private DeviceDiscoveryService deviceDiscoveryService;
 
-    // 🔹 GET all devices
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Autowired
+    private DevicePatchService devicePatchService;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private DeviceQueryService deviceQueryService;
+
+    @Autowired
+    private SnmpMetricsService snmpMetricsService;
+
+    @Autowired
+    private SnmpCredentialService snmpCredentialService;
+
+    @Autowired
+    private NetconfService netconfService;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    // 🔹 GET all devices (answers 304 from the revision counter when the client's copy is current)
     @GetMapping
-    public ResponseEntity<ApiResponse<List<Device>>> getAllDevices() {
+    public ResponseEntity<ApiResponse<List<Device>>> getAllDevices(WebRequest request) {
+        String etag = revisionTracker.collectionEtag();
+        if (request.checkNotModified(etag)) {
+            logger.debug("Device list unchanged, etag={}", etag);
+            return null;
+        }
+
         logger.info("Fetching all devices...");
         List<Device> devices = deviceRepository.findAll();
-        return ResponseEntity.ok(new ApiResponse<>(true, "Devices retrieved successfully", devices));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(new ApiResponse<>(true, "Devices retrieved successfully", devices));
+    }
+
+    // 🔹 GET one page of devices, sorted and filtered server-side (same revision ETag as the full list)
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<DevicePage>> getDevicePage(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String dir,
+            @RequestParam(required = false) String filter,
+            WebRequest request) {
+        String etag = revisionTracker.collectionEtag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        DevicePage page;
+        try {
+            page = deviceQueryService.page(offset, limit, sort, dir, filter);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Device page rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(new ApiResponse<>(true, "Devices retrieved successfully", page));
+    }
+
+    // 🔹 GET a single device
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<Device>> getDevice(@PathVariable String id, WebRequest request) {
+        String etag = revisionTracker.deviceEtag(id);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        Optional<Device> deviceOpt = deviceRepository.findById(id);
+        if (deviceOpt.isPresent()) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .body(new ApiResponse<>(true, "Device retrieved successfully", deviceOpt.get()));
+        } else {
+            logger.warn("Device not found: id={}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Device not found", null));
+        }
     }
 
     // 🔹 POST: Add a new device
@@ -48,6 +139,7 @@ public class DeviceController {
 
         device.setId(UUID.randomUUID().toString());
         device.setStatus("Online"); // Default status
+        device.setVersion(0L);
         device.setCreatedAt(LocalDateTime.now());
         Device saved = deviceRepository.save(device);
         logger.info("Device added: {}", saved.getName());
@@ -55,26 +147,25 @@ public class DeviceController {
                 .body(new ApiResponse<>(true, "Device added successfully", saved));
     }
 
-    // 🔹 PUT: Update a device
+    // 🔹 PUT: Update a device's inventory fields (optional "version" must match the stored one)
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<Device>> updateDevice(@PathVariable String id, @RequestBody Device updated) {
-        Optional<Device> existingDevice = deviceRepository.findById(id);
-
-        if (existingDevice.isPresent()) {
-            Device device = existingDevice.get();
-            device.setName(updated.getName());
-            device.setIpAddress(updated.getIpAddress());
-            device.setStatus(updated.getStatus());
-            device.setType(updated.getType());
-            device.setCpuUsage(updated.getCpuUsage());
-            device.setMemoryUsage(updated.getMemoryUsage());
-            device.setMacAddress(updated.getMacAddress());
-            device.setInterfaceStatus(updated.getInterfaceStatus());
-            device.setProtocol(updated.getProtocol());
-
-            Device saved = deviceRepository.save(device);
+        Device saved;
+        try {
+            saved = devicePatchService.replace(id, updated);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Device update rejected: id={} reason={}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+
+        if (saved != null) {
             logger.info("Device updated: {}", saved.getName());
             return ResponseEntity.ok(new ApiResponse<>(true, "Device updated successfully", saved));
+        } else if (devicePatchService.exists(id)) {
+            logger.warn("Device update version conflict: id={} version={}", id, updated.getVersion());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "Device was modified concurrently", null));
         } else {
             logger.warn("Device not found for update: id={}", id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -82,6 +173,44 @@ public class DeviceController {
         }
     }
 
+    // 🔹 PATCH: Update only the supplied fields (optional "version" for an optimistic check)
+    @PatchMapping("/{id}")
+    public ResponseEntity<ApiResponse<Device>> patchDevice(@PathVariable String id, @RequestBody Map<String, Object> changes) {
+        Device patched;
+        try {
+            patched = devicePatchService.patch(id, changes);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Device patch rejected: id={} reason={}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+
+        if (patched != null) {
+            return ResponseEntity.ok(new ApiResponse<>(true, "Device updated successfully", patched));
+        } else if (changes.containsKey("version") && devicePatchService.exists(id)) {
+            logger.warn("Device patch version conflict: id={}", id);
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse<>(false, "Device was modified concurrently", null));
+        } else {
+            logger.warn("Device not found for patch: id={}", id);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Device not found", null));
+        }
+    }
+
+    // 🔹 PATCH: Bulk field updates, one entry per device with its "id"; outcome per entry
+    @PatchMapping
+    public ResponseEntity<ApiResponse<PatchResult>> patchDevices(@RequestBody List<Map<String, Object>> patches) {
+        try {
+            PatchResult result = devicePatchService.patchAll(patches);
+            return ResponseEntity.ok(new ApiResponse<>(true, "Devices patched", result));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Bulk device patch rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+    }
+
     // 🔹 DELETE: Delete device by ID
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> deleteDevice(@PathVariable String id) {
@@ -92,6 +221,9 @@ public class DeviceController {
         }
 
         deviceRepository.deleteById(id);
+        alertService.forgetDevice(id);
+        snmpMetricsService.forgetDevice(id);
+        snmpCredentialService.delete(id);
         logger.info("Device deleted: id={}", id);
         return ResponseEntity.ok(new ApiResponse<>(true, "Device deleted successfully", null));
     }
@@ -99,26 +231,73 @@ public class DeviceController {
     // 🔹 GET: Mock device stats (for graph polling)
     @GetMapping("/{id}/status")
     public ResponseEntity<ApiResponse<Device>> getDeviceStatus(@PathVariable String id) {
+        AdmissionControlService.Permit permit = admissionControl.tryAcquire(AdmissionControlService.Operation.STATUS);
+        if (permit == null) {
+            return tooManyRequests(AdmissionControlService.Operation.STATUS, "Too many status requests");
+        }
+        try {
+            Optional<Device> deviceOpt = deviceRepository.findById(id);
+            if (deviceOpt.isPresent()) {
+                Device device = deviceOpt.get();
+                // Simulate CPU and memory usage with historical tracking
+                device.setCpuUsage(Math.random() * 100); // 0-100%
+                device.setMemoryUsage(Math.random() * 100); // 0-100%
+                logger.debug("Stats for device id={} => CPU: {}, Memory: {}", id, device.getCpuUsage(), device.getMemoryUsage());
+                return ResponseEntity.ok(new ApiResponse<>(true, "Device status fetched", device));
+            } else {
+                logger.warn("Device not found for status: id={}", id);
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ApiResponse<>(false, "Device not found", null));
+            }
+        } finally {
+            permit.release();
+        }
+    }
+
+    // 🔹 POST: Push hostname/interface IP to a device over NETCONF (one operation per device at a time)
+    @PostMapping("/{id}/config")
+    public ResponseEntity<ApiResponse<Device>> configureDevice(@PathVariable String id, @RequestBody Map<String, String> config) {
         Optional<Device> deviceOpt = deviceRepository.findById(id);
-        if (deviceOpt.isPresent()) {
-            Device device = deviceOpt.get();
-            // Simulate CPU and memory usage with historical tracking
-            device.setCpuUsage(Math.random() * 100); // 0-100%
-            device.setMemoryUsage(Math.random() * 100); // 0-100%
-            logger.debug("Stats for device id={} => CPU: {}, Memory: {}", id, device.getCpuUsage(), device.getMemoryUsage());
-            return ResponseEntity.ok(new ApiResponse<>(true, "Device status fetched", device));
-        } else {
-            logger.warn("Device not found for status: id={}", id);
+        if (deviceOpt.isEmpty()) {
+            logger.warn("Device not found for config: id={}", id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponse<>(false, "Device not found", null));
         }
+
+        Device device = deviceOpt.get();
+        AdmissionControlService.Permit permit = admissionControl.tryAcquire(AdmissionControlService.Operation.CONFIG, device.getIpAddress());
+        if (permit == null) {
+            logger.warn("Config push rejected: device busy or too many pushes, id={}", id);
+            return tooManyRequests(AdmissionControlService.Operation.CONFIG, "Device is busy or too many config pushes are running");
+        }
+        try {
+            netconfService.configureDevice(device, config);
+        } finally {
+            permit.release();
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, "Device configured", device));
     }
 
     // 🔹 GET: Discover new devices
     @GetMapping("/discover")
     public ResponseEntity<ApiResponse<List<Device>>> discoverDevices() {
-        logger.info("Discovering new devices...");
-        List<Device> devices = deviceDiscoveryService.discoverDevices();
-        return ResponseEntity.ok(new ApiResponse<>(true, "Devices discovered", devices));
+        AdmissionControlService.Permit permit = admissionControl.tryAcquire(AdmissionControlService.Operation.DISCOVER);
+        if (permit == null) {
+            logger.warn("Discovery rejected: too many discoveries running");
+            return tooManyRequests(AdmissionControlService.Operation.DISCOVER, "Too many discoveries running");
+        }
+        try {
+            logger.info("Discovering new devices...");
+            List<Device> devices = deviceDiscoveryService.discoverDevices();
+            return ResponseEntity.ok(new ApiResponse<>(true, "Devices discovered", devices));
+        } finally {
+            permit.release();
+        }
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> tooManyRequests(AdmissionControlService.Operation operation, String message) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(admissionControl.retryAfterSeconds(operation)))
+                .body(new ApiResponse<>(false, message, null));
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.netdash.backend.controller;
+
+import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.model.DiscoveryJob;
+import com.netdash.backend.service.AdmissionControlService;
+import com.netdash.backend.service.DiscoveryJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/devices/discover/jobs")
+@CrossOrigin(origins = "*")
+public class DiscoveryJobController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscoveryJobController.class);
+
+    @Autowired
+    private DiscoveryJobService discoveryJobService;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    // 🔹 POST: Start an asynchronous discovery job
+    @PostMapping
+    public ResponseEntity<ApiResponse<DiscoveryJob>> startJob() {
+        DiscoveryJob job = discoveryJobService.start();
+        if (job == null) {
+            logger.warn("Discovery job rejected: too many concurrent jobs");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(admissionControl.retryAfterSeconds(AdmissionControlService.Operation.DISCOVER)))
+                    .body(new ApiResponse<>(false, "Too many discovery jobs running", null));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(new ApiResponse<>(true, "Discovery job started", job));
+    }
+
+    // 🔹 GET: Job state and progress
+    @GetMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<DiscoveryJob>> getJob(@PathVariable String jobId) {
+        DiscoveryJob job = discoveryJobService.get(jobId);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Discovery job not found", null));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, "Discovery job " + job.getState(), job));
+    }
+
+    // 🔹 GET: Stream found devices ("device"), "progress" and the final "done" event
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String jobId) {
+        SseEmitter emitter = discoveryJobService.subscribe(jobId);
+        if (emitter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    // 🔹 DELETE: Cancel a running job
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<ApiResponse<Void>> cancelJob(@PathVariable String jobId) {
+        if (!discoveryJobService.cancel(jobId)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Discovery job not found", null));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, "Discovery job cancellation requested", null));
+    }
+}
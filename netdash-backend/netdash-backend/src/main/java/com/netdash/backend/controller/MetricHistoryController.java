@@ -0,0 +1,56 @@
+package com.netdash.backend.controller;
+
+import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.model.MetricRollup;
+import com.netdash.backend.service.MetricStore;
+import com.netdash.backend.service.MetricStores;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/devices")
+@CrossOrigin(origins = "*")
+public class MetricHistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricHistoryController.class);
+
+    @Autowired
+    private MetricStores metricStores;
+
+    // 🔹 GET: Metric history, resolution (raw/1m/5m/1h) picked from the requested range
+    @GetMapping("/{id}/history")
+    public ResponseEntity<ApiResponse<List<MetricRollup>>> getHistory(@PathVariable String id,
+                                                                      @RequestParam(defaultValue = "cpuUsage") String metric,
+                                                                      @RequestParam(required = false) String from,
+                                                                      @RequestParam(required = false) String to,
+                                                                      @RequestParam(required = false) Integer maxPoints) {
+        Instant end;
+        Instant start;
+        try {
+            end = to != null ? Instant.parse(to) : Instant.now();
+            start = from != null ? Instant.parse(from) : end.minus(Duration.ofHours(1));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "from/to must be ISO-8601 instants", null));
+        }
+        if (!start.isBefore(end)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new ApiResponse<>(false, "from must be before to", null));
+        }
+
+        MetricStore store = metricStores.active();
+        String tier = store.chooseTier(id, metric, start, end, maxPoints);
+        List<MetricRollup> points = store.history(id, metric, start, end, tier);
+        logger.debug("History for device id={} metric={} => {} points at {}", id, metric, points.size(), tier);
+        return ResponseEntity.ok(new ApiResponse<>(true, "History at " + tier + " resolution", points));
+    }
+}
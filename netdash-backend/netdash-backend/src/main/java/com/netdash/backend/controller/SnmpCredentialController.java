@@ -0,0 +1,73 @@
+package com.netdash.backend.controller;
+
+import com.netdash.backend.model.ApiResponse;
+import com.netdash.backend.model.SnmpCredential;
+import com.netdash.backend.repository.DeviceRepository;
+import com.netdash.backend.service.SnmpCredentialService;
+import com.netdash.backend.service.SnmpMetricsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/devices")
+@CrossOrigin(origins = "*")
+public class SnmpCredentialController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SnmpCredentialController.class);
+
+    @Autowired
+    private SnmpCredentialService credentialService;
+
+    @Autowired
+    private SnmpMetricsService snmpMetricsService;
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    // 🔹 GET: A device's SNMP credentials (passphrases and community are never returned)
+    @GetMapping("/{id}/snmp-credentials")
+    public ResponseEntity<ApiResponse<SnmpCredential>> getCredentials(@PathVariable String id) {
+        Optional<SnmpCredential> credential = credentialService.find(id);
+        if (credential.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "No SNMP credentials for device; the default community is used", null));
+        }
+        return ResponseEntity.ok(new ApiResponse<>(true, "SNMP credentials", credential.get()));
+    }
+
+    // 🔹 PUT: Set a device's SNMP credentials (v2c community or v3 authPriv user)
+    @PutMapping("/{id}/snmp-credentials")
+    public ResponseEntity<ApiResponse<SnmpCredential>> putCredentials(@PathVariable String id,
+                                                                      @RequestBody SnmpCredential credential) {
+        if (!deviceRepository.existsById(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "Device not found", null));
+        }
+        try {
+            SnmpCredential saved = credentialService.save(id, credential);
+            // The device may now answer with a different view of the MIB
+            snmpMetricsService.forgetDevice(id);
+            return ResponseEntity.ok(new ApiResponse<>(true, "SNMP credentials saved", saved));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected SNMP credentials for device id={}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(new ApiResponse<>(false, e.getMessage(), null));
+        }
+    }
+
+    // 🔹 DELETE: Revert a device to the default v2c community
+    @DeleteMapping("/{id}/snmp-credentials")
+    public ResponseEntity<ApiResponse<Void>> deleteCredentials(@PathVariable String id) {
+        if (!credentialService.delete(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(new ApiResponse<>(false, "No SNMP credentials for device", null));
+        }
+        snmpMetricsService.forgetDevice(id);
+        return ResponseEntity.ok(new ApiResponse<>(true, "SNMP credentials deleted", null));
+    }
+}
@@ -0,0 +1,45 @@
+package com.netdash.backend.model;
+
+import java.time.LocalDateTime;
+
+public class AlertEvent {
+    private String ruleId;
+    private String ruleName;
+    private String severity;
+    private String deviceId;
+    private String metric;
+    private double value;
+    private String state;
+    private LocalDateTime timestamp;
+
+    public AlertEvent() {}
+
+    public AlertEvent(AlertRule rule, MetricSample sample, String state) {
+        this.ruleId = rule.getId();
+        this.ruleName = rule.getName();
+        this.severity = rule.getSeverity();
+        this.deviceId = sample.getDeviceId();
+        this.metric = sample.getMetric();
+        this.value = sample.getValue();
+        this.state = state;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getRuleId() { return ruleId; }
+    public void setRuleId(String ruleId) { this.ruleId = ruleId; }
+    public String getRuleName() { return ruleName; }
+    public void setRuleName(String ruleName) { this.ruleName = ruleName; }
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public void setTimestamp(LocalDateTime timestamp) { this.timestamp = timestamp; }
+}
@@ -0,0 +1,82 @@
+package com.netdash.backend.model;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Set;
+
+@Document("alert_rule")
+public class AlertRule {
+    public static final Set<String> AGGREGATES = Set.of("avg", "min", "max");
+
+    private String id;
+    private String name;
+    private String metric;
+    private String operator;
+    private double threshold;
+    private int consecutiveSamples = 1;
+    private long durationSeconds;
+    private String aggregate; // null: compare each sample; avg/min/max: compare that aggregate over windowSeconds
+    private long windowSeconds;
+    private String severity = "WARNING";
+    private boolean enabled = true;
+
+    public AlertRule() {}
+
+    public AlertRule(String name, String metric, String operator, double threshold, int consecutiveSamples, long durationSeconds) {
+        this.name = name;
+        this.metric = metric;
+        this.operator = operator;
+        this.threshold = threshold;
+        this.consecutiveSamples = consecutiveSamples;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public boolean matches(double value) {
+        switch (operator) {
+            case ">": return value > threshold;
+            case ">=": return value >= threshold;
+            case "<": return value < threshold;
+            case "<=": return value <= threshold;
+            case "==": return value == threshold;
+            case "!=": return value != threshold;
+            default: throw new IllegalStateException("Unknown operator: " + operator);
+        }
+    }
+
+    /** Rejects unknown operators and incomplete window settings (IllegalStateException). */
+    public void validate() {
+        matches(0);
+        if (aggregate != null) {
+            if (!AGGREGATES.contains(aggregate)) {
+                throw new IllegalStateException("Unknown aggregate: " + aggregate);
+            }
+            if (windowSeconds < 1) {
+                throw new IllegalStateException("windowSeconds >= 1 is required with an aggregate");
+            }
+        }
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+    public String getOperator() { return operator; }
+    public void setOperator(String operator) { this.operator = operator; }
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+    public int getConsecutiveSamples() { return consecutiveSamples; }
+    public void setConsecutiveSamples(int consecutiveSamples) { this.consecutiveSamples = consecutiveSamples; }
+    public long getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(long durationSeconds) { this.durationSeconds = durationSeconds; }
+    public String getAggregate() { return aggregate; }
+    public void setAggregate(String aggregate) { this.aggregate = aggregate; }
+    public long getWindowSeconds() { return windowSeconds; }
+    public void setWindowSeconds(long windowSeconds) { this.windowSeconds = windowSeconds; }
+    public String getSeverity() { return severity; }
+    public void setSeverity(String severity) { this.severity = severity; }
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+}
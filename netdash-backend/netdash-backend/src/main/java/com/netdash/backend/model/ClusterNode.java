@@ -0,0 +1,31 @@
+package com.netdash.backend.model;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+@Document("cluster_node")
+public class ClusterNode {
+    private String id;
+    private Instant startedAt;
+    private Instant lastHeartbeat;
+    private long revision;
+    private long rulesRevision;
+    private int ownedPartitions;
+
+    public ClusterNode() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public Instant getStartedAt() { return startedAt; }
+    public void setStartedAt(Instant startedAt) { this.startedAt = startedAt; }
+    public Instant getLastHeartbeat() { return lastHeartbeat; }
+    public void setLastHeartbeat(Instant lastHeartbeat) { this.lastHeartbeat = lastHeartbeat; }
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+    public long getRulesRevision() { return rulesRevision; }
+    public void setRulesRevision(long rulesRevision) { this.rulesRevision = rulesRevision; }
+    public int getOwnedPartitions() { return ownedPartitions; }
+    public void setOwnedPartitions(int ownedPartitions) { this.ownedPartitions = ownedPartitions; }
+}
@@ -1,5 +1,7 @@
 package com.netdash.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 
 public class Device {
@@ -14,6 +16,12 @@ public class Device {
     private String macAddress;
     private String interfaceStatus;
     private String protocol;
+    private Long version; // null when the client didn't read one (no optimistic check)
+    private String host; // machine that owns this row for host-inventory devices (USB, local router)
+    @JsonIgnore
+    private Integer partition; // cluster partition of the id, stamped by ClusterCoordinator
+    @JsonIgnore
+    private Integer partitionCount; // partition count the stamp was computed for
 
     public Device() {}
 
@@ -58,4 +66,12 @@ public class Device {
     public void setInterfaceStatus(String interfaceStatus) { this.interfaceStatus = interfaceStatus; }
     public String getProtocol() { return protocol; }
     public void setProtocol(String protocol) { this.protocol = protocol; }
-}
\ No newline at end of file
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+    public Integer getPartition() { return partition; }
+    public void setPartition(Integer partition) { this.partition = partition; }
+    public Integer getPartitionCount() { return partitionCount; }
+    public void setPartitionCount(Integer partitionCount) { this.partitionCount = partitionCount; }
+}
@@ -0,0 +1,31 @@
+package com.netdash.backend.model;
+
+import java.util.List;
+
+public class DevicePage {
+    private List<Device> items;
+    private long total;
+    private int offset;
+    private int limit;
+
+    public DevicePage() {}
+
+    public DevicePage(List<Device> items, long total, int offset, int limit) {
+        this.items = items;
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+    }
+
+    public List<Device> getItems() { return items; }
+    public void setItems(List<Device> items) { this.items = items; }
+
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,51 @@
+package com.netdash.backend.model;
+
+import java.time.LocalDateTime;
+
+public class DiscoveryJob {
+    private String id;
+    private String state;
+    private String step;
+    private int stepsDone;
+    private int stepsTotal;
+    private int devicesFound;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    public DiscoveryJob() {}
+
+    public DiscoveryJob(String id) {
+        this.id = id;
+        this.state = "RUNNING";
+        this.startedAt = LocalDateTime.now();
+    }
+
+    public int getProgress() {
+        return stepsTotal == 0 ? 0 : (int) (100L * stepsDone / stepsTotal);
+    }
+
+    public boolean isFinished() {
+        return !"RUNNING".equals(state);
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public String getStep() { return step; }
+    public void setStep(String step) { this.step = step; }
+    public int getStepsDone() { return stepsDone; }
+    public void setStepsDone(int stepsDone) { this.stepsDone = stepsDone; }
+    public int getStepsTotal() { return stepsTotal; }
+    public void setStepsTotal(int stepsTotal) { this.stepsTotal = stepsTotal; }
+    public int getDevicesFound() { return devicesFound; }
+    public void setDevicesFound(int devicesFound) { this.devicesFound = devicesFound; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+    public void setFinishedAt(LocalDateTime finishedAt) { this.finishedAt = finishedAt; }
+}
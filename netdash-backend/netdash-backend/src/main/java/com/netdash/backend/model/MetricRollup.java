@@ -0,0 +1,57 @@
+package com.netdash.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.Instant;
+
+public class MetricRollup {
+    private String id;
+    private String deviceId;
+    private String metric;
+    private String tier;
+    private Instant bucketStart;
+    private long count;
+    private double min;
+    private double max;
+    private double sum;
+    private double avg;
+    private double p95;
+    @JsonIgnore
+    private int[] sketchBins;
+    @JsonIgnore
+    private long[] sketchCounts;
+    @JsonIgnore
+    private long sketchZeroCount;
+
+    public MetricRollup() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+    public String getTier() { return tier; }
+    public void setTier(String tier) { this.tier = tier; }
+    public Instant getBucketStart() { return bucketStart; }
+    public void setBucketStart(Instant bucketStart) { this.bucketStart = bucketStart; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public double getMin() { return min; }
+    public void setMin(double min) { this.min = min; }
+    public double getMax() { return max; }
+    public void setMax(double max) { this.max = max; }
+    public double getSum() { return sum; }
+    public void setSum(double sum) { this.sum = sum; }
+    public double getAvg() { return avg; }
+    public void setAvg(double avg) { this.avg = avg; }
+    public double getP95() { return p95; }
+    public void setP95(double p95) { this.p95 = p95; }
+    public int[] getSketchBins() { return sketchBins; }
+    public void setSketchBins(int[] sketchBins) { this.sketchBins = sketchBins; }
+    public long[] getSketchCounts() { return sketchCounts; }
+    public void setSketchCounts(long[] sketchCounts) { this.sketchCounts = sketchCounts; }
+    public long getSketchZeroCount() { return sketchZeroCount; }
+    public void setSketchZeroCount(long sketchZeroCount) { this.sketchZeroCount = sketchZeroCount; }
+}
@@ -0,0 +1,27 @@
+package com.netdash.backend.model;
+
+public class MetricSample {
+    private String deviceId;
+    private String metric;
+    private double value;
+    private long timestamp;
+
+    public MetricSample() {}
+
+    public MetricSample(String deviceId, String metric, double value, long timestamp) {
+        this.deviceId = deviceId;
+        this.metric = metric;
+        this.value = value;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public String getDeviceId() { return deviceId; }
+    public void setDeviceId(String deviceId) { this.deviceId = deviceId; }
+    public String getMetric() { return metric; }
+    public void setMetric(String metric) { this.metric = metric; }
+    public double getValue() { return value; }
+    public void setValue(double value) { this.value = value; }
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
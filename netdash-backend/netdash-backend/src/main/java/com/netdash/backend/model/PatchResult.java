@@ -0,0 +1,60 @@
+package com.netdash.backend.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PatchResult {
+    public static final String PATCHED = "PATCHED";
+    public static final String CONFLICT = "CONFLICT";
+    public static final String NOT_FOUND = "NOT_FOUND";
+
+    private int requested;
+    private int patched;
+    private int conflicts;
+    private int notFound;
+    private List<Item> items = new ArrayList<>();
+
+    public static class Item {
+        private String id;
+        private String outcome;
+        private Long version; // stored version after the patch, or the conflicting one; null if not known
+
+        public Item() {}
+
+        public Item(String id, String outcome, Long version) {
+            this.id = id;
+            this.outcome = outcome;
+            this.version = version;
+        }
+
+        public String getId() { return id; }
+        public void setId(String id) { this.id = id; }
+        public String getOutcome() { return outcome; }
+        public void setOutcome(String outcome) { this.outcome = outcome; }
+        public Long getVersion() { return version; }
+        public void setVersion(Long version) { this.version = version; }
+    }
+
+    public PatchResult() {}
+
+    public void add(Item item) {
+        items.add(item);
+        switch (item.getOutcome()) {
+            case PATCHED -> patched++;
+            case CONFLICT -> conflicts++;
+            default -> notFound++;
+        }
+    }
+
+    // Getters and Setters
+    public int getRequested() { return requested; }
+    public void setRequested(int requested) { this.requested = requested; }
+    public int getPatched() { return patched; }
+    public void setPatched(int patched) { this.patched = patched; }
+    public int getConflicts() { return conflicts; }
+    public void setConflicts(int conflicts) { this.conflicts = conflicts; }
+    public int getNotFound() { return notFound; }
+    public void setNotFound(int notFound) { this.notFound = notFound; }
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+}
@@ -0,0 +1,50 @@
+package com.netdash.backend.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Per-device SNMP credentials; the id is the device id. Passphrases and the community are
+ * write-only over the API.
+ */
+@Document("snmp_credential")
+public class SnmpCredential {
+    private String id;
+    private String version = "v2c";
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String community;
+    private String securityName;
+    private String authProtocol = "SHA";
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String authPassphrase;
+    private String privProtocol = "AES128";
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String privPassphrase;
+    private String contextName;
+
+    public SnmpCredential() {}
+
+    public boolean isV3() {
+        return "v3".equalsIgnoreCase(version);
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getVersion() { return version; }
+    public void setVersion(String version) { this.version = version; }
+    public String getCommunity() { return community; }
+    public void setCommunity(String community) { this.community = community; }
+    public String getSecurityName() { return securityName; }
+    public void setSecurityName(String securityName) { this.securityName = securityName; }
+    public String getAuthProtocol() { return authProtocol; }
+    public void setAuthProtocol(String authProtocol) { this.authProtocol = authProtocol; }
+    public String getAuthPassphrase() { return authPassphrase; }
+    public void setAuthPassphrase(String authPassphrase) { this.authPassphrase = authPassphrase; }
+    public String getPrivProtocol() { return privProtocol; }
+    public void setPrivProtocol(String privProtocol) { this.privProtocol = privProtocol; }
+    public String getPrivPassphrase() { return privPassphrase; }
+    public void setPrivPassphrase(String privPassphrase) { this.privPassphrase = privPassphrase; }
+    public String getContextName() { return contextName; }
+    public void setContextName(String contextName) { this.contextName = contextName; }
+}
@@ -0,0 +1,40 @@
+package com.netdash.backend.model;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Last known SNMPv3 authoritative engine of an agent address (id is "ip/port"), so a restart
+ * does not need engine discovery or a time-window resync before the first poll.
+ */
+@Document("snmp_engine")
+public class SnmpEngineState {
+    private String id;
+    private String engineId;
+    private int engineBoots;
+    private int engineTime;
+    private Instant observedAt;
+
+    public SnmpEngineState() {}
+
+    public SnmpEngineState(String id, String engineId, int engineBoots, int engineTime, Instant observedAt) {
+        this.id = id;
+        this.engineId = engineId;
+        this.engineBoots = engineBoots;
+        this.engineTime = engineTime;
+        this.observedAt = observedAt;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getEngineId() { return engineId; }
+    public void setEngineId(String engineId) { this.engineId = engineId; }
+    public int getEngineBoots() { return engineBoots; }
+    public void setEngineBoots(int engineBoots) { this.engineBoots = engineBoots; }
+    public int getEngineTime() { return engineTime; }
+    public void setEngineTime(int engineTime) { this.engineTime = engineTime; }
+    public Instant getObservedAt() { return observedAt; }
+    public void setObservedAt(Instant observedAt) { this.observedAt = observedAt; }
+}
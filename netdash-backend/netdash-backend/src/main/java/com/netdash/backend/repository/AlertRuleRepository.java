@@ -0,0 +1,7 @@
+package com.netdash.backend.repository;
+
+import com.netdash.backend.model.AlertRule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface AlertRuleRepository extends MongoRepository<AlertRule, String> {
+}
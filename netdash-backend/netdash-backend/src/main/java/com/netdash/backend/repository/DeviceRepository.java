@@ -5,6 +5,14 @@ package com.netdash.backend.repository;
 import com.netdash.backend.model.Device;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface DeviceRepository extends MongoRepository<Device, String> {
     // You can add custom queries later
+    List<Device> findByType(String type);
+
+    List<Device> findByTypeInAndHost(Collection<String> types, String host);
+
+    List<Device> findByIpAddressIn(Collection<String> ipAddresses);
 }
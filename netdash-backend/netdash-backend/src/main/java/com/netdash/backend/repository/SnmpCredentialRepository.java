@@ -0,0 +1,7 @@
+package com.netdash.backend.repository;
+
+import com.netdash.backend.model.SnmpCredential;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SnmpCredentialRepository extends MongoRepository<SnmpCredential, String> {
+}
@@ -0,0 +1,7 @@
+package com.netdash.backend.repository;
+
+import com.netdash.backend.model.SnmpEngineState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface SnmpEngineStateRepository extends MongoRepository<SnmpEngineState, String> {
+}
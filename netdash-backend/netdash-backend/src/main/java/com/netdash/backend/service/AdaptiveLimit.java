@@ -0,0 +1,104 @@
+package com.netdash.backend.service;
+
+/**
+ * Concurrency limit that follows observed latency (AIMD against a no-load baseline).
+ * Completions feed a smoothed latency; the baseline is a decaying minimum of it. While the
+ * smoothed latency stays within {@code tolerance} times the baseline and the limit is actually
+ * in use, the limit grows by about one per limit's worth of completions; once it rises above,
+ * work is queueing somewhere (device, network, MongoDB, a worker pool) and the limit is cut
+ * multiplicatively, at most once per limit's worth of completions so a burst of slow responses
+ * counts as one signal. Smoothing keeps a mix of fast and slow devices in one class from reading
+ * as congestion.
+ *
+ * The baseline drops at once to any lower smoothed latency and otherwise creeps toward the
+ * current one, so a run of unusually fast completions or a target that became slower for good
+ * cannot pin it. It stops creeping while callers are being turned away (or until a full window
+ * of completions has passed since), unless the limit is already at its minimum: latency measured
+ * while demand exceeds the limit may be our own queueing, and letting it raise the baseline would
+ * ratchet the limit up under sustained overload. Callers that simply retry later (the poller)
+ * acquire without counting their refusals. Work that never ran returns its slot with cancel().
+ */
+public class AdaptiveLimit {
+
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double SMOOTHING = 0.1;
+    private static final int BASELINE_WINDOW = 500;
+    private static final double BASELINE_DECAY = 1.0 / BASELINE_WINDOW;
+    // Below this, latency differences are scheduling noise rather than queueing
+    private static final long MIN_BASELINE_NANOS = 1_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private double limit;
+    private int inFlight;
+    private double smoothedNanos;
+    private double baselineNanos = Double.MAX_VALUE;
+    private int sinceRejection = BASELINE_WINDOW;
+    private int sinceDecrease;
+
+    public AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance <= 1) {
+            throw new IllegalArgumentException("Invalid limit bounds " + minLimit + ".." + maxLimit + " or tolerance " + tolerance);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(true);
+    }
+
+    /** Takes a slot; countRejection=false for callers whose refusal only defers work (no excess demand signal). */
+    public synchronized boolean tryAcquire(boolean countRejection) {
+        if (inFlight >= (int) limit) {
+            if (countRejection) {
+                sinceRejection = 0;
+            }
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /** Returns a slot without a latency sample (the operation never ran). */
+    public synchronized void cancel() {
+        inFlight--;
+    }
+
+    public synchronized void release(long latencyNanos) {
+        boolean saturated = inFlight * 2 >= (int) limit;
+        inFlight--;
+        smoothedNanos = smoothedNanos == 0 ? latencyNanos : smoothedNanos + SMOOTHING * (latencyNanos - smoothedNanos);
+        updateBaseline();
+
+        sinceDecrease++;
+        if (smoothedNanos > tolerance * Math.max(baselineNanos, MIN_BASELINE_NANOS)) {
+            if (sinceDecrease >= (int) limit) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                sinceDecrease = 0;
+            }
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private void updateBaseline() {
+        if (smoothedNanos < baselineNanos) {
+            baselineNanos = smoothedNanos;
+        } else if (sinceRejection >= BASELINE_WINDOW || (int) limit <= minLimit) {
+            baselineNanos += (smoothedNanos - baselineNanos) * BASELINE_DECAY;
+        }
+        if (sinceRejection < BASELINE_WINDOW) {
+            sinceRejection++;
+        }
+    }
+
+    public synchronized int getLimit() { return (int) limit; }
+    public synchronized int getInFlight() { return inFlight; }
+    public synchronized long getAverageLatencyNanos() { return (long) smoothedNanos; }
+    public synchronized long getBaselineNanos() { return baselineNanos == Double.MAX_VALUE ? 0 : (long) baselineNanos; }
+}
@@ -0,0 +1,171 @@
+package com.netdash.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admission control for work that reaches devices or fans out into MongoDB.
+ * Each operation class has its own adaptive concurrency limit (see AdaptiveLimit), and each
+ * target device (by IP address) accepts at most per-target operations at once across all
+ * classes, so polls, config pushes and discovery never hit one device in parallel.
+ *
+ * Nothing waits for a slot: API callers get 429 with a Retry-After derived from the class's
+ * recent latency, and the poller leaves the rest of a cycle for the next one. Rejecting early
+ * keeps admitted work fast when offered load exceeds what the devices and database can serve.
+ */
+@Service
+public class AdmissionControlService {
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlService.class);
+
+    private static final int MAX_RETRY_AFTER_SECONDS = 60;
+
+    public enum Operation { DISCOVER, CONFIG, STATUS, POLL }
+
+    private final boolean enabled;
+    private final int perTarget;
+    private final Map<Operation, AdaptiveLimit> limits = new EnumMap<>(Operation.class);
+    private final ConcurrentHashMap<String, Integer> targets = new ConcurrentHashMap<>();
+
+    /** A granted slot; release it when the operation is done, or cancel it if the operation never ran. */
+    public final class Permit {
+        private final AdaptiveLimit limit;
+        private final String target;
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        private Permit(AdaptiveLimit limit, String target) {
+            this.limit = limit;
+            this.target = target;
+        }
+
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (limit != null) {
+                limit.release(System.nanoTime() - startNanos);
+            }
+            if (target != null) {
+                exitTarget(target);
+            }
+        }
+
+        /** Returns the slot without a latency sample, for work that was skipped rather than run. */
+        public void cancel() {
+            if (released) {
+                return;
+            }
+            released = true;
+            if (limit != null) {
+                limit.cancel();
+            }
+            if (target != null) {
+                exitTarget(target);
+            }
+        }
+    }
+
+    public AdmissionControlService(
+            @Value("${netdash.admission.enabled:true}") boolean enabled,
+            @Value("${netdash.admission.per-target:1}") int perTarget,
+            @Value("${netdash.admission.latency-tolerance:2.0}") double tolerance,
+            @Value("${netdash.admission.max-limit.discover:2}") int discoverLimit,
+            @Value("${netdash.admission.max-limit.config:4}") int configLimit,
+            @Value("${netdash.admission.max-limit.status:64}") int statusLimit,
+            @Value("${netdash.admission.max-limit.poll:32}") int pollLimit) {
+        this.enabled = enabled;
+        this.perTarget = perTarget;
+        limits.put(Operation.DISCOVER, newLimit(discoverLimit, tolerance));
+        limits.put(Operation.CONFIG, newLimit(configLimit, tolerance));
+        limits.put(Operation.STATUS, newLimit(statusLimit, tolerance));
+        limits.put(Operation.POLL, newLimit(pollLimit, tolerance));
+    }
+
+    // Start halfway and let observed latency move the limit from there
+    private static AdaptiveLimit newLimit(int maxLimit, double tolerance) {
+        return new AdaptiveLimit(Math.max(1, maxLimit / 2), 1, maxLimit, tolerance);
+    }
+
+    public Permit tryAcquire(Operation operation) {
+        return tryAcquire(operation, null);
+    }
+
+    /**
+     * Takes a slot of the operation class and, when target is not null, of that device.
+     * Returns null when either is full.
+     */
+    public Permit tryAcquire(Operation operation, String target) {
+        return acquire(operation, target, true);
+    }
+
+    /**
+     * Like tryAcquire, for callers that simply come back later (the poller). Their refusals are
+     * not excess demand, so they don't hold the class's latency baseline down.
+     */
+    public Permit tryAcquireDeferrable(Operation operation, String target) {
+        return acquire(operation, target, false);
+    }
+
+    private Permit acquire(Operation operation, String target, boolean countRejection) {
+        if (!enabled) {
+            return new Permit(null, null);
+        }
+        AdaptiveLimit limit = limits.get(operation);
+        if (!limit.tryAcquire(countRejection)) {
+            logger.debug("Admission rejected: {} at limit {}", operation, limit.getLimit());
+            return null;
+        }
+        if (target != null && !tryEnterTarget(target)) {
+            limit.cancel();
+            logger.debug("Admission rejected: {} for busy target {}", operation, target);
+            return null;
+        }
+        return new Permit(limit, target);
+    }
+
+    /** Claims one of a device's in-flight slots outside any operation class. */
+    public boolean tryEnterTarget(String target) {
+        if (!enabled || target == null) {
+            return true;
+        }
+        boolean[] entered = {false};
+        targets.compute(target, (key, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= perTarget) {
+                return count;
+            }
+            entered[0] = true;
+            return current + 1;
+        });
+        return entered[0];
+    }
+
+    public void exitTarget(String target) {
+        if (!enabled || target == null) {
+            return;
+        }
+        targets.computeIfPresent(target, (key, count) -> count <= 1 ? null : count - 1);
+    }
+
+    /** Seconds a rejected caller should wait: about one typical operation of that class. */
+    public int retryAfterSeconds(Operation operation) {
+        long averageNanos = limits.get(operation).getAverageLatencyNanos();
+        long seconds = (averageNanos + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, seconds));
+    }
+
+    public int getLimit(Operation operation) {
+        return limits.get(operation).getLimit();
+    }
+
+    public int getInFlight(Operation operation) {
+        return limits.get(operation).getInFlight();
+    }
+}
@@ -0,0 +1,283 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.AlertRule;
+import com.netdash.backend.model.MetricSample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Incremental rule evaluation over the live sample stream.
+ * Each (device, rule) pair keeps a consecutive-breach counter, the timestamp of the first breach
+ * and a firing flag. Rules with an aggregate (avg/min/max over windowSeconds) also keep a sliding
+ * window of a fixed number of sub-buckets, and the threshold is applied to the aggregate instead
+ * of the raw sample. Memory per pair is therefore constant no matter how long a rule's window is.
+ * Only rules watching the sample's metric are touched per sample. Duration rules are also checked
+ * by sweep(), so a breach still fires when the device stops reporting before the duration is up.
+ */
+public class AlertRuleEvaluator {
+
+    /** A rule starting or stopping to fire for a device. */
+    public static final class Transition {
+        private final AlertRule rule;
+        private final boolean firing;
+        private final MetricSample sample;
+
+        Transition(AlertRule rule, boolean firing, MetricSample sample) {
+            this.rule = rule;
+            this.firing = firing;
+            this.sample = sample;
+        }
+
+        public AlertRule getRule() { return rule; }
+        public boolean isFiring() { return firing; }
+        /** The sample that caused it; for a sweep, the last breaching value at the sweep time. */
+        public MetricSample getSample() { return sample; }
+    }
+
+    private static final class Ruleset {
+        final List<AlertRule> rules;
+        final Map<String, int[]> indexesByMetric;
+        final Map<String, Integer> indexById;
+
+        Ruleset(List<AlertRule> rules) {
+            this.rules = rules;
+            Map<String, List<Integer>> byMetric = new HashMap<>();
+            this.indexById = new HashMap<>();
+            for (int i = 0; i < rules.size(); i++) {
+                byMetric.computeIfAbsent(rules.get(i).getMetric(), k -> new ArrayList<>()).add(i);
+                indexById.put(rules.get(i).getId(), i);
+            }
+            this.indexesByMetric = new HashMap<>();
+            byMetric.forEach((metric, indexes) ->
+                    indexesByMetric.put(metric, indexes.stream().mapToInt(Integer::intValue).toArray()));
+        }
+    }
+
+    private static final class DeviceState {
+        Ruleset ruleset;
+        int[] consecutive;
+        long[] breachSince;
+        double[] lastBreach;
+        boolean[] firing;
+        Window[] windows;
+
+        DeviceState(Ruleset ruleset) {
+            reset(ruleset);
+        }
+
+        void reset(Ruleset ruleset) {
+            this.ruleset = ruleset;
+            int n = ruleset.rules.size();
+            this.consecutive = new int[n];
+            this.breachSince = new long[n];
+            this.lastBreach = new double[n];
+            this.firing = new boolean[n];
+            this.windows = new Window[n];
+        }
+
+        Window window(int i, AlertRule rule) {
+            if (windows[i] == null) {
+                windows[i] = new Window(rule.getWindowSeconds() * 1000);
+            }
+            return windows[i];
+        }
+
+        // Carries counters over to a new ruleset for rules that still exist
+        void migrate(Ruleset next) {
+            Ruleset previous = ruleset;
+            int[] oldConsecutive = consecutive;
+            long[] oldBreachSince = breachSince;
+            double[] oldLastBreach = lastBreach;
+            boolean[] oldFiring = firing;
+            Window[] oldWindows = windows;
+            reset(next);
+            for (int i = 0; i < next.rules.size(); i++) {
+                Integer old = previous.indexById.get(next.rules.get(i).getId());
+                if (old != null) {
+                    consecutive[i] = oldConsecutive[old];
+                    breachSince[i] = oldBreachSince[old];
+                    lastBreach[i] = oldLastBreach[old];
+                    firing[i] = oldFiring[old];
+                    Window window = oldWindows[old];
+                    if (window != null && window.windowMs == next.rules.get(i).getWindowSeconds() * 1000) {
+                        windows[i] = window;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Sliding window over BUCKETS fixed-width time slices, each holding count/sum/min/max.
+     * A slice is reset when time wraps around to it, so the window covers the windowMs before the
+     * newest sample to within one slice; samples older than that are ignored.
+     */
+    static final class Window {
+        static final int BUCKETS = 10;
+
+        final long windowMs;
+        private final long widthMs;
+        private final long[] slice = new long[BUCKETS];
+        private final long[] count = new long[BUCKETS];
+        private final double[] sum = new double[BUCKETS];
+        private final double[] min = new double[BUCKETS];
+        private final double[] max = new double[BUCKETS];
+        private long newest = Long.MIN_VALUE + BUCKETS;
+
+        Window(long windowMs) {
+            this.windowMs = windowMs;
+            this.widthMs = Math.max(1, (windowMs + BUCKETS - 1) / BUCKETS);
+            Arrays.fill(slice, Long.MIN_VALUE);
+        }
+
+        /** Returns false, ignoring the sample, when it is older than the window. */
+        boolean add(long timestamp, double value) {
+            long n = Math.floorDiv(timestamp, widthMs);
+            if (n <= newest - BUCKETS) {
+                return false;
+            }
+            newest = Math.max(newest, n);
+            int b = (int) Math.floorMod(n, (long) BUCKETS);
+            if (slice[b] != n) {
+                slice[b] = n;
+                count[b] = 0;
+                sum[b] = 0;
+                min[b] = Double.POSITIVE_INFINITY;
+                max[b] = Double.NEGATIVE_INFINITY;
+            }
+            count[b]++;
+            sum[b] += value;
+            min[b] = Math.min(min[b], value);
+            max[b] = Math.max(max[b], value);
+            return true;
+        }
+
+        double value(String aggregate) {
+            long total = 0;
+            double totalSum = 0;
+            double lowest = Double.POSITIVE_INFINITY;
+            double highest = Double.NEGATIVE_INFINITY;
+            for (int b = 0; b < BUCKETS; b++) {
+                if (slice[b] > newest - BUCKETS && slice[b] <= newest) {
+                    total += count[b];
+                    totalSum += sum[b];
+                    lowest = Math.min(lowest, min[b]);
+                    highest = Math.max(highest, max[b]);
+                }
+            }
+            switch (aggregate) {
+                case "min": return lowest;
+                case "max": return highest;
+                default: return total > 0 ? totalSum / total : Double.NaN;
+            }
+        }
+    }
+
+    private volatile Ruleset ruleset = new Ruleset(Collections.emptyList());
+    private final ConcurrentHashMap<String, DeviceState> states = new ConcurrentHashMap<>();
+
+    public void setRules(List<AlertRule> rules) {
+        List<AlertRule> enabled = new ArrayList<>();
+        for (AlertRule rule : rules) {
+            if (rule.isEnabled()) {
+                enabled.add(rule);
+            }
+        }
+        ruleset = new Ruleset(Collections.unmodifiableList(enabled));
+    }
+
+    public List<AlertRule> getRules() {
+        return ruleset.rules;
+    }
+
+    public void forgetDevice(String deviceId) {
+        states.remove(deviceId);
+    }
+
+    public List<Transition> evaluate(MetricSample sample) {
+        Ruleset current = ruleset;
+        int[] indexes = current.indexesByMetric.get(sample.getMetric());
+        if (indexes == null) {
+            return Collections.emptyList();
+        }
+
+        DeviceState state = states.computeIfAbsent(sample.getDeviceId(), k -> new DeviceState(current));
+        List<Transition> transitions = null;
+        synchronized (state) {
+            if (state.ruleset != current) {
+                state.migrate(current);
+            }
+            for (int i : indexes) {
+                AlertRule rule = current.rules.get(i);
+                double value = sample.getValue();
+                if (rule.getAggregate() != null) {
+                    Window window = state.window(i, rule);
+                    if (!window.add(sample.getTimestamp(), value)) {
+                        continue;
+                    }
+                    value = window.value(rule.getAggregate());
+                }
+                if (rule.matches(value)) {
+                    if (state.consecutive[i]++ == 0) {
+                        state.breachSince[i] = sample.getTimestamp();
+                    }
+                    state.lastBreach[i] = sample.getValue();
+                    boolean satisfied = state.consecutive[i] >= rule.getConsecutiveSamples()
+                            && sample.getTimestamp() - state.breachSince[i] >= rule.getDurationSeconds() * 1000;
+                    if (satisfied && !state.firing[i]) {
+                        state.firing[i] = true;
+                        transitions = add(transitions, new Transition(rule, true, sample));
+                    }
+                } else {
+                    state.consecutive[i] = 0;
+                    if (state.firing[i]) {
+                        state.firing[i] = false;
+                        transitions = add(transitions, new Transition(rule, false, sample));
+                    }
+                }
+            }
+        }
+        return transitions != null ? transitions : Collections.emptyList();
+    }
+
+    /**
+     * Fires duration rules whose breach has lasted long enough by now without a new sample to
+     * evaluate it. The transition carries the device's last breaching value.
+     */
+    public List<Transition> sweep(long now) {
+        Ruleset current = ruleset;
+        List<Transition> transitions = null;
+        for (Map.Entry<String, DeviceState> entry : states.entrySet()) {
+            DeviceState state = entry.getValue();
+            synchronized (state) {
+                if (state.ruleset != current) {
+                    state.migrate(current);
+                }
+                for (int i = 0; i < current.rules.size(); i++) {
+                    AlertRule rule = current.rules.get(i);
+                    if (state.firing[i] || rule.getDurationSeconds() <= 0 || state.consecutive[i] == 0
+                            || state.consecutive[i] < rule.getConsecutiveSamples()
+                            || now - state.breachSince[i] < rule.getDurationSeconds() * 1000) {
+                        continue;
+                    }
+                    state.firing[i] = true;
+                    MetricSample last = new MetricSample(entry.getKey(), rule.getMetric(), state.lastBreach[i], now);
+                    transitions = add(transitions, new Transition(rule, true, last));
+                }
+            }
+        }
+        return transitions != null ? transitions : Collections.emptyList();
+    }
+
+    private static List<Transition> add(List<Transition> transitions, Transition transition) {
+        List<Transition> list = transitions != null ? transitions : new ArrayList<>(2);
+        list.add(transition);
+        return list;
+    }
+}
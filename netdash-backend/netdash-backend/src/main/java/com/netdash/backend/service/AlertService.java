@@ -0,0 +1,223 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.AlertEvent;
+import com.netdash.backend.model.AlertRule;
+import com.netdash.backend.model.MetricSample;
+import com.netdash.backend.repository.AlertRuleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds live samples into the rule evaluator, tracks active alerts and pushes
+ * FIRING/CLEARED events to SSE subscribers.
+ *
+ * Evaluation runs on the MetricFeed publishing thread (a poller or a gNMI handler), so events are
+ * only queued there (see SsePush); a client that falls more than push-queue events behind is
+ * disconnected instead of slowing collection. A periodic sweep fires duration rules for devices
+ * that stopped reporting mid-breach, and alerts of removed or disabled rules are sent as CLEARED.
+ */
+@Service
+@Lazy(false)
+public class AlertService {
+    private static final Logger logger = LoggerFactory.getLogger(AlertService.class);
+
+    @Autowired
+    private AlertRuleRepository alertRuleRepository;
+
+    @Autowired
+    private MetricFeed metricFeed;
+
+    @Autowired
+    private SsePush ssePush;
+
+    @Value("${netdash.alerts.event-history:500}")
+    private int eventHistorySize;
+
+    @Value("${netdash.alerts.push-queue:256}")
+    private int pushQueueSize;
+
+    @Value("${netdash.alerts.sweep-interval-ms:5000}")
+    private long sweepIntervalMs;
+
+    private final AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+    private final ConcurrentHashMap<String, AlertEvent> activeAlerts = new ConcurrentHashMap<>();
+    private final Deque<AlertEvent> recentEvents = new ArrayDeque<>();
+    private final List<SsePush.Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Rule edits made on this node; published with the cluster heartbeat so peers reload
+    private final AtomicLong rulesRevision = new AtomicLong();
+    private ScheduledExecutorService sweeper;
+    @PostConstruct
+    public void init() {
+        metricFeed.subscribe(this::onSample);
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "alert-sweep");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    // Loaded off the startup path so a slow or absent MongoDB doesn't hold up the context
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRulesOnStartup() {
+        CompletableFuture.runAsync(() -> {
+            try {
+                reloadRules();
+            } catch (Exception e) {
+                logger.error("Failed to load alert rules: {}", e.getMessage());
+            }
+        });
+    }
+
+    public void reloadRules() {
+        List<AlertRule> rules = alertRuleRepository.findAll();
+        evaluator.setRules(rules);
+        Set<String> ruleIds = rules.stream().filter(AlertRule::isEnabled).map(AlertRule::getId).collect(Collectors.toSet());
+        // Alerts of disabled or deleted rules are cleared for subscribers, not just dropped
+        activeAlerts.forEach((key, alert) -> {
+            if (!ruleIds.contains(alert.getRuleId()) && activeAlerts.remove(key, alert)) {
+                AlertEvent cleared = cleared(alert);
+                logger.info("Alert cleared: rule={} device={} (rule removed)", alert.getRuleName(), alert.getDeviceId());
+                record(cleared);
+                push(cleared);
+            }
+        });
+        logger.info("Loaded {} alert rules", rules.size());
+    }
+
+    public long getRulesRevision() {
+        return rulesRevision.get();
+    }
+
+    public List<AlertRule> getRules() {
+        return alertRuleRepository.findAll();
+    }
+
+    public AlertRule saveRule(AlertRule rule) {
+        rule.validate(); // rejects unknown operators and aggregates before anything is stored
+        AlertRule saved = alertRuleRepository.save(rule);
+        rulesRevision.incrementAndGet();
+        reloadRules();
+        return saved;
+    }
+
+    public boolean deleteRule(String id) {
+        if (!alertRuleRepository.existsById(id)) {
+            return false;
+        }
+        alertRuleRepository.deleteById(id);
+        rulesRevision.incrementAndGet();
+        reloadRules();
+        return true;
+    }
+
+    public Collection<AlertEvent> getActiveAlerts() {
+        return activeAlerts.values();
+    }
+
+    public List<AlertEvent> getRecentEvents() {
+        synchronized (recentEvents) {
+            return new ArrayList<>(recentEvents);
+        }
+    }
+
+    public SseEmitter subscribe() {
+        SsePush.Subscriber subscriber = ssePush.subscribe(new SseEmitter(0L), pushQueueSize, subscribers::remove);
+        subscribers.add(subscriber);
+        return subscriber.getEmitter();
+    }
+
+    public void forgetDevice(String deviceId) {
+        evaluator.forgetDevice(deviceId);
+        activeAlerts.values().removeIf(alert -> deviceId.equals(alert.getDeviceId()));
+    }
+
+    private void onSample(MetricSample sample) {
+        apply(evaluator.evaluate(sample));
+    }
+
+    // Duration rules whose device stopped reporting mid-breach fire from here
+    private void sweep() {
+        try {
+            apply(evaluator.sweep(System.currentTimeMillis()));
+        } catch (Exception e) {
+            logger.error("Alert sweep failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(List<AlertRuleEvaluator.Transition> transitions) {
+        for (AlertRuleEvaluator.Transition transition : transitions) {
+            AlertRule rule = transition.getRule();
+            MetricSample sample = transition.getSample();
+            String key = rule.getId() + "|" + sample.getDeviceId();
+            AlertEvent event = new AlertEvent(rule, sample, transition.isFiring() ? "FIRING" : "CLEARED");
+            if (transition.isFiring()) {
+                activeAlerts.put(key, event);
+                logger.warn("Alert firing: rule={} device={} {}={}", rule.getName(), sample.getDeviceId(), sample.getMetric(), sample.getValue());
+            } else {
+                activeAlerts.remove(key);
+                logger.info("Alert cleared: rule={} device={}", rule.getName(), sample.getDeviceId());
+            }
+            record(event);
+            push(event);
+        }
+    }
+
+    private static AlertEvent cleared(AlertEvent firing) {
+        AlertEvent event = new AlertEvent();
+        event.setRuleId(firing.getRuleId());
+        event.setRuleName(firing.getRuleName());
+        event.setSeverity(firing.getSeverity());
+        event.setDeviceId(firing.getDeviceId());
+        event.setMetric(firing.getMetric());
+        event.setValue(firing.getValue());
+        event.setState("CLEARED");
+        event.setTimestamp(LocalDateTime.now());
+        return event;
+    }
+
+    private void record(AlertEvent event) {
+        synchronized (recentEvents) {
+            recentEvents.addFirst(event);
+            while (recentEvents.size() > eventHistorySize) {
+                recentEvents.removeLast();
+            }
+        }
+    }
+
+    private void push(AlertEvent event) {
+        for (SsePush.Subscriber subscriber : subscribers) {
+            subscriber.offer("alert", event);
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.netdash.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mongodb.bulk.BulkWriteError;
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.ImportResult;
+import com.netdash.backend.model.MetricRollup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Bulk device/metric export and device import as NDJSON or CSV.
+ * Exports read Mongo cursors and write each record straight to the response; imports parse
+ * one line at a time and write in unordered bulk batches. Heap use is bounded by the batch
+ * size either way, not by the number of records.
+ *
+ * CSV is one record per line (quoted fields may contain commas and quotes, not newlines).
+ */
+@Service
+public class BulkTransferService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkTransferService.class);
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final List<String> DEVICE_COLUMNS = List.of("id", "name", "ipAddress", "type", "status",
+            "cpuUsage", "memoryUsage", "macAddress", "interfaceStatus", "protocol", "version", "createdAt");
+    // Columns an import writes onto an existing device; id, version and createdAt only ever seed new ones
+    private static final List<String> IMPORTED_FIELDS = List.of("name", "ipAddress", "type", "status",
+            "cpuUsage", "memoryUsage", "macAddress", "interfaceStatus", "protocol");
+    private static final List<String> ROLLUP_COLUMNS = List.of("deviceId", "metric", "tier", "bucketStart",
+            "count", "min", "max", "sum", "avg", "p95");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MetricStores metricStores;
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${netdash.transfer.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${netdash.transfer.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public static boolean isSupportedFormat(String format) {
+        return NDJSON.equals(format) || CSV.equals(format);
+    }
+
+    public long exportDevices(OutputStream out, String format) throws IOException {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "id")).cursorBatchSize(batchSize);
+        try (Stream<Device> devices = mongoTemplate.stream(query, Device.class)) {
+            return write(out, format, devices, DEVICE_COLUMNS, BulkTransferService::deviceRow);
+        }
+    }
+
+    public long exportHistory(OutputStream out, String format, String deviceId, String metric,
+                              Instant from, Instant to, String tier) throws IOException {
+        try (Stream<MetricRollup> rollups = metricStores.active().streamHistory(deviceId, metric, from, to, tier, batchSize)) {
+            return write(out, format, rollups, ROLLUP_COLUMNS, BulkTransferService::rollupRow);
+        }
+    }
+
+    private <T> long write(OutputStream out, String format, Stream<T> records, List<String> columns,
+                           Function<T, List<Object>> toRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        ObjectWriter json = objectMapper.writer();
+        if (CSV.equals(format)) {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        long count = 0;
+        for (T record : (Iterable<T>) records::iterator) {
+            if (CSV.equals(format)) {
+                writeCsvRow(writer, toRow.apply(record));
+            } else {
+                writer.write(json.writeValueAsString(record));
+                writer.write('\n');
+            }
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    /**
+     * Reads devices line by line and upserts them by id in unordered bulk batches.
+     * Only the columns a row actually carries are written to an existing device, so poller
+     * metrics and fields the file leaves out survive; see importUpdate. Rows without an id get
+     * a new one; bad rows are reported and skipped.
+     */
+    public ImportResult importDevices(InputStream in, String format) throws IOException {
+        ImportResult result = new ImportResult();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        List<Query> batch = new ArrayList<>(batchSize);
+        List<Update> batchUpdates = new ArrayList<>(batchSize);
+        List<Long> batchRows = new ArrayList<>(batchSize);
+        List<String> header = null;
+
+        long row = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            row++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (CSV.equals(format) && header == null) {
+                header = parseCsvLine(line);
+                continue;
+            }
+
+            result.setReceived(result.getReceived() + 1);
+            try {
+                Device device;
+                Set<String> present = new HashSet<>();
+                if (CSV.equals(format)) {
+                    List<String> values = parseCsvLine(line);
+                    device = deviceFromCsv(header, values);
+                    for (int i = 0; i < values.size(); i++) {
+                        if (!values.get(i).isEmpty()) present.add(header.get(i).trim());
+                    }
+                } else {
+                    JsonNode node = objectMapper.readTree(line);
+                    device = objectMapper.treeToValue(node, Device.class);
+                    for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                        Map.Entry<String, JsonNode> field = it.next();
+                        if (!field.getValue().isNull()) present.add(field.getKey());
+                    }
+                }
+                prepareForImport(device);
+                batch.add(Query.query(where("id").is(device.getId())));
+                batchUpdates.add(importUpdate(device, present));
+                batchRows.add(row);
+            } catch (JsonProcessingException e) {
+                reportError(result, row, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (RuntimeException e) {
+                reportError(result, row, e.getMessage());
+            }
+
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, batchUpdates, batchRows, result);
+            }
+        }
+        writeBatch(batch, batchUpdates, batchRows, result);
+
+        if (result.getImported() > 0) {
+            // Bulk writes bypass the repository events that normally bump ETags
+            revisionTracker.markAllChanged();
+        }
+        logger.info("Device import ({}): received={} imported={} failed={}",
+                format, result.getReceived(), result.getImported(), result.getFailed());
+        return result;
+    }
+
+    private void writeBatch(List<Query> batch, List<Update> batchUpdates, List<Long> batchRows, ImportResult result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Device.class);
+        for (int i = 0; i < batch.size(); i++) {
+            ops.upsert(batch.get(i), batchUpdates.get(i));
+        }
+
+        int failed = 0;
+        try {
+            ops.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                reportError(result, batchRows.get(error.getIndex()), error.getMessage());
+                failed++;
+            }
+        }
+        result.setImported(result.getImported() + batch.size() - failed);
+        batch.clear();
+        batchUpdates.clear();
+        batchRows.clear();
+    }
+
+    private void reportError(ImportResult result, long row, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ImportResult.RowError(row, message));
+        } else {
+            result.setErrorsTruncated(true);
+        }
+    }
+
+    private static void prepareForImport(Device device) {
+        if (device.getName() == null || device.getName().isBlank()
+                || device.getIpAddress() == null || device.getIpAddress().isBlank()) {
+            throw new IllegalArgumentException("Device name and IP address are required");
+        }
+        if (device.getId() == null || device.getId().isBlank()) {
+            device.setId(UUID.randomUUID().toString());
+        }
+    }
+
+    /**
+     * $set for the imported columns the row carries; status and createdAt are only seeded
+     * ($setOnInsert) for new devices, and the upsert query supplies the id. A version in the row
+     * is applied with $max, so an import never moves a device's version backwards; without one the
+     * version is incremented (seeding 1 on insert), so clients holding the pre-import version get 409.
+     */
+    static Update importUpdate(Device device, Set<String> present) {
+        Update update = new Update();
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", device.getName());
+        values.put("ipAddress", device.getIpAddress());
+        values.put("type", device.getType());
+        values.put("status", device.getStatus());
+        values.put("cpuUsage", device.getCpuUsage());
+        values.put("memoryUsage", device.getMemoryUsage());
+        values.put("macAddress", device.getMacAddress());
+        values.put("interfaceStatus", device.getInterfaceStatus());
+        values.put("protocol", device.getProtocol());
+        for (String field : IMPORTED_FIELDS) {
+            if (present.contains(field)) {
+                update.set(field, values.get(field));
+            }
+        }
+        if (!present.contains("status")) {
+            update.setOnInsert("status", "Online");
+        }
+        if (present.contains("version")) {
+            update.max("version", device.getVersion());
+        } else {
+            update.inc("version", 1);
+        }
+        update.setOnInsert("createdAt", device.getCreatedAt() != null ? device.getCreatedAt() : LocalDateTime.now());
+        return update;
+    }
+
+    static Device deviceFromCsv(List<String> header, List<String> values) {
+        if (values.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String value = values.get(i);
+            row.put(header.get(i).trim(), value.isEmpty() ? null : value);
+        }
+
+        Device device = new Device();
+        device.setId(row.get("id"));
+        device.setName(row.get("name"));
+        device.setIpAddress(row.get("ipAddress"));
+        device.setType(row.get("type"));
+        device.setStatus(row.get("status"));
+        device.setMacAddress(row.get("macAddress"));
+        device.setInterfaceStatus(row.get("interfaceStatus"));
+        device.setProtocol(row.get("protocol"));
+        if (row.get("cpuUsage") != null) device.setCpuUsage(Double.parseDouble(row.get("cpuUsage")));
+        if (row.get("memoryUsage") != null) device.setMemoryUsage(Double.parseDouble(row.get("memoryUsage")));
+        if (row.get("version") != null) device.setVersion(Long.parseLong(row.get("version")));
+        if (row.get("createdAt") != null) device.setCreatedAt(LocalDateTime.parse(row.get("createdAt")));
+        return device;
+    }
+
+    private static List<Object> deviceRow(Device d) {
+        return Arrays.asList(d.getId(), d.getName(), d.getIpAddress(), d.getType(), d.getStatus(),
+                d.getCpuUsage(), d.getMemoryUsage(), d.getMacAddress(), d.getInterfaceStatus(), d.getProtocol(),
+                d.getVersion(), d.getCreatedAt());
+    }
+
+    private static List<Object> rollupRow(MetricRollup r) {
+        return Arrays.asList(r.getDeviceId(), r.getMetric(), r.getTier(), r.getBucketStart(),
+                r.getCount(), r.getMin(), r.getMax(), r.getSum(), r.getAvg(), r.getP95());
+    }
+
+    static void writeCsvRow(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) writer.write(',');
+            Object value = values.get(i);
+            if (value == null) continue;
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\"").replace('\n', ' ').replace('\r', ' '));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write('\n');
+    }
+
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
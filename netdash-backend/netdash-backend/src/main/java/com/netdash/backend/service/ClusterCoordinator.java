@@ -0,0 +1,318 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.ClusterNode;
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.PartitionLease;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Cluster mode: splits the device set across backend nodes using MongoDB as the only coordinator.
+ * Devices hash into a fixed number of partitions; live nodes (recent heartbeat in cluster_node) are
+ * placed on a consistent hash ring that decides which node should own each partition, and ownership
+ * is only exercised while the node holds an unexpired lease in partition_lease. A node stops treating
+ * a partition as its own before the lease can expire anywhere else (local deadline minus clock-skew
+ * margin), so a device is never polled by two nodes at once. Dead nodes drop out of the ring once
+ * their heartbeat goes stale and their leases are taken over after expiry.
+ *
+ * Each device document carries its partition (stamped here on every heartbeat for devices that are
+ * new, were saved whole, or predate the current partition count), so pollers query only the
+ * partitions they hold instead of reading the whole collection on every node.
+ *
+ * Heartbeats also carry each node's local device-write and alert-rule revisions; a change seen on a
+ * peer invalidates this node's device ETags or reloads its alert rules.
+ */
+@Service
+@Lazy(false)
+public class ClusterCoordinator {
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private static final int PARTITION_STAMP_BATCH = 5000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Value("${netdash.cluster.enabled:false}")
+    private boolean enabled;
+
+    @Value("${netdash.cluster.node-id:}")
+    private String configuredNodeId;
+
+    @Value("${netdash.cluster.partitions:256}")
+    private int partitions;
+
+    @Value("${netdash.cluster.virtual-nodes:64}")
+    private int virtualNodes;
+
+    @Value("${netdash.cluster.lease-seconds:15}")
+    private long leaseSeconds;
+
+    @Value("${netdash.cluster.heartbeat-interval-ms:5000}")
+    private long heartbeatIntervalMs;
+
+    @Value("${netdash.cluster.clock-skew-ms:2000}")
+    private long clockSkewMs;
+
+    private String nodeId;
+    private final Instant startedAt = Instant.now();
+    // partition -> System.nanoTime() until which this node may act as owner
+    private final ConcurrentHashMap<Integer, Long> leaseDeadlines = new ConcurrentHashMap<>();
+    private volatile List<ClusterNode> liveNodes = List.of();
+    private volatile String peerRevisions = "";
+    private String peerRulesRevisions = "";
+    private boolean partitionIndexed;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        nodeId = configuredNodeId.isBlank() ? defaultNodeId() : configuredNodeId;
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cluster-coordinator");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::tickSafely, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Cluster mode enabled: node={} partitions={}", nodeId, partitions);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            // Hand partitions over immediately instead of making peers wait for expiry
+            for (Integer partition : new ArrayList<>(leaseDeadlines.keySet())) {
+                release(partition);
+            }
+            mongoTemplate.remove(Query.query(where("id").is(nodeId)), ClusterNode.class);
+        } catch (Exception e) {
+            logger.warn("Failed to release cluster leases on shutdown: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public List<ClusterNode> getLiveNodes() {
+        return liveNodes;
+    }
+
+    public Set<Integer> getOwnedPartitions() {
+        Set<Integer> owned = new TreeSet<>();
+        long now = System.nanoTime();
+        leaseDeadlines.forEach((partition, deadline) -> {
+            if (deadline - now > 0) owned.add(partition);
+        });
+        return owned;
+    }
+
+    /** True if this node is currently responsible for the device (always true outside cluster mode). */
+    public boolean owns(String deviceId) {
+        if (!enabled) {
+            return true;
+        }
+        Long deadline = leaseDeadlines.get(ConsistentHashRing.partitionOf(deviceId, partitions));
+        return deadline != null && deadline - System.nanoTime() > 0;
+    }
+
+    /**
+     * Criteria for the devices in partitions this node holds, or null outside cluster mode (all devices).
+     * Devices not yet stamped with a partition are left out until the next heartbeat stamps them.
+     */
+    public Criteria ownedDevicesCriteria() {
+        if (!enabled) {
+            return null;
+        }
+        return where("partitionCount").is(partitions).and("partition").in(getOwnedPartitions());
+    }
+
+    private void tickSafely() {
+        try {
+            tick();
+        } catch (Exception e) {
+            // Leases simply run out locally if MongoDB is unreachable, which stops polling safely
+            logger.error("Cluster heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    private void tick() {
+        Instant now = Instant.now();
+        long sentAt = System.nanoTime();
+
+        mongoTemplate.upsert(Query.query(where("id").is(nodeId)), new Update()
+                .set("startedAt", startedAt)
+                .set("lastHeartbeat", now)
+                .set("revision", revisionTracker.getLocalRevision())
+                .set("rulesRevision", alertService.getRulesRevision())
+                .set("ownedPartitions", getOwnedPartitions().size()), ClusterNode.class);
+
+        List<ClusterNode> nodes = mongoTemplate.find(
+                Query.query(where("lastHeartbeat").gte(now.minusMillis(3 * heartbeatIntervalMs))), ClusterNode.class);
+        nodes.sort(Comparator.comparing(ClusterNode::getId));
+        liveNodes = nodes;
+        invalidateOnPeerWrites(nodes);
+
+        List<String> nodeIds = new ArrayList<>();
+        nodes.forEach(node -> nodeIds.add(node.getId()));
+        if (!nodeIds.contains(nodeId)) {
+            nodeIds.add(nodeId);
+        }
+        ConsistentHashRing ring = new ConsistentHashRing(nodeIds, virtualNodes);
+
+        for (int partition = 0; partition < partitions; partition++) {
+            if (nodeId.equals(ring.ownerOf(partition))) {
+                acquire(partition, now, sentAt);
+            } else if (leaseDeadlines.containsKey(partition)) {
+                release(partition);
+            }
+        }
+        stampPartitions();
+        reloadOnPeerRuleChanges(nodes);
+    }
+
+    // Every node runs this; the writes are idempotent, so racing peers only repeat each other
+    private void stampPartitions() {
+        if (!partitionIndexed) {
+            mongoTemplate.indexOps(Device.class).ensureIndex(new Index()
+                    .on("partitionCount", Sort.Direction.ASC)
+                    .on("partition", Sort.Direction.ASC));
+            partitionIndexed = true;
+        }
+        Query query = Query.query(where("partitionCount").ne(partitions)).limit(PARTITION_STAMP_BATCH);
+        query.fields().include("id");
+        List<Device> unstamped = mongoTemplate.find(query, Device.class);
+        if (unstamped.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Device.class);
+        for (Device device : unstamped) {
+            bulk.updateOne(Query.query(where("id").is(device.getId())), new Update()
+                    .set("partition", ConsistentHashRing.partitionOf(device.getId(), partitions))
+                    .set("partitionCount", partitions));
+        }
+        bulk.execute();
+        logger.debug("Stamped {} devices with their partition", unstamped.size());
+    }
+
+    private void acquire(int partition, Instant now, long sentAt) {
+        Query query = Query.query(where("id").is(partition).orOperator(
+                where("owner").is(nodeId),
+                where("owner").is(null),
+                where("expiresAt").lt(now)));
+        Update update = new Update()
+                .set("owner", nodeId)
+                .set("expiresAt", now.plusSeconds(leaseSeconds));
+        try {
+            PartitionLease lease = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), PartitionLease.class);
+            if (lease != null && nodeId.equals(lease.getOwner())) {
+                if (leaseDeadlines.put(partition, sentAt + TimeUnit.SECONDS.toNanos(leaseSeconds)
+                        - TimeUnit.MILLISECONDS.toNanos(clockSkewMs)) == null) {
+                    logger.info("Acquired partition {}", partition);
+                }
+                return;
+            }
+        } catch (DuplicateKeyException e) {
+            // Another node holds a live lease; it will release once its view of the ring catches up
+        }
+        leaseDeadlines.remove(partition);
+    }
+
+    private void release(int partition) {
+        leaseDeadlines.remove(partition);
+        mongoTemplate.updateFirst(
+                Query.query(new Criteria().andOperator(where("id").is(partition), where("owner").is(nodeId))),
+                new Update().set("owner", null).set("expiresAt", Instant.now()),
+                PartitionLease.class);
+        logger.info("Released partition {}", partition);
+    }
+
+    // Device ETags are per-node counters; writes made by peers must invalidate them here too.
+    // Peers publish only their local write count, so an invalidation here is never echoed back.
+    private void invalidateOnPeerWrites(List<ClusterNode> nodes) {
+        StringBuilder token = new StringBuilder();
+        for (ClusterNode node : nodes) {
+            if (!nodeId.equals(node.getId())) {
+                token.append(node.getId()).append(':').append(node.getStartedAt())
+                        .append(':').append(node.getRevision()).append(';');
+            }
+        }
+        String current = token.toString();
+        if (!current.equals(peerRevisions)) {
+            peerRevisions = current;
+            revisionTracker.markPeersChanged();
+        }
+    }
+
+    // Alert rules are evaluated on the node that owns the device, so a rule saved on a peer must reach every node
+    private void reloadOnPeerRuleChanges(List<ClusterNode> nodes) {
+        StringBuilder token = new StringBuilder();
+        for (ClusterNode node : nodes) {
+            if (!nodeId.equals(node.getId())) {
+                token.append(node.getId()).append(':').append(node.getStartedAt())
+                        .append(':').append(node.getRulesRevision()).append(';');
+            }
+        }
+        String current = token.toString();
+        if (!current.equals(peerRulesRevisions)) {
+            alertService.reloadRules(); // on failure the token stays stale and the next heartbeat retries
+            peerRulesRevisions = current;
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,195 @@
+package com.netdash.backend.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.netdash.backend.model.Device;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Write-behind pipeline for high-frequency device field updates (metrics, poll status).
+ * Updates for the same device are merged in memory (last value per field wins) and flushed
+ * as one small $set per device in an unordered bulk write, every flush interval or once
+ * enough operations have queued up. When MongoDB falls behind, callers block for up to the
+ * backpressure timeout instead of letting the queue grow without bound; devices in the bulk
+ * write still in flight count against max-pending-devices until it returns.
+ *
+ * Every update here is a poll or telemetry result, so in cluster mode a device whose lease this
+ * node no longer holds is dropped at flush time: a poll that outlived the lease must not overwrite
+ * what the new owner wrote.
+ */
+@Service
+@Lazy(false)
+public class CoalescingDeviceWriter {
+    private static final Logger logger = LoggerFactory.getLogger(CoalescingDeviceWriter.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Value("${netdash.writer.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${netdash.writer.flush-threshold:1000}")
+    private int flushThreshold;
+
+    @Value("${netdash.writer.max-pending-devices:50000}")
+    private int maxPendingDevices;
+
+    @Value("${netdash.writer.backpressure-timeout-ms:5000}")
+    private long backpressureTimeoutMs;
+
+    private final Object lock = new Object();
+    private Map<String, Map<String, Object>> pending = new HashMap<>();
+    private int pendingOps;
+    private int inFlightDevices;
+    private boolean flushRequested;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "device-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flushSafely();
+    }
+
+    public boolean submit(String deviceId, String field, Object value) {
+        return submit(deviceId, Map.of(field, value));
+    }
+
+    /**
+     * Queues a partial update for a device. Returns false if the update was dropped because
+     * the pipeline stayed saturated for longer than the backpressure timeout.
+     */
+    public boolean submit(String deviceId, Map<String, Object> fields) {
+        if (deviceId == null || fields.isEmpty()) {
+            return true;
+        }
+        synchronized (lock) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backpressureTimeoutMs);
+            while (pending.size() + inFlightDevices >= maxPendingDevices && !pending.containsKey(deviceId)) {
+                requestFlushLocked();
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    logger.warn("Device writer saturated, dropping update for device id={}", deviceId);
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            pending.computeIfAbsent(deviceId, k -> new HashMap<>()).putAll(fields);
+            if (++pendingOps >= flushThreshold) {
+                requestFlushLocked();
+            }
+        }
+        return true;
+    }
+
+    private void requestFlushLocked() {
+        if (!flushRequested && flusher != null && !flusher.isShutdown()) {
+            flushRequested = true;
+            flusher.execute(this::flushSafely);
+        }
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Device writer flush failed: {}", e.getMessage());
+        }
+    }
+
+    void flush() {
+        Map<String, Map<String, Object>> batch;
+        int ops;
+        synchronized (lock) {
+            flushRequested = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            ops = pendingOps;
+            pending = new HashMap<>();
+            pendingOps = 0;
+            if (batch.keySet().removeIf(deviceId -> !clusterCoordinator.owns(deviceId))) {
+                logger.debug("Dropped updates for devices whose partition lease moved away");
+                if (batch.isEmpty()) {
+                    lock.notifyAll();
+                    return;
+                }
+            }
+            inFlightDevices = batch.size();
+        }
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Device.class);
+        batch.forEach((deviceId, fields) -> {
+            Update update = new Update();
+            fields.forEach(update::set);
+            bulk.updateOne(query(where("id").is(deviceId)), update);
+        });
+
+        try {
+            BulkWriteResult result = bulk.execute();
+            logger.debug("Flushed {} coalesced updates as {} device writes ({} matched)",
+                    ops, batch.size(), result.getMatchedCount());
+        } catch (RuntimeException e) {
+            requeue(batch);
+            throw e;
+        } finally {
+            synchronized (lock) {
+                inFlightDevices = 0;
+                // Room is available again for producers blocked on backpressure
+                lock.notifyAll();
+            }
+        }
+        batch.keySet().forEach(revisionTracker::markChanged);
+    }
+
+    // Puts a failed batch back without overwriting values that arrived while it was in flight
+    private void requeue(Map<String, Map<String, Object>> batch) {
+        synchronized (lock) {
+            batch.forEach((deviceId, fields) -> {
+                Map<String, Object> current = pending.computeIfAbsent(deviceId, k -> new HashMap<>());
+                fields.forEach(current::putIfAbsent);
+            });
+            pendingOps += batch.size();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.netdash.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring with virtual nodes, used to map device partitions onto backend nodes.
+ * Adding or removing a node only moves the partitions adjacent to its virtual nodes.
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        for (String nodeId : nodeIds) {
+            for (int v = 0; v < virtualNodes; v++) {
+                ring.put(hash(nodeId + "#" + v), nodeId);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    public String ownerOf(int partition) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash("partition-" + partition));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public static int partitionOf(String deviceId, int partitions) {
+        return (int) Math.floorMod(hash(deviceId), (long) partitions);
+    }
+
+    // FNV-1a 64 followed by a murmur3 finalizer for good avalanche on short keys
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
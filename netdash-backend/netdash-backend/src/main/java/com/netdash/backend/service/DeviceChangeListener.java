@@ -0,0 +1,43 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bumps device revisions for every repository save/delete so ETags stay correct
+ * no matter which service performed the write. Deleted devices are dropped from the tracker.
+ */
+@Component
+public class DeviceChangeListener extends AbstractMongoEventListener<Device> {
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Device> event) {
+        revisionTracker.markChanged(event.getSource().getId());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Device> event) {
+        Document query = event.getSource();
+        Object id = query != null ? query.get("_id") : null;
+        if (id instanceof Document && ((Document) id).get("$in") instanceof Collection<?> ids) {
+            // deleteAllById
+            revisionTracker.markDeleted(ids.stream().map(Object::toString).toList());
+        } else if (id != null && !(id instanceof Document)) {
+            revisionTracker.markDeleted(List.of(id.toString()));
+        } else {
+            // deleteAll or another query shape: no way to tell which devices went
+            revisionTracker.markAllChanged();
+        }
+    }
+}
@@ -1,30 +1,24 @@
 package com.netdash.backend.service;
 
-import oshi.SystemInfo;
-import oshi.hardware.HardwareAbstractionLayer;
-import oshi.software.os.OperatingSystem;
-import oshi.software.os.windows.WindowsOperatingSystem;
 import oshi.util.ExecutingCommand;
 import com.netdash.backend.model.Device;
 import com.netdash.backend.repository.DeviceRepository;
-import org.snmp4j.CommunityTarget;
-import org.snmp4j.PDU;
-import org.snmp4j.Snmp;
-import org.snmp4j.TransportMapping;
-import org.snmp4j.event.ResponseEvent;
-import org.snmp4j.mp.SnmpConstants;
-import org.snmp4j.smi.OID;
-import org.snmp4j.smi.OctetString;
-import org.snmp4j.smi.UdpAddress;
-import org.snmp4j.transport.DefaultUdpTransportMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 public class DeviceDiscoveryService {
@@ -33,149 +27,135 @@ public class DeviceDiscoveryService {
     @Autowired
     private DeviceRepository deviceRepository;
 
-    public List<Device> discoverDevices() {
-        List<Device> devices = new ArrayList<>();
-        SystemInfo si = new SystemInfo();
-        HardwareAbstractionLayer hal = si.getHardware();
-        OperatingSystem os = si.getOperatingSystem();
-
-        // Remove existing router entries to avoid duplicates
-        deviceRepository.deleteById("Local Router");
-
-        // Detect USB devices
-        hal.getUsbDevices(true).forEach(usb -> {
-            Device device = new Device(usb.getName(), "N/A", "USB", "Connected", 0.0, 0.0, null, null, null);
-            devices.add(device);
-            deviceRepository.save(device);
-        });
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Autowired
+    private SnmpMetricsService snmpMetricsService;
+
+    @Autowired
+    private LinuxNeighborTable linuxNeighborTable;
 
-        // Dynamically detect router IP
-        String routerIp = getRouterIp(os);
-        if (routerIp != null) {
-            Device router = new Device("Local Router", routerIp, "Router", "Online", 0.0, 0.0, null, null, "SNMP");
-            devices.add(router);
-            deviceRepository.save(router);
+    @Autowired
+    private HostInventoryService hostInventoryService;
+
+    /** Receives discovery results as they are found; used by asynchronous discovery jobs. */
+    public interface DiscoveryListener {
+        void onDevice(Device device);
+
+        void onProgress(int done, int total, String step);
+
+        default boolean isCancelled() {
+            return false;
         }
+    }
 
-        // Discover additional network devices via ARP table
-        discoverNetworkDevices(devices);
+    public List<Device> discoverDevices() {
+        List<Device> devices = new ArrayList<>();
+        discoverDevices(new DiscoveryListener() {
+            @Override
+            public void onDevice(Device device) {
+                devices.add(device);
+            }
 
+            @Override
+            public void onProgress(int done, int total, String step) {
+            }
+        });
         return devices;
     }
 
-    private String getRouterIp(OperatingSystem os) {
-        if (os instanceof WindowsOperatingSystem) {
-            try {
-                List<String> output = ExecutingCommand.runNative("ipconfig");
-                logger.debug("ipconfig output: {}", output);
-                for (String line : output) {
-                    logger.debug("Checking line: {}", line);
-                    if (line.contains("Default Gateway")) {
-                        String[] parts = line.split(":");
-                        if (parts.length > 1) {
-                            String ip = parts[1].trim();
-                            if (ip.matches("\\d+\\.\\d+\\.\\d+\\.\\d+")) {
-                                logger.info("Detected router IP: {}", ip);
-                                return ip;
-                            }
-                        }
-                    }
-                }
-                logger.warn("No valid Default Gateway found in ipconfig output");
-            } catch (Exception e) {
-                logger.error("Failed to get router IP on Windows", e);
+    public void discoverDevices(DiscoveryListener listener) {
+        listener.onProgress(0, 1, "Host inventory");
+
+        // USB devices and the local router come from the cached host inventory;
+        // only devices that appeared since the last refresh are persisted and returned
+        HostInventoryService.InventoryChanges inventory = hostInventoryService.refresh();
+        for (Device device : inventory.getAddedDevices()) {
+            if (device != inventory.getRouter()) {
+                listener.onDevice(device);
             }
-        } else {
-            logger.warn("Non-Windows OS detected, router IP detection not fully implemented");
-            return null;
         }
-        return null;
+        if (inventory.getRouter() != null) {
+            listener.onDevice(inventory.getRouter());
+        }
+
+        // Discover additional network devices via ARP table; every neighbor is reported, and
+        // one already stored under its IP is reused (MAC updated if it changed) rather than duplicated
+        Map<String, String> neighbors = findNetworkNeighbors();
+        Map<String, Device> known = new HashMap<>();
+        if (!neighbors.isEmpty()) {
+            for (Device device : deviceRepository.findByIpAddressIn(neighbors.keySet())) {
+                known.putIfAbsent(device.getIpAddress(), device);
+            }
+        }
+        int total = 1 + neighbors.size();
+        int done = 1;
+        listener.onProgress(done, total, "Network neighbors");
+        for (Map.Entry<String, String> neighbor : neighbors.entrySet()) {
+            if (listener.isCancelled()) {
+                logger.info("Discovery cancelled after {} of {} steps", done, total);
+                return;
+            }
+            String ip = neighbor.getKey();
+            Device device = known.get(ip);
+            if (device == null) {
+                device = new Device("Network Device - " + ip, ip, "Network", "Online", 0.0, 0.0, neighbor.getValue(), null, "SNMP");
+                deviceRepository.save(device);
+                snmpMetricsService.updateDeviceMetrics(device); // Fetch initial SNMP metrics
+            } else if (!Objects.equals(neighbor.getValue(), device.getMacAddress())) {
+                updateMacAddress(device, neighbor.getValue());
+            }
+            listener.onDevice(device);
+            listener.onProgress(++done, total, "Network neighbors");
+        }
     }
 
-    private void discoverNetworkDevices(List<Device> devices) {
+    // Only the MAC is written; saving the whole document would clobber poller and PATCH fields
+    private void updateMacAddress(Device device, String mac) {
+        logger.info("Neighbor {} changed MAC from {} to {}", device.getIpAddress(), device.getMacAddress(), mac);
+        mongoTemplate.updateFirst(query(where("id").is(device.getId())),
+                new Update().set("macAddress", mac).inc("version", 1), Device.class);
+        device.setMacAddress(mac);
+        device.setVersion(device.getVersion() != null ? device.getVersion() + 1 : 1L);
+        revisionTracker.markChanged(device.getId());
+    }
+
+    // ip -> mac of network neighbors
+    private Map<String, String> findNetworkNeighbors() {
+        if (linuxNeighborTable.isSupported()) {
+            return findLinuxNeighbors();
+        }
+        Map<String, String> neighbors = new LinkedHashMap<>();
         try {
             List<String> arpOutput = ExecutingCommand.runNative("arp -a");
             for (String line : arpOutput) {
                 if (line.contains("dynamic") && line.contains(".")) {
                     String[] parts = line.trim().split("\\s+");
                     if (parts.length > 1) {
-                        String ip = parts[0];
-                        String mac = parts[1];
-                        Device device = new Device("Network Device - " + ip, ip, "Network", "Online", 0.0, 0.0, mac, null, "SNMP");
-                        devices.add(device);
-                        deviceRepository.save(device);
-                        updateDeviceMetrics(device); // Fetch initial SNMP metrics
+                        neighbors.put(parts[0], parts[1]);
                     }
                 }
             }
         } catch (Exception e) {
             logger.error("Failed to discover network devices via ARP", e);
         }
+        return neighbors;
     }
 
-    public void updateDeviceMetrics(Device device) {
-        try {
-            TransportMapping transport = new DefaultUdpTransportMapping();
-            Snmp snmp = new Snmp(transport);
-            transport.listen();
-
-            CommunityTarget target = new CommunityTarget();
-            target.setCommunity(new OctetString("public"));
-            target.setAddress(new UdpAddress(device.getIpAddress() + "/161"));
-            target.setRetries(2);
-            target.setTimeout(1000);
-            target.setVersion(SnmpConstants.version2c);
-
-            PDU pdu = new PDU();
-            pdu.add(new org.snmp4j.smi.VariableBinding(new OID(".1.3.6.1.2.1.25.3.3.1.2.1"))); // hrProcessorLoad (CPU)
-            pdu.add(new org.snmp4j.smi.VariableBinding(new OID(".1.3.6.1.2.1.25.2.3.1.6.1"))); // hrStorageUsed (Memory)
-            pdu.setType(PDU.GET);
-
-            ResponseEvent response = snmp.send(pdu, target);
-            if (response != null && response.getResponse() != null) {
-                @SuppressWarnings("unchecked")
-                List<org.snmp4j.smi.VariableBinding> bindings = (List<org.snmp4j.smi.VariableBinding>) (List<?>) response.getResponse().getVariableBindings();
-                if (bindings.size() >= 2) {
-                    double cpuUsage = Double.parseDouble(bindings.get(0).getVariable().toString());
-                    double memoryUsage = Double.parseDouble(bindings.get(1).getVariable().toString()) / 1024; // Approx in MB
-                    device.setCpuUsage(cpuUsage);
-                    device.setMemoryUsage(memoryUsage);
-                    deviceRepository.save(device);
-                }
-            }
-            snmp.close();
-        } catch (IOException e) {
-            logger.warn("SNMP metrics fetch failed for IP {}: {}", device.getIpAddress(), e.getMessage());
-        }
-    }
-
-    private String getSnmpInterfaceStatus(String ip) {
+    // The whole current table; changes since the previous discovery are only logged
+    private Map<String, String> findLinuxNeighbors() {
         try {
-            TransportMapping transport = new DefaultUdpTransportMapping();
-            Snmp snmp = new Snmp(transport);
-            transport.listen();
-
-            CommunityTarget target = new CommunityTarget();
-            target.setCommunity(new OctetString("public"));
-            target.setAddress(new UdpAddress(ip + "/161"));
-            target.setRetries(2);
-            target.setTimeout(1000);
-            target.setVersion(SnmpConstants.version2c);
-
-            PDU pdu = new PDU();
-            pdu.add(new org.snmp4j.smi.VariableBinding(new OID(".1.3.6.1.2.1.2.2.1.8.1"))); // ifOperStatus
-            pdu.setType(PDU.GET);
-
-            ResponseEvent response = snmp.send(pdu, target);
-            if (response != null && response.getResponse() != null) {
-                String status = response.getResponse().getVariableBindings().get(0).getVariable().toString();
-                snmp.close();
-                return status.equals("1") ? "Up" : "Down";
-            }
-            snmp.close();
-        } catch (IOException e) {
-            logger.warn("SNMP query failed for IP {}: {}", ip, e.getMessage());
+            LinuxNeighborTable.NeighborChanges changes = linuxNeighborTable.refresh();
+            changes.getAdded().forEach((ip, mac) -> logger.debug("Neighbor new or changed in ARP table: {} ({})", ip, mac));
+            changes.getRemoved().forEach((ip, mac) -> logger.info("Neighbor gone from ARP table: {} ({})", ip, mac));
+            return new LinkedHashMap<>(changes.getCurrent());
+        } catch (Exception e) {
+            logger.error("Failed to discover network devices via /proc/net/arp", e);
+            return new LinkedHashMap<>();
         }
-        return null;
     }
-}
\ No newline at end of file
+}
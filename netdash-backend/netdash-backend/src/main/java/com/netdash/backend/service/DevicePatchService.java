@@ -0,0 +1,215 @@
+package com.netdash.backend.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.PatchResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Field-level device updates applied with a single atomic $set, without reading the document first.
+ * A "version" entry in the patch is treated as the expected current version (optimistic check)
+ * rather than as a field to write; every successful patch increments the stored version.
+ */
+@Service
+public class DevicePatchService {
+    private static final Logger logger = LoggerFactory.getLogger(DevicePatchService.class);
+
+    // Inventory fields only - cpuUsage/memoryUsage belong to the pollers
+    private static final Set<String> PATCHABLE_FIELDS =
+            Set.of("name", "ipAddress", "type", "status", "macAddress", "interfaceStatus", "protocol");
+    private static final Set<String> REQUIRED_FIELDS = Set.of("name", "ipAddress");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    /**
+     * Applies the patch and returns the updated device, or null if no device with that id
+     * (and expected version, when given) exists.
+     */
+    public Device patch(String id, Map<String, Object> changes) {
+        Map<String, Object> fields = validate(changes);
+        Device updated = mongoTemplate.findAndModify(
+                matching(id, expectedVersion(changes)),
+                toUpdate(fields),
+                FindAndModifyOptions.options().returnNew(true),
+                Device.class);
+        if (updated != null) {
+            revisionTracker.markChanged(id);
+            logger.info("Device patched: id={} fields={}", id, fields.keySet());
+        }
+        return updated;
+    }
+
+    /**
+     * Full update (PUT) of the inventory fields PATCH accepts; cpuUsage/memoryUsage in the body are
+     * ignored. When the body carries a version, the update applies only while the stored version
+     * still equals it. Returns the updated device, or null if the device is missing or was
+     * modified in between.
+     */
+    public Device replace(String id, Device updated) {
+        if (updated.getName() == null || updated.getIpAddress() == null) {
+            throw new IllegalArgumentException("Device name and IP address are required");
+        }
+        Update update = new Update()
+                .set("name", updated.getName())
+                .set("ipAddress", updated.getIpAddress())
+                .set("status", updated.getStatus())
+                .set("type", updated.getType())
+                .set("macAddress", updated.getMacAddress())
+                .set("interfaceStatus", updated.getInterfaceStatus())
+                .set("protocol", updated.getProtocol())
+                .inc("version", 1);
+        Device saved = mongoTemplate.findAndModify(
+                matching(id, updated.getVersion()),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                Device.class);
+        if (saved != null) {
+            revisionTracker.markChanged(id);
+        }
+        return saved;
+    }
+
+    /**
+     * Applies many patches in one unordered bulk write. Each patch must carry an "id".
+     * Returns an outcome per patch. When every patch matched, that is known from the bulk result
+     * alone; otherwise one read of the stored versions tells conflicts from missing devices. A
+     * version-checked patch counts as applied when the stored version is exactly one past the
+     * expected one.
+     */
+    public PatchResult patchAll(List<Map<String, Object>> patches) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Device.class);
+        List<String> ids = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        for (Map<String, Object> patch : patches) {
+            Object id = patch.get("id");
+            if (!(id instanceof String)) {
+                throw new IllegalArgumentException("Every patch requires a string id");
+            }
+            Map<String, Object> changes = new LinkedHashMap<>(patch);
+            changes.remove("id");
+            Long version = expectedVersion(changes);
+            bulk.updateOne(matching((String) id, version), toUpdate(validate(changes)));
+            ids.add((String) id);
+            expected.add(version);
+        }
+
+        PatchResult result = new PatchResult();
+        result.setRequested(patches.size());
+        if (patches.isEmpty()) {
+            return result;
+        }
+
+        BulkWriteResult written = bulk.execute();
+        ids.forEach(revisionTracker::markChanged);
+        Map<String, Long> stored = written.getMatchedCount() == patches.size() ? null : storedVersions(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            result.add(outcome(ids.get(i), expected.get(i), stored));
+        }
+        logger.info("Bulk patch applied: requested={} patched={} conflicts={} notFound={}",
+                result.getRequested(), result.getPatched(), result.getConflicts(), result.getNotFound());
+        return result;
+    }
+
+    private static PatchResult.Item outcome(String id, Long expected, Map<String, Long> stored) {
+        if (stored == null) {
+            return new PatchResult.Item(id, PatchResult.PATCHED, expected != null ? expected + 1 : null);
+        }
+        Long current = stored.get(id);
+        if (current == null) {
+            return new PatchResult.Item(id, PatchResult.NOT_FOUND, null);
+        }
+        if (expected == null || current == expected + 1) {
+            return new PatchResult.Item(id, PatchResult.PATCHED, current);
+        }
+        return new PatchResult.Item(id, PatchResult.CONFLICT, current);
+    }
+
+    private Map<String, Long> storedVersions(List<String> ids) {
+        Query query = Query.query(where("id").in(ids));
+        query.fields().include("id", "version");
+        Map<String, Long> versions = new HashMap<>();
+        for (Device device : mongoTemplate.find(query, Device.class)) {
+            // Documents written before versioning count as version 0
+            versions.put(device.getId(), device.getVersion() != null ? device.getVersion() : 0L);
+        }
+        return versions;
+    }
+
+    public boolean exists(String id) {
+        return mongoTemplate.exists(Query.query(where("id").is(id)), Device.class);
+    }
+
+    private Map<String, Object> validate(Map<String, Object> changes) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        changes.forEach((field, value) -> {
+            if ("version".equals(field)) {
+                return;
+            }
+            if (!PATCHABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be patched: " + field);
+            }
+            if (value != null && !(value instanceof String)) {
+                throw new IllegalArgumentException("Field must be a string: " + field);
+            }
+            if (value == null && REQUIRED_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Field cannot be cleared: " + field);
+            }
+            fields.put(field, value);
+        });
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("Patch contains no updatable fields");
+        }
+        return fields;
+    }
+
+    private Long expectedVersion(Map<String, Object> changes) {
+        Object version = changes.get("version");
+        if (version == null) {
+            return null;
+        }
+        if (!(version instanceof Number)) {
+            throw new IllegalArgumentException("version must be a number");
+        }
+        return ((Number) version).longValue();
+    }
+
+    private Query matching(String id, Long expectedVersion) {
+        Criteria criteria = where("id").is(id);
+        if (expectedVersion != null) {
+            // Documents written before versioning have no field at all, which counts as version 0
+            criteria = expectedVersion == 0
+                    ? criteria.and("version").in(0L, null)
+                    : criteria.and("version").is(expectedVersion);
+        }
+        return Query.query(criteria);
+    }
+
+    private Update toUpdate(Map<String, Object> fields) {
+        Update update = new Update();
+        fields.forEach(update::set);
+        update.inc("version", 1);
+        return update;
+    }
+}
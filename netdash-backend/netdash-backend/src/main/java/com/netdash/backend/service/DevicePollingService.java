@@ -0,0 +1,159 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side polling loop. Every interval it polls the devices this node owns
+ * (all of them outside cluster mode) on a bounded worker pool; a device whose
+ * previous poll is still running is skipped rather than polled twice. In cluster mode
+ * only the owned partitions are read, and results of a poll that outlives the lease
+ * are dropped by the device writer.
+ * Each poll takes a POLL admission slot plus the device's target slot, so SNMP and
+ * NETCONF polls never overlap a config push or discovery on the same device. A device
+ * that is busy, or a cycle that reaches the adaptive limit, is deferred to the next
+ * cycle (the devices polled longest ago go first); deferrals don't count as rejections.
+ */
+@Service
+@Lazy(false)
+public class DevicePollingService {
+    private static final Logger logger = LoggerFactory.getLogger(DevicePollingService.class);
+
+    private static final List<String> POLLED_PROTOCOLS = List.of("SNMP", "NETCONF");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SnmpMetricsService snmpMetricsService;
+
+    @Autowired
+    private NetconfService netconfService;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    @Value("${netdash.polling.enabled:false}")
+    private boolean enabled;
+
+    @Value("${netdash.polling.interval-ms:10000}")
+    private long intervalMs;
+
+    @Value("${netdash.polling.threads:8}")
+    private int threads;
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> lastPolled = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "device-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "device-poll-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::pollCycle, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Device polling enabled every {} ms with {} threads", intervalMs, threads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+
+    private void pollCycle() {
+        try {
+            // gNMI devices stream on their own and host-inventory rows have nothing to poll
+            Criteria polled = Criteria.where("protocol").in(POLLED_PROTOCOLS);
+            Criteria owned = clusterCoordinator.ownedDevicesCriteria();
+            Query query = new Query(owned != null ? new Criteria().andOperator(owned, polled) : polled);
+            query.fields().include("id", "name", "ipAddress", "type", "protocol");
+            List<Device> devices = mongoTemplate.find(query, Device.class);
+            lastPolled.keySet().retainAll(devices.stream().map(Device::getId).collect(Collectors.toSet()));
+            devices.sort(Comparator.comparingLong(device -> lastPolled.getOrDefault(device.getId(), 0L)));
+
+            int scheduled = 0;
+            int deferred = 0;
+            for (Device device : devices) {
+                if (!clusterCoordinator.owns(device.getId()) || inFlight.contains(device.getId())) {
+                    continue;
+                }
+                AdmissionControlService.Permit permit = admissionControl.tryAcquireDeferrable(
+                        AdmissionControlService.Operation.POLL, device.getIpAddress());
+                if (permit == null) {
+                    deferred++;
+                    continue;
+                }
+                inFlight.add(device.getId());
+                scheduled++;
+                workers.execute(() -> {
+                    try {
+                        // Ownership may have moved while the task was queued; a skipped poll leaves no latency sample
+                        if (!clusterCoordinator.owns(device.getId())) {
+                            permit.cancel();
+                            return;
+                        }
+                        poll(device);
+                        lastPolled.put(device.getId(), System.currentTimeMillis());
+                    } finally {
+                        permit.release();
+                        inFlight.remove(device.getId());
+                    }
+                });
+            }
+            if (deferred > 0) {
+                logger.debug("Poll cycle scheduled {} devices, deferred {} at limit {}",
+                        scheduled, deferred, admissionControl.getLimit(AdmissionControlService.Operation.POLL));
+            } else {
+                logger.debug("Poll cycle scheduled {} devices", scheduled);
+            }
+        } catch (Exception e) {
+            logger.error("Poll cycle failed: {}", e.getMessage());
+        }
+    }
+
+    private void poll(Device device) {
+        if ("NETCONF".equals(device.getProtocol())) {
+            netconfService.updateNetconfStatus(device);
+        } else if ("SNMP".equals(device.getProtocol())) {
+            snmpMetricsService.collectMetrics(device);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.DevicePage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Offset/limit slices of the device collection with sorting and filtering done in Mongo,
+ * so clients only ever hold the rows they are showing.
+ */
+@Service
+public class DeviceQueryService {
+    private static final Logger logger = LoggerFactory.getLogger(DeviceQueryService.class);
+
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("name", "ipAddress", "type", "status", "macAddress", "interfaceStatus", "protocol", "createdAt");
+    private static final List<String> FILTER_FIELDS =
+            List.of("name", "ipAddress", "type", "status", "macAddress", "protocol");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${netdash.devices.max-page-size:500}")
+    private int maxPageSize;
+
+    private volatile boolean indexed;
+
+    /**
+     * Returns one page; the sort always ends on id so pages stay stable between requests.
+     * Throws IllegalArgumentException for an unknown sort field or direction.
+     */
+    public DevicePage page(int offset, int limit, String sort, String dir, String filter) {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("offset must be >= 0 and limit >= 1");
+        }
+        int size = Math.min(limit, maxPageSize);
+        ensureIndexes();
+
+        Query query = new Query(filterCriteria(filter));
+        long total = mongoTemplate.count(query, Device.class);
+
+        query.with(toSort(sort, dir)).skip(offset).limit(size);
+        List<Device> items = offset < total ? mongoTemplate.find(query, Device.class) : List.of();
+        logger.debug("Device page offset={} limit={} sort={} {} filter={} -> {}/{}",
+                offset, size, sort, dir, filter, items.size(), total);
+        return new DevicePage(items, total, offset, size);
+    }
+
+    // Case-insensitive substring match over the text columns the table shows
+    private static Criteria filterCriteria(String filter) {
+        if (filter == null || filter.isBlank()) {
+            return new Criteria();
+        }
+        Pattern pattern = Pattern.compile(Pattern.quote(filter.trim()), Pattern.CASE_INSENSITIVE);
+        return new Criteria().orOperator(FILTER_FIELDS.stream()
+                .map(field -> Criteria.where(field).regex(pattern))
+                .toArray(Criteria[]::new));
+    }
+
+    private static Sort toSort(String sort, String dir) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by(Sort.Direction.ASC, "id");
+        }
+        if (!SORTABLE_FIELDS.contains(sort)) {
+            throw new IllegalArgumentException("Cannot sort by: " + sort);
+        }
+        Sort.Direction direction = Sort.Direction.fromOptionalString(dir == null ? "asc" : dir)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid sort direction: " + dir));
+        return Sort.by(direction, sort).and(Sort.by(direction, "id"));
+    }
+
+    private void ensureIndexes() {
+        if (indexed) {
+            return;
+        }
+        for (String field : List.of("name", "ipAddress", "status")) {
+            mongoTemplate.indexOps(Device.class).ensureIndex(new Index()
+                    .on(field, Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC));
+        }
+        indexed = true;
+    }
+}
@@ -0,0 +1,70 @@
+package com.netdash.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap in-memory revision counter for the device collection.
+ * Every write bumps the collection revision and records it against the touched device,
+ * so ETags can be computed without reading MongoDB.
+ */
+@Component
+public class DeviceRevisionTracker {
+
+    // Distinguishes revisions across restarts, since the counter itself starts at zero again
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong collectionRevision = new AtomicLong();
+    // Writes made on this node only; peer invalidations bump collectionRevision but not this
+    private final AtomicLong localRevision = new AtomicLong();
+    private final ConcurrentHashMap<String, Long> deviceRevisions = new ConcurrentHashMap<>();
+    private volatile long floorRevision;
+
+    public void markChanged(String deviceId) {
+        localRevision.incrementAndGet();
+        long revision = collectionRevision.incrementAndGet();
+        if (deviceId != null) {
+            deviceRevisions.put(deviceId, revision);
+        }
+    }
+
+    /**
+     * Records deleted devices: bumps the collection revision and drops their entries so the map
+     * doesn't grow with device churn. A device recreated under the same id gets a newer revision.
+     */
+    public void markDeleted(Collection<String> deviceIds) {
+        localRevision.incrementAndGet();
+        collectionRevision.incrementAndGet();
+        deviceIds.forEach(deviceRevisions::remove);
+    }
+
+    public void markAllChanged() {
+        localRevision.incrementAndGet();
+        floorRevision = collectionRevision.incrementAndGet();
+    }
+
+    /** Invalidates every ETag for writes made on another node, without counting as a local write. */
+    public void markPeersChanged() {
+        floorRevision = collectionRevision.incrementAndGet();
+    }
+
+    public long getCollectionRevision() {
+        return collectionRevision.get();
+    }
+
+    /** Revision published to peers: moves only when this node writes. */
+    public long getLocalRevision() {
+        return localRevision.get();
+    }
+
+    public String collectionEtag() {
+        return "\"devices-" + epoch + "-" + collectionRevision.get() + "\"";
+    }
+
+    public String deviceEtag(String deviceId) {
+        long revision = Math.max(deviceRevisions.getOrDefault(deviceId, 0L), floorRevision);
+        return "\"device-" + deviceId + "-" + epoch + "-" + revision + "\"";
+    }
+}
@@ -0,0 +1,194 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.DiscoveryJob;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs discovery as background jobs. Found devices and progress are streamed to SSE
+ * subscribers as they happen (late subscribers get a replay first) through bounded per-subscriber
+ * queues, so a slow client never stalls the scan (see SsePush). Jobs can be cancelled
+ * between steps, and at most max-concurrent-jobs scans run at once. Jobs also take a DISCOVER
+ * admission slot, so they share one limit with synchronous discovery.
+ */
+@Service
+public class DiscoveryJobService {
+    private static final Logger logger = LoggerFactory.getLogger(DiscoveryJobService.class);
+
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+    private static final long FINISHED_JOB_RETENTION_MINUTES = 10;
+
+    @Autowired
+    private DeviceDiscoveryService deviceDiscoveryService;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    @Autowired
+    private SsePush ssePush;
+
+    @Value("${netdash.discovery.push-queue:256}")
+    private int pushQueueSize;
+
+    private final Semaphore slots;
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, JobRun> jobs = new ConcurrentHashMap<>();
+
+    private static final class JobRun {
+        final DiscoveryJob job;
+        final List<Device> found = new ArrayList<>();
+        final List<SsePush.Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        volatile boolean cancelled;
+
+        JobRun(DiscoveryJob job) {
+            this.job = job;
+        }
+    }
+
+    public DiscoveryJobService(@Value("${netdash.discovery.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        this.slots = new Semaphore(maxConcurrentJobs);
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, r -> {
+            Thread t = new Thread(r, "discovery-job");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        jobs.values().forEach(run -> run.cancelled = true);
+        executor.shutdownNow();
+    }
+
+    /** Starts a job, or returns null when the concurrent-job cap or the discovery admission limit is reached. */
+    public DiscoveryJob start() {
+        if (!slots.tryAcquire()) {
+            return null;
+        }
+        AdmissionControlService.Permit permit = admissionControl.tryAcquire(AdmissionControlService.Operation.DISCOVER);
+        if (permit == null) {
+            slots.release();
+            return null;
+        }
+        pruneFinished();
+        JobRun run = new JobRun(new DiscoveryJob(UUID.randomUUID().toString()));
+        jobs.put(run.job.getId(), run);
+        executor.execute(() -> execute(run, permit));
+        logger.info("Discovery job started: id={}", run.job.getId());
+        return run.job;
+    }
+
+    public DiscoveryJob get(String jobId) {
+        JobRun run = jobs.get(jobId);
+        return run != null ? run.job : null;
+    }
+
+    public boolean cancel(String jobId) {
+        JobRun run = jobs.get(jobId);
+        if (run == null) {
+            return false;
+        }
+        run.cancelled = true;
+        logger.info("Discovery job cancel requested: id={}", jobId);
+        return true;
+    }
+
+    public SseEmitter subscribe(String jobId) {
+        JobRun run = jobs.get(jobId);
+        if (run == null) {
+            return null;
+        }
+        synchronized (run) {
+            // Room for the replay on top of the live backlog
+            SsePush.Subscriber subscriber = ssePush.subscribe(new SseEmitter(EMITTER_TIMEOUT_MS),
+                    run.found.size() + pushQueueSize, run.subscribers::remove);
+            for (Device device : run.found) {
+                subscriber.offer("device", device);
+            }
+            subscriber.offer(run.job.isFinished() ? "done" : "progress", run.job);
+            if (run.job.isFinished()) {
+                subscriber.complete();
+            } else {
+                run.subscribers.add(subscriber);
+            }
+            return subscriber.getEmitter();
+        }
+    }
+
+    private void execute(JobRun run, AdmissionControlService.Permit permit) {
+        try {
+            deviceDiscoveryService.discoverDevices(new DeviceDiscoveryService.DiscoveryListener() {
+                @Override
+                public void onDevice(Device device) {
+                    synchronized (run) {
+                        run.found.add(device);
+                        run.job.setDevicesFound(run.found.size());
+                        broadcast(run, "device", device);
+                    }
+                }
+
+                @Override
+                public void onProgress(int done, int total, String step) {
+                    synchronized (run) {
+                        run.job.setStepsDone(done);
+                        run.job.setStepsTotal(total);
+                        run.job.setStep(step);
+                        broadcast(run, "progress", run.job);
+                    }
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return run.cancelled;
+                }
+            });
+            finish(run, run.cancelled ? "CANCELLED" : "COMPLETED", null);
+        } catch (Exception e) {
+            logger.error("Discovery job failed: id={}", run.job.getId(), e);
+            finish(run, "FAILED", e.getMessage());
+        } finally {
+            permit.release();
+            slots.release();
+        }
+    }
+
+    private void finish(JobRun run, String state, String message) {
+        synchronized (run) {
+            run.job.setState(state);
+            run.job.setMessage(message);
+            run.job.setFinishedAt(LocalDateTime.now());
+            broadcast(run, "done", run.job);
+            run.subscribers.forEach(SsePush.Subscriber::complete);
+            run.subscribers.clear();
+        }
+        logger.info("Discovery job {}: id={} devices={}", state, run.job.getId(), run.job.getDevicesFound());
+    }
+
+    // Caller holds the run lock so events are queued for every subscriber in order; sending happens on the push pool
+    private void broadcast(JobRun run, String name, Object data) {
+        for (SsePush.Subscriber subscriber : run.subscribers) {
+            subscriber.offer(name, data);
+        }
+    }
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(FINISHED_JOB_RETENTION_MINUTES);
+        jobs.values().removeIf(run -> run.job.getFinishedAt() != null && run.job.getFinishedAt().isBefore(cutoff));
+    }
+}
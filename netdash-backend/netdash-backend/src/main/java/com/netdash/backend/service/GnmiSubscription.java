@@ -0,0 +1,97 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.gnmi.Notification;
+import com.netdash.backend.gnmi.SubscribeRequest;
+import com.netdash.backend.gnmi.SubscribeResponse;
+import com.netdash.backend.gnmi.gNMIGrpc;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+/**
+ * One long-lived gNMI Subscribe stream to a device.
+ *
+ * Inbound flow control is manual: at most {@code window} responses are requested ahead, and
+ * another one only once the listener has returned from the previous. A listener that blocks
+ * (because storage is saturated) therefore stops reading, HTTP/2 flow control fills up, and
+ * the target slows down or coalesces samples instead of the backend buffering without limit.
+ */
+public class GnmiSubscription implements ClientResponseObserver<SubscribeRequest, SubscribeResponse> {
+
+    public interface Listener {
+        /**
+         * Called for every notification, one at a time; may block to apply backpressure.
+         */
+        void onNotification(Notification notification);
+
+        /**
+         * The target has sent the complete initial state.
+         */
+        void onSynced();
+
+        /**
+         * The stream ended; error is null when the target closed it cleanly.
+         */
+        void onClosed(Throwable error);
+    }
+
+    private final int window;
+    private final Listener listener;
+    private volatile ClientCallStreamObserver<SubscribeRequest> requestStream;
+    private volatile boolean cancelled;
+
+    public GnmiSubscription(int window, Listener listener) {
+        this.window = window;
+        this.listener = listener;
+    }
+
+    /**
+     * Opens the stream and sends the subscription. The request side stays open: in STREAM
+     * mode a half-close may be taken by the target as the end of the subscription.
+     */
+    public void start(gNMIGrpc.gNMIStub stub, SubscribeRequest request) {
+        stub.subscribe(this).onNext(request);
+    }
+
+    public void cancel() {
+        cancelled = true;
+        ClientCallStreamObserver<SubscribeRequest> stream = requestStream;
+        if (stream != null) {
+            stream.cancel("Subscription cancelled", null);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<SubscribeRequest> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.disableAutoRequestWithInitial(window);
+    }
+
+    @Override
+    public void onNext(SubscribeResponse response) {
+        try {
+            if (response.hasUpdate()) {
+                listener.onNotification(response.getUpdate());
+            } else if (response.getSyncResponse()) {
+                listener.onSynced();
+            }
+        } finally {
+            if (!cancelled) {
+                requestStream.request(1);
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        listener.onClosed(t);
+    }
+
+    @Override
+    public void onCompleted() {
+        listener.onClosed(null);
+    }
+}
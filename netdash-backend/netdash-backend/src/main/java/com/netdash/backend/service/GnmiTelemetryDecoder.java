@@ -0,0 +1,260 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.gnmi.Encoding;
+import com.netdash.backend.gnmi.Notification;
+import com.netdash.backend.gnmi.Path;
+import com.netdash.backend.gnmi.PathElem;
+import com.netdash.backend.gnmi.SubscribeRequest;
+import com.netdash.backend.gnmi.Subscription;
+import com.netdash.backend.gnmi.SubscriptionList;
+import com.netdash.backend.gnmi.SubscriptionMode;
+import com.netdash.backend.gnmi.TypedValue;
+import com.netdash.backend.gnmi.Update;
+import com.netdash.backend.model.MetricSample;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns one device's OpenConfig telemetry into the same fields and metrics the SNMP profiles
+ * produce: cpuUsage (percent), memoryUsage (MB), interfaceStatus with its numeric interfaceUp
+ * (1 when every interface is up, else 0) and ifIn/OutBitsPerSec.
+ * Targets only send what changed, so the last value of every leaf is kept per device and the
+ * derived values are recomputed from that state whenever one of their inputs arrives.
+ *
+ * Not thread-safe; a subscription delivers its notifications one at a time.
+ */
+public class GnmiTelemetryDecoder {
+
+    static final String CPU_INSTANT = "system/cpus/cpu/state/total/instant";
+    static final String MEMORY_PHYSICAL = "system/memory/state/physical";
+    static final String MEMORY_USED = "system/memory/state/used";
+    static final String OPER_STATUS = "interfaces/interface/state/oper-status";
+    static final String IN_OCTETS = "interfaces/interface/state/counters/in-octets";
+    static final String OUT_OCTETS = "interfaces/interface/state/counters/out-octets";
+
+    private static final double BYTES_PER_MB = 1048576;
+
+    private final String deviceId;
+    private final SnmpMetricProfile.CounterRates counterRates = new SnmpMetricProfile.CounterRates();
+
+    private final Map<String, Double> cpuByIndex = new HashMap<>();
+    private Double memoryPhysical;
+    private Double memoryUsed;
+    private final Map<String, String> operStatusByInterface = new HashMap<>();
+    private final Map<String, Double> inRateByInterface = new HashMap<>();
+    private final Map<String, Double> outRateByInterface = new HashMap<>();
+
+    public GnmiTelemetryDecoder(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    /**
+     * One STREAM subscription: utilisation and counters sampled, interface state on change.
+     */
+    public static SubscribeRequest subscribeRequest(long sampleIntervalMs) {
+        long sampleNanos = TimeUnit.MILLISECONDS.toNanos(sampleIntervalMs);
+        SubscriptionList.Builder list = SubscriptionList.newBuilder()
+                .setMode(SubscriptionList.Mode.STREAM)
+                .setEncoding(Encoding.PROTO)
+                .addSubscription(sample("system/cpus/cpu/state/total", sampleNanos))
+                .addSubscription(sample("system/memory/state", sampleNanos))
+                .addSubscription(sample("interfaces/interface/state/counters", sampleNanos))
+                .addSubscription(Subscription.newBuilder()
+                        .setPath(path(OPER_STATUS))
+                        .setMode(SubscriptionMode.ON_CHANGE));
+        return SubscribeRequest.newBuilder().setSubscribe(list).build();
+    }
+
+    private static Subscription.Builder sample(String path, long sampleNanos) {
+        return Subscription.newBuilder()
+                .setPath(path(path))
+                .setMode(SubscriptionMode.SAMPLE)
+                .setSampleInterval(sampleNanos);
+    }
+
+    static Path path(String path) {
+        Path.Builder builder = Path.newBuilder();
+        for (String name : path.split("/")) {
+            builder.addElem(PathElem.newBuilder().setName(name));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Applies a notification; changed device fields go into fields and new metric values
+     * into samples.
+     */
+    public void apply(Notification notification, Map<String, Object> fields, List<MetricSample> samples) {
+        long timestampNanos = notification.getTimestamp() > 0
+                ? notification.getTimestamp()
+                : TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        boolean cpuChanged = false, memoryChanged = false, operChanged = false, countersChanged = false;
+
+        for (Path deleted : notification.getDeleteList()) {
+            Leaf leaf = leaf(notification.getPrefix(), deleted);
+            if (leaf.keys.containsKey("interface")) {
+                String name = leaf.keys.get("interface");
+                if (operStatusByInterface.remove(name) != null) operChanged = true;
+                if (inRateByInterface.remove(name) != null) countersChanged = true;
+                if (outRateByInterface.remove(name) != null) countersChanged = true;
+            } else if (leaf.keys.containsKey("cpu")) {
+                if (cpuByIndex.remove(leaf.keys.get("cpu")) != null) cpuChanged = true;
+            }
+        }
+
+        for (Update update : notification.getUpdateList()) {
+            Leaf leaf = leaf(notification.getPrefix(), update.getPath());
+            if (CPU_INSTANT.equals(leaf.path)) {
+                Double value = number(update.getVal());
+                if (value != null) {
+                    cpuByIndex.put(leaf.keys.getOrDefault("cpu", "ALL"), value);
+                    cpuChanged = true;
+                }
+            } else if (MEMORY_PHYSICAL.equals(leaf.path)) {
+                memoryPhysical = number(update.getVal());
+                memoryChanged = true;
+            } else if (MEMORY_USED.equals(leaf.path)) {
+                memoryUsed = number(update.getVal());
+                memoryChanged = true;
+            } else if (OPER_STATUS.equals(leaf.path)) {
+                String status = text(update.getVal());
+                if (status != null) {
+                    operStatusByInterface.put(leaf.keys.getOrDefault("interface", ""), status);
+                    operChanged = true;
+                }
+            } else if (IN_OCTETS.equals(leaf.path) || OUT_OCTETS.equals(leaf.path)) {
+                boolean in = IN_OCTETS.equals(leaf.path);
+                String name = leaf.keys.getOrDefault("interface", "");
+                Double octets = number(update.getVal());
+                Double rate = octets == null ? null
+                        : counterRates.rate((in ? "in|" : "out|") + name, octets, 64, timestampNanos);
+                if (rate != null) {
+                    (in ? inRateByInterface : outRateByInterface).put(name, rate * 8);
+                    countersChanged = true;
+                }
+            }
+        }
+
+        long timestampMs = TimeUnit.NANOSECONDS.toMillis(timestampNanos);
+        if (cpuChanged && !cpuByIndex.isEmpty()) {
+            // Targets that report an aggregate use index ALL; otherwise average the cores
+            Double all = cpuByIndex.get("ALL");
+            double cpu = all != null ? all
+                    : cpuByIndex.values().stream().mapToDouble(Double::doubleValue).average().orElse(0);
+            fields.put("cpuUsage", cpu);
+            samples.add(new MetricSample(deviceId, "cpuUsage", cpu, timestampMs));
+        }
+        if (memoryChanged && memoryUsed != null) {
+            double memory = memoryUsed / BYTES_PER_MB;
+            fields.put("memoryUsage", memory);
+            samples.add(new MetricSample(deviceId, "memoryUsage", memory, timestampMs));
+            if (memoryPhysical != null && memoryPhysical > 0) {
+                samples.add(new MetricSample(deviceId, "memoryUtilization", 100 * memoryUsed / memoryPhysical, timestampMs));
+            }
+        }
+        if (operChanged && !operStatusByInterface.isEmpty()) {
+            boolean allUp = operStatusByInterface.values().stream().allMatch("UP"::equalsIgnoreCase);
+            fields.put("interfaceStatus", allUp ? "Up" : "Down");
+            samples.add(new MetricSample(deviceId, "interfaceUp", allUp ? 1 : 0, timestampMs));
+        }
+        if (countersChanged) {
+            samples.add(new MetricSample(deviceId, "ifInBitsPerSec", sum(inRateByInterface), timestampMs));
+            samples.add(new MetricSample(deviceId, "ifOutBitsPerSec", sum(outRateByInterface), timestampMs));
+        }
+    }
+
+    private static double sum(Map<String, Double> values) {
+        return values.values().stream().mapToDouble(Double::doubleValue).sum();
+    }
+
+    /**
+     * A path as its element names joined with '/' (module prefixes dropped) plus the list
+     * keys by element, e.g. interfaces/interface/state/oper-status with interface=eth0.
+     */
+    private static final class Leaf {
+        final String path;
+        final Map<String, String> keys;
+
+        Leaf(String path, Map<String, String> keys) {
+            this.path = path;
+            this.keys = keys;
+        }
+    }
+
+    private static Leaf leaf(Path prefix, Path path) {
+        StringBuilder names = new StringBuilder();
+        Map<String, String> keys = new HashMap<>(2);
+        appendElems(prefix, names, keys);
+        appendElems(path, names, keys);
+        return new Leaf(names.toString(), keys);
+    }
+
+    private static void appendElems(Path path, StringBuilder names, Map<String, String> keys) {
+        for (PathElem elem : path.getElemList()) {
+            String name = elem.getName();
+            int colon = name.indexOf(':');
+            if (colon >= 0) {
+                name = name.substring(colon + 1);
+            }
+            if (names.length() > 0) {
+                names.append('/');
+            }
+            names.append(name);
+            if (elem.getKeyCount() > 0) {
+                // cpu[index=0], interface[name=eth0]: every list used here has a single key
+                keys.put(name, elem.getKeyMap().values().iterator().next());
+            }
+        }
+    }
+
+    static Double number(TypedValue value) {
+        switch (value.getValueCase()) {
+            case DOUBLE_VAL: return value.getDoubleVal();
+            case INT_VAL: return (double) value.getIntVal();
+            case UINT_VAL: {
+                long raw = value.getUintVal();
+                return raw >= 0 ? (double) raw : Double.parseDouble(Long.toUnsignedString(raw));
+            }
+            default: {
+                String text = text(value);
+                if (text == null) return null;
+                try {
+                    return Double.parseDouble(text);
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    static String text(TypedValue value) {
+        switch (value.getValueCase()) {
+            case STRING_VAL: return value.getStringVal();
+            case ASCII_VAL: return value.getAsciiVal();
+            case JSON_VAL: return jsonScalar(value.getJsonVal().toString(StandardCharsets.UTF_8));
+            case JSON_IETF_VAL: return jsonScalar(value.getJsonIetfVal().toString(StandardCharsets.UTF_8));
+            case DOUBLE_VAL: return Double.toString(value.getDoubleVal());
+            case INT_VAL: return Long.toString(value.getIntVal());
+            case UINT_VAL: return Long.toUnsignedString(value.getUintVal());
+            case BOOL_VAL: return Boolean.toString(value.getBoolVal());
+            default: return null;
+        }
+    }
+
+    // JSON-encoded leaves carry a bare scalar such as 42, "42" or "UP"; objects are not leaves
+    private static String jsonScalar(String json) {
+        String text = json.trim();
+        if (text.startsWith("{") || text.startsWith("[")) {
+            return null;
+        }
+        if (text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"")) {
+            text = text.substring(1, text.length() - 1);
+        }
+        // identityref values may carry a module prefix, e.g. openconfig-interfaces:UP
+        return text.matches("[A-Za-z][\\w.-]*:[^:\\s]+") ? text.substring(text.indexOf(':') + 1) : text;
+    }
+}
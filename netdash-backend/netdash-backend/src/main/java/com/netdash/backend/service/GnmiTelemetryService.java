@@ -0,0 +1,284 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.gnmi.Notification;
+import com.netdash.backend.gnmi.gNMIGrpc;
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.MetricSample;
+import io.grpc.ChannelCredentials;
+import io.grpc.Grpc;
+import io.grpc.InsecureChannelCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.TlsChannelCredentials;
+import io.grpc.stub.MetadataUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Dial-in streaming telemetry for devices with protocol GNMI. Every owned device gets one
+ * long-lived Subscribe stream (sampled utilisation and counters, on-change interface state)
+ * instead of being polled. Updates are decoded into the usual device fields, which go through
+ * the coalescing writer, and metrics, which go to the metric feed (alerts and rollups).
+ *
+ * Notifications are handled on a small shared pool; when the writer applies backpressure the
+ * handlers block, retrying until the update is accepted, and the subscriptions stop requesting
+ * more (see GnmiSubscription). Streams that fail are retried with exponential backoff, and the
+ * device is marked Offline meanwhile. A device whose address changes gets a new channel.
+ */
+@Service
+@Lazy(false)
+public class GnmiTelemetryService {
+    private static final Logger logger = LoggerFactory.getLogger(GnmiTelemetryService.class);
+
+    public static final String PROTOCOL = "GNMI";
+
+    private static final long MIN_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ClusterCoordinator clusterCoordinator;
+
+    @Autowired
+    private CoalescingDeviceWriter deviceWriter;
+
+    @Autowired
+    private MetricFeed metricFeed;
+
+    @Value("${netdash.gnmi.enabled:false}")
+    private boolean enabled;
+
+    @Value("${netdash.gnmi.port:57400}")
+    private int port;
+
+    @Value("${netdash.gnmi.tls:true}")
+    private boolean tls;
+
+    @Value("${netdash.gnmi.username:}")
+    private String username;
+
+    @Value("${netdash.gnmi.password:}")
+    private String password;
+
+    @Value("${netdash.gnmi.sample-interval-ms:10000}")
+    private long sampleIntervalMs;
+
+    @Value("${netdash.gnmi.window:32}")
+    private int window;
+
+    @Value("${netdash.gnmi.threads:4}")
+    private int threads;
+
+    @Value("${netdash.gnmi.reconcile-interval-ms:30000}")
+    private long reconcileIntervalMs;
+
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService handlers;
+
+    /**
+     * A device's channel and its current subscription, which is replaced on every reconnect.
+     */
+    private final class Session implements GnmiSubscription.Listener {
+        final String deviceId;
+        final String host;
+        final ManagedChannel channel;
+        final GnmiTelemetryDecoder decoder;
+        volatile GnmiSubscription subscription;
+        volatile boolean closed;
+        volatile boolean online;
+        long backoffMs = MIN_BACKOFF_MS;
+
+        Session(String deviceId, String host, ManagedChannel channel) {
+            this.deviceId = deviceId;
+            this.host = host;
+            this.channel = channel;
+            this.decoder = new GnmiTelemetryDecoder(deviceId);
+        }
+
+        void subscribe() {
+            if (closed) {
+                return;
+            }
+            gNMIGrpc.gNMIStub stub = gNMIGrpc.newStub(channel);
+            if (!username.isEmpty()) {
+                // gNMI carries credentials as call metadata
+                Metadata headers = new Metadata();
+                headers.put(Metadata.Key.of("username", Metadata.ASCII_STRING_MARSHALLER), username);
+                headers.put(Metadata.Key.of("password", Metadata.ASCII_STRING_MARSHALLER), password);
+                stub = stub.withInterceptors(MetadataUtils.newAttachHeadersInterceptor(headers));
+            }
+            subscription = new GnmiSubscription(window, this);
+            subscription.start(stub, GnmiTelemetryDecoder.subscribeRequest(sampleIntervalMs));
+        }
+
+        void close() {
+            closed = true;
+            GnmiSubscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            channel.shutdownNow();
+        }
+
+        @Override
+        public void onNotification(Notification notification) {
+            Map<String, Object> fields = new HashMap<>();
+            List<MetricSample> samples = new ArrayList<>();
+            decoder.apply(notification, fields, samples);
+            markOnline(fields);
+            write(fields);
+            samples.forEach(metricFeed::publish);
+        }
+
+        @Override
+        public void onSynced() {
+            Map<String, Object> fields = new HashMap<>();
+            markOnline(fields);
+            write(fields);
+        }
+
+        // The writer drops an update it could not queue within its backpressure timeout; retrying
+        // keeps this handler blocked, which holds back the stream's flow control instead of losing data
+        private void write(Map<String, Object> fields) {
+            boolean warned = false;
+            while (!deviceWriter.submit(deviceId, fields)) {
+                if (closed || Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                if (!warned) {
+                    warned = true;
+                    logger.warn("Device writer saturated, holding gNMI stream for device id={}", deviceId);
+                }
+            }
+        }
+
+        private void markOnline(Map<String, Object> fields) {
+            if (!online) {
+                online = true;
+                backoffMs = MIN_BACKOFF_MS;
+                fields.put("status", "Online");
+                logger.info("gNMI telemetry streaming for device id={}", deviceId);
+            }
+        }
+
+        @Override
+        public void onClosed(Throwable error) {
+            if (closed) {
+                return;
+            }
+            if (online) {
+                online = false;
+                write(Map.of("status", "Offline"));
+            }
+            long delay = backoffMs;
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            logger.warn("gNMI stream for device id={} ended ({}), retrying in {} ms", deviceId,
+                    error == null ? "closed by target" : Status.fromThrowable(error), delay);
+            scheduler.schedule(this::subscribe, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        handlers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "gnmi-handler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "gnmi-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, 0, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("gNMI telemetry enabled on port {} (sample interval {} ms)", port, sampleIntervalMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        sessions.values().forEach(Session::close);
+        sessions.clear();
+        scheduler.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    // Opens streams for newly added or newly owned GNMI devices and closes the rest
+    private void reconcile() {
+        try {
+            Query query = new Query(where("protocol").is(PROTOCOL));
+            Criteria owned = clusterCoordinator.ownedDevicesCriteria();
+            if (owned != null) {
+                query.addCriteria(owned);
+            }
+            query.fields().include("id", "ipAddress");
+            Set<String> wanted = new HashSet<>();
+            for (Device device : mongoTemplate.find(query, Device.class)) {
+                if (device.getIpAddress() == null || !clusterCoordinator.owns(device.getId())) {
+                    continue;
+                }
+                wanted.add(device.getId());
+                Session existing = sessions.get(device.getId());
+                if (existing != null && !existing.host.equals(device.getIpAddress())) {
+                    logger.info("gNMI target for device id={} moved from {} to {}, reconnecting",
+                            device.getId(), existing.host, device.getIpAddress());
+                    sessions.remove(device.getId(), existing);
+                    existing.close();
+                }
+                sessions.computeIfAbsent(device.getId(), id -> open(id, device.getIpAddress()));
+            }
+            sessions.entrySet().removeIf(entry -> {
+                if (wanted.contains(entry.getKey())) {
+                    return false;
+                }
+                entry.getValue().close();
+                return true;
+            });
+        } catch (Exception e) {
+            logger.error("gNMI reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    private Session open(String deviceId, String host) {
+        ChannelCredentials credentials = tls ? TlsChannelCredentials.create() : InsecureChannelCredentials.create();
+        ManagedChannel channel = Grpc.newChannelBuilderForAddress(host, port, credentials)
+                .executor(handlers)
+                .keepAliveTime(30, TimeUnit.SECONDS)
+                .build();
+        Session session = new Session(deviceId, host, channel);
+        session.subscribe();
+        return session;
+    }
+}
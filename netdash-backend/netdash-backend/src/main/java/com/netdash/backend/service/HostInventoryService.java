@@ -0,0 +1,254 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import com.netdash.backend.repository.DeviceRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import oshi.SystemInfo;
+import oshi.hardware.HardwareAbstractionLayer;
+import oshi.hardware.UsbDevice;
+import oshi.software.os.OperatingSystem;
+import oshi.software.os.windows.WindowsOperatingSystem;
+import oshi.util.ExecutingCommand;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Long-lived inventory of the host's own devices (USB devices and the local router).
+ * OSHI's SystemInfo/HAL are created once and reused; each refresh diffs the fresh snapshot
+ * against what is already persisted, so only added or removed devices touch MongoDB.
+ * Rows are stored under this machine's host name, so backends sharing a database (cluster mode)
+ * each keep their own inventory instead of deleting each other's.
+ */
+@Service
+@Lazy(false)
+public class HostInventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(HostInventoryService.class);
+
+    private static final String ROUTER_NAME = "Local Router";
+    private static final List<String> INVENTORY_TYPES = List.of("USB", "Router");
+
+    @Autowired
+    private DeviceRepository deviceRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DeviceRevisionTracker revisionTracker;
+
+    @Autowired
+    private LinuxNeighborTable linuxNeighborTable;
+
+    @Value("${netdash.inventory.refresh-interval-ms:60000}")
+    private long refreshIntervalMs;
+
+    @Value("${netdash.inventory.host:}")
+    private String configuredHost;
+
+    /** Result of one inventory refresh. */
+    public static final class InventoryChanges {
+        private final List<Device> addedDevices = new ArrayList<>();
+        private final List<String> removedDeviceIds = new ArrayList<>();
+        private Device router;
+
+        public List<Device> getAddedDevices() { return addedDevices; }
+        public List<String> getRemovedDeviceIds() { return removedDeviceIds; }
+        /** The current local router, whether or not it changed. */
+        public Device getRouter() { return router; }
+    }
+
+    private HardwareAbstractionLayer hal;
+    private OperatingSystem os;
+    // USB device name -> ids of persisted devices with that name (identical devices share a name)
+    private Map<String, List<String>> persistedUsb;
+    private Device router;
+    private String host;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        host = configuredHost.isBlank() ? localHostName() : configuredHost;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "host-inventory");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (Exception e) {
+                logger.error("Host inventory refresh failed: {}", e.getMessage());
+            }
+        }, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public synchronized InventoryChanges refresh() {
+        initHardware();
+        if (persistedUsb == null) {
+            loadPersisted();
+        }
+
+        InventoryChanges changes = new InventoryChanges();
+        Map<String, Integer> present = new HashMap<>();
+        for (UsbDevice usb : hal.getUsbDevices(true)) {
+            present.merge(usb.getName(), 1, Integer::sum);
+        }
+
+        present.forEach((name, count) -> {
+            List<String> ids = persistedUsb.computeIfAbsent(name, k -> new ArrayList<>());
+            while (ids.size() < count) {
+                Device device = new Device(name, "N/A", "USB", "Connected", 0.0, 0.0, null, null, null);
+                device.setHost(host);
+                deviceRepository.save(device);
+                ids.add(device.getId());
+                changes.addedDevices.add(device);
+            }
+        });
+        persistedUsb.forEach((name, ids) -> {
+            int keep = present.getOrDefault(name, 0);
+            while (ids.size() > keep) {
+                String id = ids.remove(ids.size() - 1);
+                deviceRepository.deleteById(id);
+                changes.removedDeviceIds.add(id);
+            }
+        });
+        persistedUsb.values().removeIf(List::isEmpty);
+
+        String routerIp = detectRouterIp();
+        if (routerIp != null && (router == null || !routerIp.equals(router.getIpAddress()))) {
+            logger.info("Router IP changed from {} to {}", router != null ? router.getIpAddress() : null, routerIp);
+            if (router == null) {
+                router = new Device(ROUTER_NAME, routerIp, "Router", "Online", 0.0, 0.0, null, null, "SNMP");
+                router.setHost(host);
+                deviceRepository.save(router);
+                changes.addedDevices.add(router);
+            } else {
+                // Only the address moved; a whole-document save would clobber poller and PATCH fields
+                mongoTemplate.updateFirst(query(where("id").is(router.getId())),
+                        new Update().set("ipAddress", routerIp).inc("version", 1), Device.class);
+                router.setIpAddress(routerIp);
+                router.setVersion(router.getVersion() != null ? router.getVersion() + 1 : 1L);
+                revisionTracker.markChanged(router.getId());
+            }
+        }
+        changes.router = router;
+
+        if (!changes.addedDevices.isEmpty() || !changes.removedDeviceIds.isEmpty()) {
+            logger.info("Host inventory changed: {} added, {} removed",
+                    changes.addedDevices.size(), changes.removedDeviceIds.size());
+        }
+        return changes;
+    }
+
+    private void initHardware() {
+        if (hal == null) {
+            SystemInfo systemInfo = new SystemInfo();
+            hal = systemInfo.getHardware();
+            os = systemInfo.getOperatingSystem();
+        }
+    }
+
+    private void loadPersisted() {
+        claimUnownedRows();
+        persistedUsb = new HashMap<>();
+        List<Device> rows = deviceRepository.findByTypeInAndHost(INVENTORY_TYPES, host);
+        for (Device device : rows) {
+            if ("USB".equals(device.getType())) {
+                persistedUsb.computeIfAbsent(device.getName(), k -> new ArrayList<>()).add(device.getId());
+            }
+        }
+        for (Device device : rows) {
+            if (!"Router".equals(device.getType()) || !ROUTER_NAME.equals(device.getName())) {
+                continue;
+            }
+            if (router == null) {
+                router = device;
+            } else {
+                // Left over from earlier discoveries that re-inserted the router every time
+                deviceRepository.deleteById(device.getId());
+            }
+        }
+    }
+
+    // Rows written before inventory was scoped by host; the first backend to load takes them,
+    // claiming each with a conditional update so two nodes can't both adopt the same row
+    private void claimUnownedRows() {
+        for (Device device : mongoTemplate.find(query(where("type").in(INVENTORY_TYPES).and("host").exists(false)), Device.class)) {
+            if ("Router".equals(device.getType()) && !ROUTER_NAME.equals(device.getName())) {
+                continue;
+            }
+            if (mongoTemplate.updateFirst(query(where("id").is(device.getId()).and("host").exists(false)),
+                    new Update().set("host", host), Device.class).getModifiedCount() == 1) {
+                revisionTracker.markChanged(device.getId());
+            }
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "localhost";
+        }
+    }
+
+    private String detectRouterIp() {
+        if (os instanceof WindowsOperatingSystem) {
+            try {
+                List<String> output = ExecutingCommand.runNative("ipconfig");
+                logger.debug("ipconfig output: {}", output);
+                for (String line : output) {
+                    logger.debug("Checking line: {}", line);
+                    if (line.contains("Default Gateway")) {
+                        String[] parts = line.split(":");
+                        if (parts.length > 1) {
+                            String ip = parts[1].trim();
+                            if (ip.matches("\\d+\\.\\d+\\.\\d+\\.\\d+")) {
+                                logger.debug("Detected router IP: {}", ip);
+                                return ip;
+                            }
+                        }
+                    }
+                }
+                logger.warn("No valid Default Gateway found in ipconfig output");
+            } catch (Exception e) {
+                logger.error("Failed to get router IP on Windows", e);
+            }
+        } else if (linuxNeighborTable.isSupported()) {
+            try {
+                String ip = linuxNeighborTable.readDefaultGateway();
+                logger.debug("Detected router IP from /proc/net/route: {}", ip);
+                return ip;
+            } catch (Exception e) {
+                logger.error("Failed to read /proc/net/route", e);
+            }
+        } else {
+            logger.warn("Non-Windows OS detected, router IP detection not fully implemented");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,147 @@
+package com.netdash.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-free Linux discovery straight from the kernel tables in /proc/net.
+ * The default gateway comes from /proc/net/route and neighbors from /proc/net/arp,
+ * with no fork of ip/arp/route. {@link #refresh()} re-reads the ARP table and reports the full
+ * table along with what changed since the previous call; an unchanged table is detected by
+ * comparing raw bytes and skips parsing altogether. Malformed lines are skipped, not fatal.
+ */
+@Component
+public class LinuxNeighborTable {
+
+    private static final int RTF_UP = 0x1;
+    private static final int RTF_GATEWAY = 0x2;
+    private static final int ATF_COM = 0x2;
+    private static final String EMPTY_MAC = "00:00:00:00:00:00";
+
+    /** Neighbor table after a read and its changes since the previous read, keyed by IP. */
+    public static final class NeighborChanges {
+        private final Map<String, String> current;
+        private final Map<String, String> added;
+        private final Map<String, String> removed;
+
+        NeighborChanges(Map<String, String> current, Map<String, String> added, Map<String, String> removed) {
+            this.current = current;
+            this.added = added;
+            this.removed = removed;
+        }
+
+        /** Every complete neighbor entry, ip -> mac. */
+        public Map<String, String> getCurrent() { return current; }
+
+        /** New neighbors and neighbors whose MAC changed, ip -> mac. */
+        public Map<String, String> getAdded() { return added; }
+        public Map<String, String> getRemoved() { return removed; }
+        public boolean isEmpty() { return added.isEmpty() && removed.isEmpty(); }
+    }
+
+    private final Path routePath;
+    private final Path arpPath;
+    private byte[] lastArpBytes;
+    private Map<String, String> lastNeighbors = Collections.emptyMap();
+
+    public LinuxNeighborTable() {
+        this(Paths.get("/proc/net/route"), Paths.get("/proc/net/arp"));
+    }
+
+    LinuxNeighborTable(Path routePath, Path arpPath) {
+        this.routePath = routePath;
+        this.arpPath = arpPath;
+    }
+
+    public boolean isSupported() {
+        return Files.isReadable(routePath) && Files.isReadable(arpPath);
+    }
+
+    /** Gateway of the lowest-metric default route, or null if there is none. */
+    public String readDefaultGateway() throws IOException {
+        String gateway = null;
+        int bestMetric = Integer.MAX_VALUE;
+        String[] lines = new String(Files.readAllBytes(routePath), StandardCharsets.US_ASCII).split("\n");
+        // Iface Destination Gateway Flags RefCnt Use Metric Mask MTU Window IRTT
+        for (int i = 1; i < lines.length; i++) {
+            String[] cols = lines[i].trim().split("\\s+");
+            if (cols.length < 8 || !"00000000".equals(cols[1]) || !"00000000".equals(cols[7])) {
+                continue;
+            }
+            try {
+                int flags = Integer.parseInt(cols[3], 16);
+                int metric = Integer.parseInt(cols[6]);
+                if ((flags & (RTF_UP | RTF_GATEWAY)) == (RTF_UP | RTF_GATEWAY) && metric < bestMetric) {
+                    gateway = hexToIpv4(cols[2]);
+                    bestMetric = metric;
+                }
+            } catch (NumberFormatException e) {
+                // skip the malformed line, keep the rest of the table
+            }
+        }
+        return gateway;
+    }
+
+    /** Complete (resolved) neighbor entries, ip -> mac. */
+    public Map<String, String> readNeighbors() throws IOException {
+        return parseArp(Files.readAllBytes(arpPath));
+    }
+
+    /** Re-reads the ARP table; the result also lists the entries added, changed or removed since the last call. */
+    public synchronized NeighborChanges refresh() throws IOException {
+        byte[] raw = Files.readAllBytes(arpPath);
+        if (lastArpBytes != null && Arrays.equals(raw, lastArpBytes)) {
+            return new NeighborChanges(lastNeighbors, Collections.emptyMap(), Collections.emptyMap());
+        }
+        Map<String, String> current = parseArp(raw);
+        Map<String, String> added = new LinkedHashMap<>();
+        current.forEach((ip, mac) -> {
+            if (!mac.equals(lastNeighbors.get(ip))) added.put(ip, mac);
+        });
+        Map<String, String> removed = new LinkedHashMap<>();
+        lastNeighbors.forEach((ip, mac) -> {
+            if (!current.containsKey(ip)) removed.put(ip, mac);
+        });
+        lastArpBytes = raw;
+        lastNeighbors = Collections.unmodifiableMap(current);
+        return new NeighborChanges(lastNeighbors, added, removed);
+    }
+
+    private static Map<String, String> parseArp(byte[] raw) {
+        Map<String, String> neighbors = new HashMap<>();
+        String[] lines = new String(raw, StandardCharsets.US_ASCII).split("\n");
+        // IP address  HW type  Flags  HW address  Mask  Device
+        for (int i = 1; i < lines.length; i++) {
+            String[] cols = lines[i].trim().split("\\s+");
+            if (cols.length < 4) {
+                continue;
+            }
+            int flags;
+            try {
+                flags = Integer.decode(cols[2]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if ((flags & ATF_COM) != 0 && !EMPTY_MAC.equals(cols[3])) {
+                neighbors.put(cols[0], cols[3]);
+            }
+        }
+        return neighbors;
+    }
+
+    // /proc/net/route stores addresses as host-order (little-endian) hex
+    private static String hexToIpv4(String hex) {
+        long value = Long.parseLong(hex, 16);
+        return (value & 0xff) + "." + ((value >> 8) & 0xff) + "." + ((value >> 16) & 0xff) + "." + ((value >> 24) & 0xff);
+    }
+}
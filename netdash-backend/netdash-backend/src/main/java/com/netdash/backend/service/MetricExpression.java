@@ -0,0 +1,168 @@
+package com.netdash.backend.service;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Arithmetic over named metric values (+ - * / and parentheses), parsed once and evaluated
+ * per poll. Used by SNMP profiles for derived metrics such as used * allocationUnits / 1048576.
+ */
+public final class MetricExpression {
+
+    private interface Node {
+        Double eval(Map<String, Double> values);
+    }
+
+    private final String source;
+    private final Node root;
+    private final Set<String> variables = new LinkedHashSet<>();
+
+    private String text;
+    private int pos;
+
+    private MetricExpression(String source) {
+        this.source = source;
+        this.text = source;
+        this.root = parseSum();
+        skipSpaces();
+        if (pos != text.length()) {
+            throw error("Unexpected '" + text.charAt(pos) + "'");
+        }
+        this.text = null;
+    }
+
+    public static MetricExpression parse(String source) {
+        if (source == null || source.isBlank()) {
+            throw new IllegalArgumentException("Empty metric expression");
+        }
+        return new MetricExpression(source);
+    }
+
+    /**
+     * Returns null if a referenced metric is missing or the result is not finite.
+     */
+    public Double evaluate(Map<String, Double> values) {
+        Double result = root.eval(values);
+        return result == null || result.isNaN() || result.isInfinite() ? null : result;
+    }
+
+    public Set<String> getVariables() {
+        return variables;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private Node parseSum() {
+        Node left = parseProduct();
+        while (true) {
+            skipSpaces();
+            if (accept('+')) {
+                Node l = left, r = parseProduct();
+                left = v -> combine(l.eval(v), r.eval(v), '+');
+            } else if (accept('-')) {
+                Node l = left, r = parseProduct();
+                left = v -> combine(l.eval(v), r.eval(v), '-');
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node parseProduct() {
+        Node left = parseUnary();
+        while (true) {
+            skipSpaces();
+            if (accept('*')) {
+                Node l = left, r = parseUnary();
+                left = v -> combine(l.eval(v), r.eval(v), '*');
+            } else if (accept('/')) {
+                Node l = left, r = parseUnary();
+                left = v -> combine(l.eval(v), r.eval(v), '/');
+            } else {
+                return left;
+            }
+        }
+    }
+
+    private Node parseUnary() {
+        skipSpaces();
+        if (accept('-')) {
+            Node operand = parseUnary();
+            return v -> {
+                Double x = operand.eval(v);
+                return x == null ? null : -x;
+            };
+        }
+        return parsePrimary();
+    }
+
+    private Node parsePrimary() {
+        skipSpaces();
+        if (accept('(')) {
+            Node inner = parseSum();
+            skipSpaces();
+            if (!accept(')')) {
+                throw error("Missing ')'");
+            }
+            return inner;
+        }
+
+        int start = pos;
+        if (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.')) {
+            while (pos < text.length() && (Character.isDigit(text.charAt(pos)) || text.charAt(pos) == '.'
+                    || text.charAt(pos) == 'e' || text.charAt(pos) == 'E')) {
+                pos++;
+            }
+            double constant;
+            try {
+                constant = Double.parseDouble(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("Bad number '" + text.substring(start, pos) + "'");
+            }
+            return v -> constant;
+        }
+        if (pos < text.length() && Character.isJavaIdentifierStart(text.charAt(pos))) {
+            while (pos < text.length() && Character.isJavaIdentifierPart(text.charAt(pos))) {
+                pos++;
+            }
+            String name = text.substring(start, pos);
+            variables.add(name);
+            return v -> v.get(name);
+        }
+        throw error(pos < text.length() ? "Unexpected '" + text.charAt(pos) + "'" : "Unexpected end");
+    }
+
+    private static Double combine(Double a, Double b, char op) {
+        if (a == null || b == null) {
+            return null;
+        }
+        switch (op) {
+            case '+': return a + b;
+            case '-': return a - b;
+            case '*': return a * b;
+            default: return b == 0 ? null : a / b;
+        }
+    }
+
+    private boolean accept(char c) {
+        if (pos < text.length() && text.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos + " in expression: " + source);
+    }
+}
@@ -0,0 +1,42 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.MetricSample;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process fan-out of live metric samples from the pollers to stream consumers
+ * (alerting, rollups). Subscribers run on the publishing thread and must stay cheap.
+ */
+@Component
+public class MetricFeed {
+    private static final Logger logger = LoggerFactory.getLogger(MetricFeed.class);
+
+    private final List<Consumer<MetricSample>> subscribers = new CopyOnWriteArrayList<>();
+
+    public void subscribe(Consumer<MetricSample> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void publish(String deviceId, String metric, double value) {
+        publish(new MetricSample(deviceId, metric, value, System.currentTimeMillis()));
+    }
+
+    public void publish(MetricSample sample) {
+        if (sample.getDeviceId() == null) {
+            return;
+        }
+        for (Consumer<MetricSample> subscriber : subscribers) {
+            try {
+                subscriber.accept(sample);
+            } catch (Exception e) {
+                logger.error("Metric subscriber failed for device id={}: {}", sample.getDeviceId(), e.getMessage());
+            }
+        }
+    }
+}
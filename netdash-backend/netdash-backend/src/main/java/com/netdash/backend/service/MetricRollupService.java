@@ -0,0 +1,381 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.MetricRollup;
+import com.netdash.backend.model.MetricSample;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Continuous 1m/5m/1h rollups of the live metric feed.
+ * Raw samples only ever update the open 1-minute bucket; when a bucket closes it is persisted and
+ * merged into the enclosing 5-minute bucket, which in turn merges into the hourly one. Percentiles
+ * come from mergeable sketches, so coarser tiers stay exact up to the sketch's relative error.
+ * Each tier lives in its own collection with a TTL index for retention.
+ */
+@Service
+@Lazy(false)
+public class MetricRollupService implements MetricStore {
+    private static final Logger logger = LoggerFactory.getLogger(MetricRollupService.class);
+
+    public static final String[] TIERS = {"1m", "5m", "1h"};
+    private static final long[] TIER_MILLIS = {60_000L, 300_000L, 3_600_000L};
+    private static final long CLOSE_GRACE_MILLIS = 5_000L;
+    private static final int MAX_UNFLUSHED = 200_000;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MetricFeed metricFeed;
+
+    @Value("${netdash.metrics.store:mongo}")
+    private String store;
+
+    @Value("${netdash.rollups.retention-hours.1m:48}")
+    private long retentionHours1m;
+
+    @Value("${netdash.rollups.retention-hours.5m:336}")
+    private long retentionHours5m;
+
+    @Value("${netdash.rollups.retention-hours.1h:9600}")
+    private long retentionHours1h;
+
+    @Value("${netdash.rollups.flush-interval-ms:15000}")
+    private long flushIntervalMs;
+
+    @Value("${netdash.rollups.max-points:500}")
+    private int defaultMaxPoints;
+
+    private final ConcurrentHashMap<String, Series> series = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<MetricRollup> closedBuckets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unflushed = new AtomicInteger();
+    private final Set<String> indexedCollections = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService scheduler;
+
+    static final class Bucket {
+        final long start;
+        long count;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum;
+        final QuantileSketch sketch = new QuantileSketch();
+
+        Bucket(long start) {
+            this.start = start;
+        }
+
+        void add(double value) {
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            sketch.add(value);
+        }
+
+        void merge(Bucket other) {
+            count += other.count;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            sum += other.sum;
+            sketch.merge(other.sketch);
+        }
+    }
+
+    private static final class Series {
+        final String deviceId;
+        final String metric;
+        final Bucket[] open = new Bucket[TIERS.length];
+        boolean removed; // set under the lock when the sweep drops this series from the map
+
+        Series(String deviceId, String metric) {
+            this.deviceId = deviceId;
+            this.metric = metric;
+        }
+
+        boolean isIdle() {
+            for (Bucket bucket : open) {
+                if (bucket != null) return false;
+            }
+            return true;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!MetricStores.MONGO.equals(store)) {
+            return;
+        }
+        metricFeed.subscribe(this::onSample);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metric-rollups");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepAndFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        flush();
+    }
+
+    private void onSample(MetricSample sample) {
+        String key = sample.getDeviceId() + "|" + sample.getMetric();
+        long start = floor(sample.getTimestamp(), 0);
+        while (!addTo(series.computeIfAbsent(key, k -> new Series(sample.getDeviceId(), sample.getMetric())), key, start, sample)) {
+            // The sweep dropped the series between lookup and lock; the next lookup creates a fresh one
+        }
+    }
+
+    private boolean addTo(Series s, String key, long start, MetricSample sample) {
+        synchronized (s) {
+            if (s.removed) {
+                return false;
+            }
+            Bucket bucket = s.open[0];
+            if (bucket != null && start < bucket.start) {
+                logger.debug("Dropping late sample for {} at {}", key, sample.getTimestamp());
+                return true;
+            }
+            if (bucket != null && start > bucket.start) {
+                close(s, 0);
+            }
+            if (s.open[0] == null) {
+                s.open[0] = new Bucket(start);
+            }
+            s.open[0].add(sample.getValue());
+            return true;
+        }
+    }
+
+    // Caller holds the series lock
+    private void close(Series s, int tier) {
+        Bucket bucket = s.open[tier];
+        s.open[tier] = null;
+        if (unflushed.incrementAndGet() <= MAX_UNFLUSHED) {
+            closedBuckets.add(toRollup(s.deviceId, s.metric, TIERS[tier], bucket));
+        } else {
+            unflushed.decrementAndGet();
+            logger.warn("Rollup backlog full, dropping {} bucket for device id={}", TIERS[tier], s.deviceId);
+        }
+
+        int parentTier = tier + 1;
+        if (parentTier < TIERS.length) {
+            long parentStart = floor(bucket.start, parentTier);
+            Bucket parent = s.open[parentTier];
+            if (parent != null && parent.start != parentStart) {
+                close(s, parentTier);
+                parent = null;
+            }
+            if (parent == null) {
+                parent = new Bucket(parentStart);
+                s.open[parentTier] = parent;
+            }
+            parent.merge(bucket);
+        }
+    }
+
+    private void sweepAndFlush() {
+        try {
+            long now = System.currentTimeMillis();
+            series.values().forEach(s -> {
+                synchronized (s) {
+                    for (int tier = 0; tier < TIERS.length; tier++) {
+                        Bucket bucket = s.open[tier];
+                        if (bucket != null && bucket.start + TIER_MILLIS[tier] + CLOSE_GRACE_MILLIS <= now) {
+                            close(s, tier);
+                        }
+                    }
+                }
+            });
+            // Removed under the series lock, and only if still mapped, so a concurrent sample either
+            // lands before the removal (series not idle) or sees removed and retries on a new series
+            series.forEach((key, s) -> {
+                synchronized (s) {
+                    if (s.isIdle()) {
+                        s.removed = true;
+                        series.remove(key, s);
+                    }
+                }
+            });
+            flush();
+        } catch (Exception e) {
+            logger.error("Rollup flush failed: {}", e.getMessage());
+        }
+    }
+
+    private void flush() {
+        Map<String, List<MetricRollup>> byTier = new HashMap<>();
+        MetricRollup rollup;
+        while ((rollup = closedBuckets.poll()) != null) {
+            unflushed.decrementAndGet();
+            byTier.computeIfAbsent(rollup.getTier(), k -> new ArrayList<>()).add(rollup);
+        }
+        byTier.forEach((tier, rollups) -> {
+            String collection = collectionFor(tier);
+            try {
+                ensureIndexes(tier, collection);
+                mongoTemplate.insert(rollups, collection);
+                logger.debug("Persisted {} {} rollups", rollups.size(), tier);
+            } catch (RuntimeException e) {
+                rollups.forEach(r -> {
+                    if (unflushed.incrementAndGet() <= MAX_UNFLUSHED) {
+                        closedBuckets.add(r);
+                    } else {
+                        unflushed.decrementAndGet();
+                    }
+                });
+                throw e;
+            }
+        });
+    }
+
+    private void ensureIndexes(String tier, String collection) {
+        if (indexedCollections.contains(collection)) {
+            return;
+        }
+        mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                .on("deviceId", Sort.Direction.ASC)
+                .on("metric", Sort.Direction.ASC)
+                .on("bucketStart", Sort.Direction.ASC));
+        mongoTemplate.indexOps(collection).ensureIndex(new Index()
+                .on("bucketStart", Sort.Direction.ASC)
+                .named("bucketStart_ttl")
+                .expire(retentionFor(tier)));
+        indexedCollections.add(collection);
+    }
+
+    /**
+     * Picks the finest tier that answers the range within maxPoints and still retains its start.
+     */
+    @Override
+    public String chooseTier(String deviceId, String metric, Instant from, Instant to, Integer maxPoints) {
+        int limit = maxPoints != null ? maxPoints : defaultMaxPoints;
+        long rangeMillis = Math.max(1, Duration.between(from, to).toMillis());
+        Instant now = Instant.now();
+        for (int tier = 0; tier < TIERS.length; tier++) {
+            boolean fits = rangeMillis / TIER_MILLIS[tier] <= limit;
+            boolean retained = !from.isBefore(now.minus(retentionFor(TIERS[tier])));
+            if (fits && retained) {
+                return TIERS[tier];
+            }
+        }
+        return TIERS[TIERS.length - 1];
+    }
+
+    @Override
+    public List<MetricRollup> history(String deviceId, String metric, Instant from, Instant to, String tier) {
+        Query query = Query.query(where("deviceId").is(deviceId)
+                        .and("metric").is(metric)
+                        .and("bucketStart").gte(from).lt(to))
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart"));
+        List<MetricRollup> points = new ArrayList<>(mongoTemplate.find(query, MetricRollup.class, collectionFor(tier)));
+
+        // The still-open bucket hasn't been persisted yet but is the freshest point
+        int tierIndex = indexOf(tier);
+        Series s = series.get(deviceId + "|" + metric);
+        if (s != null) {
+            synchronized (s) {
+                Bucket open = s.open[tierIndex];
+                if (open != null && open.start >= from.toEpochMilli() && open.start < to.toEpochMilli()) {
+                    points.add(toRollup(s.deviceId, s.metric, tier, open));
+                }
+            }
+        }
+        return points;
+    }
+
+    /**
+     * Streams persisted buckets of one tier straight from a cursor, for exports.
+     * deviceId and metric are optional; the caller must close the stream.
+     */
+    @Override
+    public Stream<MetricRollup> streamHistory(String deviceId, String metric, Instant from, Instant to,
+                                              String tier, int batchSize) {
+        indexOf(tier);
+        Criteria criteria = where("bucketStart").gte(from).lt(to);
+        if (deviceId != null) criteria = criteria.and("deviceId").is(deviceId);
+        if (metric != null) criteria = criteria.and("metric").is(metric);
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "bucketStart"))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, MetricRollup.class, collectionFor(tier));
+    }
+
+    static MetricRollup toRollup(String deviceId, String metric, String tier, Bucket bucket) {
+        MetricRollup rollup = new MetricRollup();
+        rollup.setDeviceId(deviceId);
+        rollup.setMetric(metric);
+        rollup.setTier(tier);
+        rollup.setBucketStart(Instant.ofEpochMilli(bucket.start));
+        rollup.setCount(bucket.count);
+        rollup.setMin(bucket.min);
+        rollup.setMax(bucket.max);
+        rollup.setSum(bucket.sum);
+        rollup.setAvg(bucket.sum / bucket.count);
+        rollup.setP95(bucket.sketch.quantile(0.95));
+        rollup.setSketchBins(bucket.sketch.getBins());
+        rollup.setSketchCounts(bucket.sketch.getCounts());
+        rollup.setSketchZeroCount(bucket.sketch.getZeroCount());
+        return rollup;
+    }
+
+    private Duration retentionFor(String tier) {
+        switch (tier) {
+            case "1m": return Duration.ofHours(retentionHours1m);
+            case "5m": return Duration.ofHours(retentionHours5m);
+            default: return Duration.ofHours(retentionHours1h);
+        }
+    }
+
+    private static String collectionFor(String tier) {
+        return "metric_rollup_" + tier;
+    }
+
+    static long tierMillis(String tier) {
+        return TIER_MILLIS[indexOf(tier)];
+    }
+
+    private static int indexOf(String tier) {
+        for (int i = 0; i < TIERS.length; i++) {
+            if (TIERS[i].equals(tier)) return i;
+        }
+        throw new IllegalArgumentException("Unknown rollup tier: " + tier);
+    }
+
+    private static long floor(long timestamp, int tier) {
+        return timestamp - Math.floorMod(timestamp, TIER_MILLIS[tier]);
+    }
+}
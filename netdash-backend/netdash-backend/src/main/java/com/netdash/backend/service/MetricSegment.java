@@ -0,0 +1,199 @@
+package com.netdash.backend.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * One append-only, memory-mapped segment file of the metric store.
+ *
+ * Layout: a 16-byte header (magic NDS1, format version, creation time) followed by records of
+ * [payload length int][type byte][payload][CRC32 of type + payload]. The CRC is written last,
+ * so a record torn by a crash fails the check; {@link #open} stops at the first such record
+ * and appends from there, which is the whole recovery procedure.
+ *
+ * Record types: SERIES declares a series id for this segment (id, device id, metric) and BLOCK
+ * holds one compressed block (series id, sample count, first and last timestamp, bits).
+ * Segments are self-describing, so dropping old ones for retention is just deleting files.
+ */
+public class MetricSegment {
+
+    public static final byte SERIES = 1;
+    public static final byte BLOCK = 2;
+
+    private static final int MAGIC = 0x4E445331; // "NDS1"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_OVERHEAD = 9;
+    static final int BLOCK_HEADER_BYTES = 24;
+
+    public interface RecordVisitor {
+        void visit(MetricSegment segment, byte type, int payloadOffset, int payloadLength);
+    }
+
+    private final Path file;
+    private final long createdAt;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private volatile int end;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+
+    private MetricSegment(Path file, long createdAt, FileChannel channel, MappedByteBuffer buffer, int end) {
+        this.file = file;
+        this.createdAt = createdAt;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.end = end;
+    }
+
+    public static MetricSegment create(Path file, int capacity, long createdAt) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT);
+        buffer.putLong(8, createdAt);
+        return new MetricSegment(file, createdAt, channel, buffer, HEADER_BYTES);
+    }
+
+    /**
+     * Maps an existing segment and replays its valid records in order, up to the first missing
+     * or invalid one.
+     */
+    public static MetricSegment open(Path file, RecordVisitor visitor) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Not a metric segment: " + file);
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+            channel.close();
+            throw new IOException("Not a metric segment (bad magic or format): " + file);
+        }
+
+        MetricSegment segment = new MetricSegment(file, buffer.getLong(8), channel, buffer, HEADER_BYTES);
+        int position = HEADER_BYTES;
+        while (position + RECORD_OVERHEAD <= segment.capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > segment.capacity - position - RECORD_OVERHEAD) {
+                break;
+            }
+            byte type = buffer.get(position + 4);
+            int stored = buffer.getInt(position + 5 + length);
+            if (stored != segment.crc(position + 4, length + 1)) {
+                break;
+            }
+            if (type == BLOCK) {
+                segment.lastTimestamp = Math.max(segment.lastTimestamp, buffer.getLong(position + 5 + 16));
+            }
+            visitor.visit(segment, type, position + 5, length);
+            position += RECORD_OVERHEAD + length;
+        }
+
+        if (position + 4 <= segment.capacity) {
+            buffer.putInt(position, 0); // a torn record, if any, now reads as the end
+        }
+        segment.end = position;
+        return segment;
+    }
+
+    public static byte[] seriesPayload(int seriesId, String deviceId, String metric) {
+        byte[] device = deviceId.getBytes(StandardCharsets.UTF_8);
+        byte[] name = metric.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(4 + 2 + device.length + 2 + name.length);
+        payload.putInt(seriesId).putShort((short) device.length).put(device).putShort((short) name.length).put(name);
+        return payload.array();
+    }
+
+    public static byte[] blockPayload(int seriesId, TimeSeriesBlock.Encoder encoder) {
+        byte[] bits = encoder.toByteArray();
+        ByteBuffer payload = ByteBuffer.allocate(BLOCK_HEADER_BYTES + bits.length);
+        payload.putInt(seriesId).putInt(encoder.getCount())
+                .putLong(encoder.getFirstTimestamp()).putLong(encoder.getLastTimestamp()).put(bits);
+        return payload.array();
+    }
+
+    /**
+     * Appends a record and returns its payload offset, or -1 if the segment is full.
+     * Not thread-safe; the store serialises appends.
+     */
+    public int append(byte type, byte[] payload) {
+        int position = end;
+        if (position + RECORD_OVERHEAD + payload.length > capacity) {
+            return -1;
+        }
+        buffer.put(position + 4, type);
+        buffer.put(position + 5, payload, 0, payload.length);
+        buffer.putInt(position, payload.length);
+        buffer.putInt(position + 5 + payload.length, crc(position + 4, payload.length + 1));
+        end = position + RECORD_OVERHEAD + payload.length;
+        if (type == BLOCK) {
+            lastTimestamp = Math.max(lastTimestamp, ByteBuffer.wrap(payload).getLong(16));
+        }
+        return position + 5;
+    }
+
+    public int readInt(int offset) {
+        return buffer.getInt(offset);
+    }
+
+    public long readLong(int offset) {
+        return buffer.getLong(offset);
+    }
+
+    public String readString(int offset) {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 2, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Offset just past a string written by {@link #seriesPayload}.
+     */
+    public int skipString(int offset) {
+        return offset + 2 + Short.toUnsignedInt(buffer.getShort(offset));
+    }
+
+    public void read(int offset, byte[] target, int length) {
+        buffer.get(offset, target, 0, length);
+    }
+
+    /**
+     * Flushes written records to disk.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    public void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    public Path getFile() { return file; }
+    public long getCreatedAt() { return createdAt; }
+    public int getEnd() { return end; }
+    public long getLastTimestamp() { return lastTimestamp; }
+
+    private int crc(int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,27 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.MetricRollup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Where metric history is kept and queried from. Points are returned as rollup buckets of the
+ * chosen tier either way; see MetricStores for how the backend is picked.
+ */
+public interface MetricStore {
+
+    /**
+     * Picks the tier used to answer a history query of about maxPoints points (null for the default).
+     */
+    String chooseTier(String deviceId, String metric, Instant from, Instant to, Integer maxPoints);
+
+    List<MetricRollup> history(String deviceId, String metric, Instant from, Instant to, String tier);
+
+    /**
+     * Streams points for exports; deviceId and metric are optional and the caller must close the stream.
+     */
+    Stream<MetricRollup> streamHistory(String deviceId, String metric, Instant from, Instant to,
+                                       String tier, int batchSize);
+}
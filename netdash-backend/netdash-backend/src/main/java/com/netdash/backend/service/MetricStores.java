@@ -0,0 +1,37 @@
+package com.netdash.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Selects the metric history backend: "mongo" keeps 1m/5m/1h rollups in MongoDB collections,
+ * "segment" keeps raw samples in the embedded segment store under netdash.segments.dir.
+ * Only the selected store consumes the metric feed.
+ */
+@Component
+public class MetricStores {
+
+    public static final String MONGO = "mongo";
+    public static final String SEGMENT = "segment";
+
+    @Value("${netdash.metrics.store:mongo}")
+    private String store;
+
+    @Autowired
+    private MetricRollupService metricRollupService;
+
+    @Autowired
+    private SegmentMetricStore segmentMetricStore;
+
+    public MetricStore active() {
+        return SEGMENT.equals(store) ? segmentMetricStore : metricRollupService;
+    }
+
+    /**
+     * Whether history can be exported at the "raw" tier (only the segment store keeps raw samples).
+     */
+    public boolean supportsRaw() {
+        return SEGMENT.equals(store);
+    }
+}
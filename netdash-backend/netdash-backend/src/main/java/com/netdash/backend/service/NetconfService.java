@@ -16,6 +16,12 @@ public class NetconfService {
     @Autowired
     private DeviceRepository deviceRepository;
 
+    @Autowired
+    private CoalescingDeviceWriter deviceWriter;
+
+    @Autowired
+    private MetricFeed metricFeed;
+
     public void configureDevice(Device device, Map<String, String> config) {
         if (device != null && config != null) {
             try {
@@ -40,7 +46,9 @@ public class NetconfService {
             // Simulate NETCONF status (e.g., CPU 50%, Memory 30% with variation)
             device.setCpuUsage(50.0 + Math.random() * 10);
             device.setMemoryUsage(30.0 + Math.random() * 10);
-            deviceRepository.save(device);
+            deviceWriter.submit(device.getId(), Map.of("cpuUsage", device.getCpuUsage(), "memoryUsage", device.getMemoryUsage()));
+            metricFeed.publish(device.getId(), "cpuUsage", device.getCpuUsage());
+            metricFeed.publish(device.getId(), "memoryUsage", device.getMemoryUsage());
             logger.debug("NETCONF status updated for device: {}", device.getName());
         }
     }
@@ -0,0 +1,105 @@
+package com.netdash.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with bounded relative error (DDSketch-style log buckets).
+ * Values are counted in geometrically growing bins, so any quantile is returned within
+ * {@code relativeAccuracy} of the true value, and two sketches merge by adding bin counts.
+ * Bins are kept sparse (sorted index/count arrays) since a rollup bucket usually touches few of them.
+ */
+public class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    private static final double MIN_INDEXABLE = 1e-9;
+
+    private final double gamma;
+    private final double logGamma;
+    private int[] bins = new int[8];
+    private long[] counts = new long[8];
+    private int size;
+    private long zeroCount;
+    private long count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /** Rebuilds a sketch from its persisted form. */
+    public QuantileSketch(int[] bins, long[] counts, long zeroCount) {
+        this();
+        this.bins = Arrays.copyOf(bins, Math.max(bins.length, 8));
+        this.counts = Arrays.copyOf(counts, Math.max(counts.length, 8));
+        this.size = bins.length;
+        this.zeroCount = zeroCount;
+        this.count = zeroCount;
+        for (long c : counts) {
+            this.count += c;
+        }
+    }
+
+    /** Adds a non-negative value; negative values are clamped to zero (metrics here are gauges/rates). */
+    public void add(double value) {
+        if (value <= MIN_INDEXABLE) {
+            zeroCount++;
+        } else {
+            increment((int) Math.ceil(Math.log(value) / logGamma), 1);
+        }
+        count++;
+    }
+
+    public void merge(QuantileSketch other) {
+        for (int i = 0; i < other.size; i++) {
+            increment(other.bins[i], other.counts[i]);
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+    }
+
+    public double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.ceil(q * count);
+        long seen = zeroCount;
+        if (rank <= seen) {
+            return 0.0;
+        }
+        for (int i = 0; i < size; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Midpoint of the bin (gamma^(k-1), gamma^k] in relative terms
+                return 2 * Math.pow(gamma, bins[i]) / (gamma + 1);
+            }
+        }
+        return 2 * Math.pow(gamma, bins[size - 1]) / (gamma + 1);
+    }
+
+    public long getCount() { return count; }
+    public long getZeroCount() { return zeroCount; }
+    public int[] getBins() { return Arrays.copyOf(bins, size); }
+    public long[] getCounts() { return Arrays.copyOf(counts, size); }
+
+    private void increment(int bin, long n) {
+        int pos = Arrays.binarySearch(bins, 0, size, bin);
+        if (pos >= 0) {
+            counts[pos] += n;
+            return;
+        }
+        pos = -pos - 1;
+        if (size == bins.length) {
+            bins = Arrays.copyOf(bins, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(bins, pos, bins, pos + 1, size - pos);
+        System.arraycopy(counts, pos, counts, pos + 1, size - pos);
+        bins[pos] = bin;
+        counts[pos] = n;
+        size++;
+    }
+}
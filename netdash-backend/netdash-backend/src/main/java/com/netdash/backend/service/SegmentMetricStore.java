@@ -0,0 +1,532 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.MetricRollup;
+import com.netdash.backend.model.MetricSample;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Embedded metric store: raw samples from the metric feed, compressed per series into
+ * Gorilla blocks (TimeSeriesBlock) and appended to memory-mapped segment files
+ * (MetricSegment). The in-memory index maps device -> metric -> blocks, so a range query
+ * only decodes the blocks overlapping the range. History is served raw when it fits within
+ * maxPoints, otherwise bucketed into the usual 1m/5m/1h rollups at read time.
+ *
+ * A series' newest samples sit in an open block in memory until it is full or older than
+ * max-block-age, so a crash loses at most that much; everything sealed is recovered on
+ * startup by replaying the segments up to the first torn record.
+ */
+@Service
+@Lazy(false)
+public class SegmentMetricStore implements MetricStore {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentMetricStore.class);
+
+    public static final String RAW = "raw";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    @Autowired
+    private MetricFeed metricFeed;
+
+    @Value("${netdash.metrics.store:mongo}")
+    private String store;
+
+    @Value("${netdash.segments.dir:data/metrics}")
+    private String directory;
+
+    @Value("${netdash.segments.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${netdash.segments.block-samples:240}")
+    private int blockSamples;
+
+    @Value("${netdash.segments.max-block-age-ms:300000}")
+    private long maxBlockAgeMs;
+
+    @Value("${netdash.segments.flush-interval-ms:10000}")
+    private long flushIntervalMs;
+
+    @Value("${netdash.segments.retention-hours:336}")
+    private long retentionHours;
+
+    @Value("${netdash.rollups.max-points:500}")
+    private int defaultMaxPoints;
+
+    // device id -> metric -> series: the per-device index
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Series>> devices = new ConcurrentHashMap<>();
+    private final Object appendLock = new Object();
+    private final List<MetricSegment> segments = new CopyOnWriteArrayList<>();
+    private final Set<Integer> declaredInActive = new HashSet<>();
+    private MetricSegment active;
+    private final AtomicInteger nextSeriesId = new AtomicInteger();
+    private Path root;
+    private ScheduledExecutorService scheduler;
+
+    private static final class BlockRef {
+        final MetricSegment segment;
+        final int offset;
+        final int length;
+        final int count;
+        final long first;
+        final long last;
+
+        BlockRef(MetricSegment segment, int offset, int length, int count, long first, long last) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.count = count;
+            this.first = first;
+            this.last = last;
+        }
+    }
+
+    private static final class Series {
+        final int id;
+        final String deviceId;
+        final String metric;
+        final List<BlockRef> blocks = new ArrayList<>(); // in time order
+        TimeSeriesBlock.Encoder open;
+        long openedAt;
+        long lastTimestamp = Long.MIN_VALUE;
+
+        Series(int id, String deviceId, String metric) {
+            this.id = id;
+            this.deviceId = deviceId;
+            this.metric = metric;
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!MetricStores.SEGMENT.equals(store)) {
+            return;
+        }
+        open(Paths.get(directory));
+        metricFeed.subscribe(this::append);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metric-segments");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintain, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        close();
+    }
+
+    /**
+     * Opens the store in dir, rebuilding the index from the segments already there.
+     */
+    void open(Path dir) throws IOException {
+        root = dir;
+        Files.createDirectories(dir);
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null); // names embed the zero-padded creation time
+
+        Map<Integer, Series> byId = new HashMap<>();
+        long blocks = 0;
+        for (Path file : files) {
+            try {
+                MetricSegment segment = MetricSegment.open(file, (seg, type, offset, length) -> recover(byId, seg, type, offset, length));
+                segments.add(segment);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Skipping unreadable metric segment {}: {}", file, e.getMessage());
+            }
+        }
+        for (Series s : byId.values()) {
+            nextSeriesId.accumulateAndGet(s.id + 1, Math::max);
+            blocks += s.blocks.size();
+        }
+        synchronized (appendLock) {
+            active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        }
+        logger.info("Metric segment store at {}: {} segments, {} series, {} blocks recovered",
+                dir.toAbsolutePath(), segments.size(), byId.size(), blocks);
+    }
+
+    private void recover(Map<Integer, Series> byId, MetricSegment segment, byte type, int offset, int length) {
+        if (type == MetricSegment.SERIES) {
+            int id = segment.readInt(offset);
+            String deviceId = segment.readString(offset + 4);
+            String metric = segment.readString(segment.skipString(offset + 4));
+            byId.computeIfAbsent(id, k -> devices.computeIfAbsent(deviceId, d -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(metric, m -> new Series(id, deviceId, metric)));
+        } else if (type == MetricSegment.BLOCK) {
+            Series s = byId.get(segment.readInt(offset));
+            if (s == null) {
+                return; // its declaration was lost with a torn record
+            }
+            BlockRef ref = new BlockRef(segment, offset, length, segment.readInt(offset + 4),
+                    segment.readLong(offset + 8), segment.readLong(offset + 16));
+            s.blocks.add(ref);
+            s.lastTimestamp = Math.max(s.lastTimestamp, ref.last);
+        }
+    }
+
+    void close() throws IOException {
+        for (ConcurrentHashMap<String, Series> metrics : devices.values()) {
+            for (Series s : metrics.values()) {
+                synchronized (s) {
+                    sealLocked(s);
+                }
+            }
+        }
+        for (MetricSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    void append(MetricSample sample) {
+        Series s = series(sample.getDeviceId(), sample.getMetric());
+        synchronized (s) {
+            if (sample.getTimestamp() < s.lastTimestamp) {
+                logger.debug("Dropping late sample for {}|{} at {}", s.deviceId, s.metric, sample.getTimestamp());
+                return;
+            }
+            if (s.open == null) {
+                s.open = new TimeSeriesBlock.Encoder();
+                s.openedAt = System.currentTimeMillis();
+            }
+            s.open.add(sample.getTimestamp(), sample.getValue());
+            s.lastTimestamp = sample.getTimestamp();
+            if (s.open.getCount() >= blockSamples) {
+                sealLocked(s);
+            }
+        }
+    }
+
+    private Series series(String deviceId, String metric) {
+        return devices.computeIfAbsent(deviceId, d -> new ConcurrentHashMap<>())
+                .computeIfAbsent(metric, m -> new Series(nextSeriesId.getAndIncrement(), deviceId, metric));
+    }
+
+    // Writes the open block out; caller holds the series lock (lock order: series, then append)
+    private void sealLocked(Series s) {
+        TimeSeriesBlock.Encoder block = s.open;
+        if (block == null) {
+            return;
+        }
+        byte[] payload = MetricSegment.blockPayload(s.id, block);
+        synchronized (appendLock) {
+            try {
+                int offset = appendLocked(s, payload);
+                s.blocks.add(new BlockRef(active, offset, payload.length, block.getCount(),
+                        block.getFirstTimestamp(), block.getLastTimestamp()));
+                s.open = null;
+            } catch (IOException e) {
+                // Keep the block open; it is retried on the next seal
+                logger.error("Failed to append metric block for device id={}: {}", s.deviceId, e.getMessage());
+            }
+        }
+    }
+
+    private int appendLocked(Series s, byte[] payload) throws IOException {
+        for (int attempt = 0; attempt < 2; attempt++) {
+            if (active == null) {
+                roll();
+            }
+            if (!declaredInActive.contains(s.id)) {
+                if (active.append(MetricSegment.SERIES, MetricSegment.seriesPayload(s.id, s.deviceId, s.metric)) < 0) {
+                    roll();
+                    continue;
+                }
+                declaredInActive.add(s.id);
+            }
+            int offset = active.append(MetricSegment.BLOCK, payload);
+            if (offset >= 0) {
+                return offset;
+            }
+            roll();
+        }
+        throw new IOException("Metric block of " + payload.length + " bytes does not fit in a segment");
+    }
+
+    private void roll() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        long createdAt = System.currentTimeMillis();
+        if (active != null) {
+            createdAt = Math.max(createdAt, active.getCreatedAt() + 1);
+        }
+        Path file = root.resolve(String.format("%s%015d%s", SEGMENT_PREFIX, createdAt, SEGMENT_SUFFIX));
+        active = MetricSegment.create(file, segmentSizeMb * 1024 * 1024, createdAt);
+        segments.add(active);
+        declaredInActive.clear();
+        logger.debug("Rolled to metric segment {}", file.getFileName());
+    }
+
+    // Seals blocks that have been open too long, syncs the active segment and applies retention
+    private void maintain() {
+        try {
+            long now = System.currentTimeMillis();
+            for (ConcurrentHashMap<String, Series> metrics : devices.values()) {
+                for (Series s : metrics.values()) {
+                    synchronized (s) {
+                        if (s.open != null && now - s.openedAt >= maxBlockAgeMs) {
+                            sealLocked(s);
+                        }
+                    }
+                }
+            }
+            synchronized (appendLock) {
+                if (active != null) {
+                    active.force();
+                }
+            }
+            expire(now - TimeUnit.HOURS.toMillis(retentionHours));
+        } catch (Exception e) {
+            logger.error("Metric segment maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    void expire(long cutoff) throws IOException {
+        List<MetricSegment> expired = new ArrayList<>();
+        synchronized (appendLock) {
+            for (MetricSegment segment : segments) {
+                if (segment != active && segment.getLastTimestamp() < cutoff) {
+                    expired.add(segment);
+                }
+            }
+            segments.removeAll(expired);
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        Set<MetricSegment> gone = new HashSet<>(expired);
+        for (ConcurrentHashMap<String, Series> metrics : devices.values()) {
+            for (Series s : metrics.values()) {
+                synchronized (s) {
+                    s.blocks.removeIf(ref -> gone.contains(ref.segment));
+                }
+            }
+        }
+        for (MetricSegment segment : expired) {
+            segment.delete();
+            logger.info("Deleted expired metric segment {}", segment.getFile().getFileName());
+        }
+    }
+
+    @Override
+    public String chooseTier(String deviceId, String metric, Instant from, Instant to, Integer maxPoints) {
+        int limit = maxPoints != null ? maxPoints : defaultMaxPoints;
+        Series s = find(deviceId, metric);
+        if (s != null && countSamples(s, from.toEpochMilli(), to.toEpochMilli()) <= limit) {
+            return RAW;
+        }
+        long rangeMillis = Math.max(1, Duration.between(from, to).toMillis());
+        for (String tier : MetricRollupService.TIERS) {
+            if (rangeMillis / MetricRollupService.tierMillis(tier) <= limit) {
+                return tier;
+            }
+        }
+        return MetricRollupService.TIERS[MetricRollupService.TIERS.length - 1];
+    }
+
+    // Upper bound from block headers; nothing is decoded
+    private long countSamples(Series s, long from, long to) {
+        long count = 0;
+        synchronized (s) {
+            for (int i = firstBlock(s, from); i < s.blocks.size() && s.blocks.get(i).first < to; i++) {
+                count += s.blocks.get(i).count;
+            }
+            if (s.open != null && s.open.getLastTimestamp() >= from && s.open.getFirstTimestamp() < to) {
+                count += s.open.getCount();
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<MetricRollup> history(String deviceId, String metric, Instant from, Instant to, String tier) {
+        Series s = find(deviceId, metric);
+        if (s == null) {
+            return new ArrayList<>();
+        }
+        return StreamSupport.stream(new Points(s, from.toEpochMilli(), to.toEpochMilli(), tier), false)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Streams series after series (each in time order) rather than globally by time. Points are
+     * decoded one block at a time as the stream is consumed, so heap use does not grow with the range.
+     */
+    @Override
+    public Stream<MetricRollup> streamHistory(String deviceId, String metric, Instant from, Instant to,
+                                              String tier, int batchSize) {
+        List<Series> selected = new ArrayList<>();
+        Collection<ConcurrentHashMap<String, Series>> scope = deviceId == null ? devices.values()
+                : devices.containsKey(deviceId) ? List.of(devices.get(deviceId)) : List.of();
+        for (ConcurrentHashMap<String, Series> metrics : scope) {
+            for (Series s : metrics.values()) {
+                if (metric == null || metric.equals(s.metric)) {
+                    selected.add(s);
+                }
+            }
+        }
+        return selected.stream().flatMap(s -> StreamSupport.stream(
+                new Points(s, from.toEpochMilli(), to.toEpochMilli(), tier), false));
+    }
+
+    private Series find(String deviceId, String metric) {
+        Map<String, Series> metrics = devices.get(deviceId);
+        return metrics != null ? metrics.get(metric) : null;
+    }
+
+    /**
+     * The points of one series in [from, to): sealed blocks are read straight from the mapped
+     * segments, then the open block, decoding the next block only once the previous one's points
+     * have been consumed. Raw points map one-to-one; other tiers bucket at read time.
+     */
+    private final class Points extends Spliterators.AbstractSpliterator<MetricRollup> {
+        private final Series s;
+        private final long from;
+        private final long to;
+        private final String tier;
+        private final long width;
+        private final Iterator<BlockRef> refs;
+        private byte[] openBits;
+        private final int openCount;
+        private final ArrayDeque<MetricRollup> ready = new ArrayDeque<>();
+        private MetricRollupService.Bucket current;
+        private byte[] bits = new byte[0];
+
+        Points(Series s, long from, long to, String tier) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.s = s;
+            this.from = from;
+            this.to = to;
+            this.tier = tier;
+            this.width = RAW.equals(tier) ? 0 : MetricRollupService.tierMillis(tier);
+            // Only the block references are copied; the open block is small and may change after this
+            List<BlockRef> overlapping = new ArrayList<>();
+            synchronized (s) {
+                for (int i = firstBlock(s, from); i < s.blocks.size() && s.blocks.get(i).first < to; i++) {
+                    overlapping.add(s.blocks.get(i));
+                }
+                if (s.open != null && s.open.getLastTimestamp() >= from && s.open.getFirstTimestamp() < to) {
+                    openBits = s.open.toByteArray();
+                    openCount = s.open.getCount();
+                } else {
+                    openCount = 0;
+                }
+            }
+            refs = overlapping.iterator();
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super MetricRollup> action) {
+            while (ready.isEmpty()) {
+                if (refs.hasNext()) {
+                    BlockRef ref = refs.next();
+                    int length = ref.length - MetricSegment.BLOCK_HEADER_BYTES;
+                    if (bits.length < length) {
+                        bits = new byte[length];
+                    }
+                    ref.segment.read(ref.offset + MetricSegment.BLOCK_HEADER_BYTES, bits, length);
+                    TimeSeriesBlock.decode(bits, 0, length, ref.count, this::accept);
+                } else if (openBits != null) {
+                    TimeSeriesBlock.decode(openBits, 0, openBits.length, openCount, this::accept);
+                    openBits = null;
+                } else if (current != null) {
+                    ready.add(MetricRollupService.toRollup(s.deviceId, s.metric, tier, current));
+                    current = null;
+                } else {
+                    return false;
+                }
+            }
+            action.accept(ready.poll());
+            return true;
+        }
+
+        private void accept(long timestamp, double value) {
+            if (timestamp < from || timestamp >= to) {
+                return;
+            }
+            if (width == 0) {
+                MetricRollup point = new MetricRollup();
+                point.setDeviceId(s.deviceId);
+                point.setMetric(s.metric);
+                point.setTier(RAW);
+                point.setBucketStart(Instant.ofEpochMilli(timestamp));
+                point.setCount(1);
+                point.setMin(value);
+                point.setMax(value);
+                point.setSum(value);
+                point.setAvg(value);
+                point.setP95(value);
+                ready.add(point);
+                return;
+            }
+            long start = timestamp - Math.floorMod(timestamp, width);
+            if (current != null && current.start != start) {
+                ready.add(MetricRollupService.toRollup(s.deviceId, s.metric, tier, current));
+                current = null;
+            }
+            if (current == null) {
+                current = new MetricRollupService.Bucket(start);
+            }
+            current.add(value);
+        }
+    }
+
+    // Index of the first block that may contain samples at or after from; caller holds the series lock
+    private static int firstBlock(Series s, long from) {
+        int low = 0;
+        int high = s.blocks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (s.blocks.get(mid).last < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
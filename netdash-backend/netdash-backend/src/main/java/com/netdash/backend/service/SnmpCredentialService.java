@@ -0,0 +1,140 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.SnmpCredential;
+import com.netdash.backend.repository.SnmpCredentialRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.security.AuthHMAC128SHA224;
+import org.snmp4j.security.AuthHMAC192SHA256;
+import org.snmp4j.security.AuthHMAC256SHA384;
+import org.snmp4j.security.AuthHMAC384SHA512;
+import org.snmp4j.security.AuthMD5;
+import org.snmp4j.security.AuthSHA;
+import org.snmp4j.security.PrivAES128;
+import org.snmp4j.security.PrivAES192;
+import org.snmp4j.security.PrivAES256;
+import org.snmp4j.security.PrivDES;
+import org.snmp4j.smi.OID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-device SNMP credentials. Lookups happen on every poll, so results (including "none")
+ * are kept in memory briefly; local changes invalidate immediately.
+ */
+@Service
+public class SnmpCredentialService {
+    private static final Logger logger = LoggerFactory.getLogger(SnmpCredentialService.class);
+
+    private static final long CACHE_TTL_MS = 60_000;
+    private static final int MIN_PASSPHRASE_LENGTH = 8;
+
+    private static final Map<String, OID> AUTH_PROTOCOLS = Map.of(
+            "MD5", AuthMD5.ID,
+            "SHA", AuthSHA.ID,
+            "SHA224", AuthHMAC128SHA224.ID,
+            "SHA256", AuthHMAC192SHA256.ID,
+            "SHA384", AuthHMAC256SHA384.ID,
+            "SHA512", AuthHMAC384SHA512.ID);
+    private static final Map<String, OID> PRIV_PROTOCOLS = Map.of(
+            "DES", PrivDES.ID,
+            "AES128", PrivAES128.ID,
+            "AES192", PrivAES192.ID,
+            "AES256", PrivAES256.ID);
+
+    @Autowired
+    private SnmpCredentialRepository credentialRepository;
+
+    private final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+
+    private static final class Cached {
+        final SnmpCredential credential;
+        final long loadedAt = System.currentTimeMillis();
+
+        Cached(SnmpCredential credential) {
+            this.credential = credential;
+        }
+    }
+
+    /**
+     * Returns the device's credentials, or null to use the default v2c community.
+     */
+    public SnmpCredential forDevice(String deviceId) {
+        if (deviceId == null) {
+            return null;
+        }
+        Cached cached = cache.get(deviceId);
+        if (cached == null || System.currentTimeMillis() - cached.loadedAt > CACHE_TTL_MS) {
+            cached = new Cached(credentialRepository.findById(deviceId).orElse(null));
+            cache.put(deviceId, cached);
+        }
+        return cached.credential;
+    }
+
+    public Optional<SnmpCredential> find(String deviceId) {
+        return credentialRepository.findById(deviceId);
+    }
+
+    /**
+     * Validates and stores the credentials; throws IllegalArgumentException when incomplete.
+     */
+    public SnmpCredential save(String deviceId, SnmpCredential credential) {
+        validate(credential);
+        credential.setId(deviceId);
+        if (credential.isV3()) {
+            credential.setAuthProtocol(credential.getAuthProtocol().toUpperCase());
+            credential.setPrivProtocol(credential.getPrivProtocol().toUpperCase());
+        }
+        SnmpCredential saved = credentialRepository.save(credential);
+        cache.remove(deviceId);
+        logger.info("SNMP {} credentials stored for device id={}", saved.getVersion(), deviceId);
+        return saved;
+    }
+
+    public boolean delete(String deviceId) {
+        cache.remove(deviceId);
+        if (!credentialRepository.existsById(deviceId)) {
+            return false;
+        }
+        credentialRepository.deleteById(deviceId);
+        return true;
+    }
+
+    public static OID authProtocol(String name) {
+        return AUTH_PROTOCOLS.get(name.toUpperCase());
+    }
+
+    public static OID privProtocol(String name) {
+        return PRIV_PROTOCOLS.get(name.toUpperCase());
+    }
+
+    static void validate(SnmpCredential credential) {
+        if ("v2c".equalsIgnoreCase(credential.getVersion())) {
+            if (credential.getCommunity() == null || credential.getCommunity().isEmpty()) {
+                throw new IllegalArgumentException("community is required for v2c");
+            }
+            return;
+        }
+        if (!credential.isV3()) {
+            throw new IllegalArgumentException("version must be v2c or v3");
+        }
+        if (credential.getSecurityName() == null || credential.getSecurityName().isEmpty()) {
+            throw new IllegalArgumentException("securityName is required for v3");
+        }
+        if (credential.getAuthProtocol() == null || authProtocol(credential.getAuthProtocol()) == null) {
+            throw new IllegalArgumentException("authProtocol must be one of " + AUTH_PROTOCOLS.keySet());
+        }
+        if (credential.getPrivProtocol() == null || privProtocol(credential.getPrivProtocol()) == null) {
+            throw new IllegalArgumentException("privProtocol must be one of " + PRIV_PROTOCOLS.keySet());
+        }
+        if (credential.getAuthPassphrase() == null || credential.getAuthPassphrase().length() < MIN_PASSPHRASE_LENGTH
+                || credential.getPrivPassphrase() == null || credential.getPrivPassphrase().length() < MIN_PASSPHRASE_LENGTH) {
+            throw new IllegalArgumentException("authPassphrase and privPassphrase need at least "
+                    + MIN_PASSPHRASE_LENGTH + " characters (authPriv)");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.SnmpEngineState;
+import com.netdash.backend.repository.SnmpEngineStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.security.UsmTimeEntry;
+import org.snmp4j.security.UsmTimeTable;
+import org.snmp4j.smi.OctetString;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SNMPv3 authoritative engine ids, boots and time per agent address, kept in memory and
+ * persisted to Mongo. On first use after a restart the stored boots/time (advanced by the
+ * wall-clock time since it was observed) are seeded into the USM time table, so the first
+ * authPriv request is already inside the agent's time window.
+ */
+@Component
+public class SnmpEngineCache {
+    private static final Logger logger = LoggerFactory.getLogger(SnmpEngineCache.class);
+
+    // Engine time only needs persisting occasionally; boots changes are saved at once
+    private static final long PERSIST_INTERVAL_MS = 10 * 60_000;
+
+    @Autowired
+    private SnmpEngineStateRepository engineStateRepository;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+        final byte[] engineId;
+        volatile int persistedBoots;
+        volatile long persistedAt;
+
+        Entry(byte[] engineId, int persistedBoots, long persistedAt) {
+            this.engineId = engineId;
+            this.persistedBoots = persistedBoots;
+            this.persistedAt = persistedAt;
+        }
+    }
+
+    /**
+     * Returns the cached engine id for the address (loading and seeding it from Mongo the
+     * first time), or null if it has to be discovered.
+     */
+    public byte[] engineId(String address, UsmTimeTable timeTable) {
+        Entry entry = entries.get(address);
+        if (entry != null) {
+            return entry.engineId;
+        }
+        Optional<SnmpEngineState> stored = engineStateRepository.findById(address);
+        if (stored.isEmpty()) {
+            return null;
+        }
+
+        SnmpEngineState state = stored.get();
+        byte[] engineId = OctetString.fromHexString(state.getEngineId()).getValue();
+        long elapsed = Duration.between(state.getObservedAt(), Instant.now()).getSeconds();
+        long estimatedTime = state.getEngineTime() + Math.max(0, elapsed);
+        if (estimatedTime < Integer.MAX_VALUE) {
+            timeTable.addEntry(new UsmTimeEntry(new OctetString(engineId), state.getEngineBoots(), (int) estimatedTime));
+        }
+        entries.put(address, new Entry(engineId, state.getEngineBoots(), System.currentTimeMillis()));
+        logger.debug("SNMPv3 engine for {} restored from cache", address);
+        return engineId;
+    }
+
+    public void discovered(String address, byte[] engineId) {
+        entries.put(address, new Entry(engineId, -1, 0));
+        engineStateRepository.save(new SnmpEngineState(address, new OctetString(engineId).toHexString(), 0, 0, Instant.now()));
+        logger.info("SNMPv3 engine discovered for {}", address);
+    }
+
+    /**
+     * Records boots/time snmp4j learned from the latest response.
+     */
+    public void observe(String address, UsmTimeTable timeTable) {
+        Entry entry = entries.get(address);
+        if (entry == null) {
+            return;
+        }
+        UsmTimeEntry time = timeTable.getEntry(new OctetString(entry.engineId));
+        if (time == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (time.getEngineBoots() == entry.persistedBoots && now - entry.persistedAt < PERSIST_INTERVAL_MS) {
+            return;
+        }
+        // snmp4j keeps engine time as an offset from its own nanoTime-based seconds clock
+        int engineTime = time.getTimeDiff() + (int) (System.nanoTime() / 1_000_000_000L);
+        engineStateRepository.save(new SnmpEngineState(address, new OctetString(entry.engineId).toHexString(),
+                time.getEngineBoots(), engineTime, Instant.now()));
+        entry.persistedBoots = time.getEngineBoots();
+        entry.persistedAt = now;
+    }
+
+    /**
+     * Drops an engine the agent no longer answers as (e.g. the device was replaced).
+     */
+    public void forget(String address) {
+        if (entries.remove(address) != null) {
+            engineStateRepository.deleteById(address);
+            logger.info("SNMPv3 engine for {} forgotten; it will be rediscovered", address);
+        }
+    }
+}
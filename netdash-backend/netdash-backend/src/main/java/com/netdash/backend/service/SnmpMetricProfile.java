@@ -0,0 +1,332 @@
+package com.netdash.backend.service;
+
+import org.snmp4j.PDU;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.Variable;
+import org.snmp4j.smi.VariableBinding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One device type's SNMP metrics, compiled from its definition into a single request:
+ * a plain GET when every metric is a scalar, otherwise one GETBULK where the scalars ride
+ * as non-repeaters (asked for by their predecessor OID) and table columns as repeaters.
+ * Scalars the GETNEXT trick misses are fetched with one follow-up GET.
+ *
+ * Metrics are evaluated in definition order: counter rate, then scale, then value mapping;
+ * expression metrics may reference any metric defined before them.
+ */
+public class SnmpMetricProfile {
+
+    /**
+     * Profile as written in the profiles JSON.
+     */
+    public static class Definition {
+        private String name;
+        private boolean fallback;
+        private List<String> types = new ArrayList<>();
+        private List<String> sysObjectIds = new ArrayList<>();
+        private int maxRepetitions = 16;
+        private List<MetricDefinition> metrics = new ArrayList<>();
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public boolean isFallback() { return fallback; }
+        public void setFallback(boolean fallback) { this.fallback = fallback; }
+        public List<String> getTypes() { return types; }
+        public void setTypes(List<String> types) { this.types = types; }
+        public List<String> getSysObjectIds() { return sysObjectIds; }
+        public void setSysObjectIds(List<String> sysObjectIds) { this.sysObjectIds = sysObjectIds; }
+        public int getMaxRepetitions() { return maxRepetitions; }
+        public void setMaxRepetitions(int maxRepetitions) { this.maxRepetitions = maxRepetitions; }
+        public List<MetricDefinition> getMetrics() { return metrics; }
+        public void setMetrics(List<MetricDefinition> metrics) { this.metrics = metrics; }
+    }
+
+    /**
+     * Exactly one of oid (scalar instance), column (table column, aggregated over rows)
+     * or expression must be set.
+     */
+    public static class MetricDefinition {
+        private String name;
+        private String oid;
+        private String column;
+        private String aggregate = "avg";
+        private String expression;
+        private double scale = 1.0;
+        private boolean counter;
+        private int counterBits = 32;
+        private Map<String, String> values;
+        private String field;
+        private boolean internal;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getOid() { return oid; }
+        public void setOid(String oid) { this.oid = oid; }
+        public String getColumn() { return column; }
+        public void setColumn(String column) { this.column = column; }
+        public String getAggregate() { return aggregate; }
+        public void setAggregate(String aggregate) { this.aggregate = aggregate; }
+        public String getExpression() { return expression; }
+        public void setExpression(String expression) { this.expression = expression; }
+        public double getScale() { return scale; }
+        public void setScale(double scale) { this.scale = scale; }
+        public boolean isCounter() { return counter; }
+        public void setCounter(boolean counter) { this.counter = counter; }
+        public int getCounterBits() { return counterBits; }
+        public void setCounterBits(int counterBits) { this.counterBits = counterBits; }
+        public Map<String, String> getValues() { return values; }
+        public void setValues(Map<String, String> values) { this.values = values; }
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+        public boolean isInternal() { return internal; }
+        public void setInternal(boolean internal) { this.internal = internal; }
+    }
+
+    /**
+     * Values gathered during one poll, keyed by metric name.
+     */
+    public static class Readings {
+        private final Map<String, Double> numbers = new HashMap<>();
+        private final Map<String, String> texts = new HashMap<>();
+
+        public Map<String, Double> getNumbers() { return numbers; }
+        public Map<String, String> getTexts() { return texts; }
+    }
+
+    /**
+     * Previous raw counter values per device+metric, for turning counters into rates.
+     * A counter that went backwards has either wrapped or been reset (agent restart, counter
+     * clear, interface re-created). 64-bit counters never wrap in practice, and a 32-bit wrap is
+     * only believed when the implied increase is under half the counter range; anything else is
+     * a reset, which yields no rate and makes the new value the baseline.
+     */
+    public static class CounterRates {
+        private final ConcurrentHashMap<String, double[]> last = new ConcurrentHashMap<>();
+
+        Double rate(String key, double raw, int bits, long nowNanos) {
+            double[] previous = last.put(key, new double[]{raw, nowNanos});
+            if (previous == null) {
+                return null;
+            }
+            double seconds = (nowNanos - previous[1]) / 1e9;
+            if (seconds <= 0) {
+                return null;
+            }
+            double delta = raw - previous[0];
+            if (delta < 0) {
+                if (bits >= 64) {
+                    return null; // reset
+                }
+                double range = Math.pow(2, bits);
+                delta += range;
+                if (delta >= range / 2) {
+                    return null; // reset, a wrap would mean half the range counted in one interval
+                }
+            }
+            return delta / seconds;
+        }
+
+        public void forgetDevice(String deviceId) {
+            last.keySet().removeIf(key -> key.startsWith(deviceId + "|"));
+        }
+    }
+
+    private final Definition definition;
+    private final List<MetricDefinition> scalars = new ArrayList<>();
+    private final List<OID> scalarOids = new ArrayList<>();
+    private final List<MetricDefinition> columns = new ArrayList<>();
+    private final List<OID> columnOids = new ArrayList<>();
+    private final Map<String, MetricExpression> expressions = new HashMap<>();
+
+    public SnmpMetricProfile(Definition definition) {
+        if (definition.getName() == null || definition.getMetrics().isEmpty()) {
+            throw new IllegalArgumentException("SNMP profile needs a name and at least one metric");
+        }
+        this.definition = definition;
+
+        Set<String> known = new HashSet<>();
+        for (MetricDefinition metric : definition.getMetrics()) {
+            int sources = (metric.getOid() != null ? 1 : 0) + (metric.getColumn() != null ? 1 : 0)
+                    + (metric.getExpression() != null ? 1 : 0);
+            if (metric.getName() == null || sources != 1) {
+                throw new IllegalArgumentException("Profile " + definition.getName()
+                        + ": each metric needs a name and exactly one of oid, column or expression");
+            }
+            if (metric.getOid() != null) {
+                scalars.add(metric);
+                scalarOids.add(new OID(metric.getOid()));
+            } else if (metric.getColumn() != null) {
+                columns.add(metric);
+                columnOids.add(new OID(metric.getColumn()));
+            } else {
+                MetricExpression expression = MetricExpression.parse(metric.getExpression());
+                for (String variable : expression.getVariables()) {
+                    if (!known.contains(variable)) {
+                        throw new IllegalArgumentException("Profile " + definition.getName() + ": metric "
+                                + metric.getName() + " references " + variable + " before it is defined");
+                    }
+                }
+                expressions.put(metric.getName(), expression);
+            }
+            known.add(metric.getName());
+        }
+    }
+
+    public String getName() { return definition.getName(); }
+    public Definition getDefinition() { return definition; }
+
+    public List<MetricDefinition> getMetrics() {
+        return definition.getMetrics();
+    }
+
+    /**
+     * Fills an empty PDU (plain or scoped) with the poll request; use a fresh PDU each time
+     * since snmp4j stamps request ids on it.
+     */
+    public PDU request(PDU pdu) {
+        if (columns.isEmpty()) {
+            pdu.setType(PDU.GET);
+            scalarOids.forEach(oid -> pdu.add(new VariableBinding(oid)));
+            return pdu;
+        }
+        pdu.setType(PDU.GETBULK);
+        pdu.setNonRepeaters(scalarOids.size());
+        pdu.setMaxRepetitions(definition.getMaxRepetitions());
+        scalarOids.forEach(oid -> pdu.add(new VariableBinding(predecessor(oid))));
+        columnOids.forEach(oid -> pdu.add(new VariableBinding(oid)));
+        return pdu;
+    }
+
+    /**
+     * Reads a response to {@link #request(PDU)} into readings and returns the scalar OIDs that
+     * still need a plain GET (instance missing, non-single index, or an error response).
+     */
+    public List<OID> collect(PDU response, Readings readings) {
+        List<? extends VariableBinding> bindings = response.getVariableBindings();
+        if (response.getErrorStatus() != PDU.noError) {
+            return new ArrayList<>(scalarOids);
+        }
+        if (columns.isEmpty()) {
+            collectGet(response, readings);
+            return List.of();
+        }
+
+        List<OID> missing = new ArrayList<>();
+        int nonRepeaters = scalarOids.size();
+        for (int i = 0; i < nonRepeaters; i++) {
+            VariableBinding binding = i < bindings.size() ? bindings.get(i) : null;
+            if (binding != null && scalarOids.get(i).equals(binding.getOid()) && !binding.isException()) {
+                readScalar(scalars.get(i), binding.getVariable(), readings);
+            } else {
+                missing.add(scalarOids.get(i));
+            }
+        }
+
+        // Repeaters come back row by row: column 0, column 1, ..., then the next row
+        List<List<Double>> rows = new ArrayList<>();
+        columnOids.forEach(oid -> rows.add(new ArrayList<>()));
+        for (int i = nonRepeaters; i < bindings.size(); i++) {
+            int column = (i - nonRepeaters) % columnOids.size();
+            VariableBinding binding = bindings.get(i);
+            if (!binding.isException() && binding.getOid().startsWith(columnOids.get(column))) {
+                Double value = toNumber(binding.getVariable());
+                if (value != null) rows.get(column).add(value);
+            }
+        }
+        for (int c = 0; c < columns.size(); c++) {
+            Double value = aggregate(columns.get(c).getAggregate(), rows.get(c));
+            if (value != null) readings.getNumbers().put(columns.get(c).getName(), value);
+        }
+        return missing;
+    }
+
+    public PDU fallbackRequest(PDU pdu, List<OID> oids) {
+        pdu.setType(PDU.GET);
+        oids.forEach(oid -> pdu.add(new VariableBinding(oid)));
+        return pdu;
+    }
+
+    /**
+     * Reads a plain GET response, matching bindings to scalars by OID.
+     */
+    public void collectGet(PDU response, Readings readings) {
+        if (response.getErrorStatus() != PDU.noError) {
+            return;
+        }
+        for (VariableBinding binding : response.getVariableBindings()) {
+            int index = scalarOids.indexOf(binding.getOid());
+            if (index >= 0 && !binding.isException()) {
+                readScalar(scalars.get(index), binding.getVariable(), readings);
+            }
+        }
+    }
+
+    /**
+     * Applies counter rates, scaling and expressions in definition order.
+     */
+    public void derive(String deviceId, Readings readings, CounterRates rates, long nowNanos) {
+        Map<String, Double> numbers = readings.getNumbers();
+        for (MetricDefinition metric : definition.getMetrics()) {
+            MetricExpression expression = expressions.get(metric.getName());
+            Double value = expression != null ? expression.evaluate(numbers) : numbers.get(metric.getName());
+            if (value != null && metric.isCounter()) {
+                value = rates.rate(deviceId + "|" + metric.getName(), value, metric.getCounterBits(), nowNanos);
+            }
+            if (value == null) {
+                numbers.remove(metric.getName());
+            } else {
+                numbers.put(metric.getName(), value * metric.getScale());
+            }
+        }
+    }
+
+    private static void readScalar(MetricDefinition metric, Variable variable, Readings readings) {
+        if (metric.getValues() != null) {
+            String raw = variable.toString();
+            readings.getTexts().put(metric.getName(), metric.getValues().getOrDefault(raw, raw));
+            return;
+        }
+        Double value = toNumber(variable);
+        if (value != null) readings.getNumbers().put(metric.getName(), value);
+    }
+
+    private static Double toNumber(Variable variable) {
+        try {
+            return Double.parseDouble(variable.toString());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double aggregate(String mode, List<Double> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        switch (mode) {
+            case "sum": return values.stream().mapToDouble(Double::doubleValue).sum();
+            case "max": return values.stream().mapToDouble(Double::doubleValue).max().getAsDouble();
+            case "min": return values.stream().mapToDouble(Double::doubleValue).min().getAsDouble();
+            case "first": return values.get(0);
+            default: return values.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
+        }
+    }
+
+    // GETNEXT of the predecessor returns the instance itself for single-component indexes
+    private static OID predecessor(OID oid) {
+        OID previous = new OID(oid);
+        int last = previous.last();
+        previous.trim(1);
+        if (last > 0) {
+            previous.append(last - 1);
+        }
+        return previous;
+    }
+}
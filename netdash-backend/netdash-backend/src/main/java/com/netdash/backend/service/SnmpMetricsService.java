@@ -0,0 +1,161 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.PDU;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.VariableBinding;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Polls a device with its SNMP metric profile: normally one round trip per cycle, plus one
+ * GET when some scalars could not be fetched via GETBULK. Mapped fields go to the device
+ * writer and every non-internal numeric metric to the live metric feed.
+ */
+@Service
+public class SnmpMetricsService {
+    private static final Logger logger = LoggerFactory.getLogger(SnmpMetricsService.class);
+
+    private static final OID SYS_OBJECT_ID = new OID("1.3.6.1.2.1.1.2.0");
+
+    @Autowired
+    private SnmpSession snmpSession;
+
+    @Autowired
+    private SnmpProfileRegistry profileRegistry;
+
+    @Autowired
+    private CoalescingDeviceWriter deviceWriter;
+
+    @Autowired
+    private MetricFeed metricFeed;
+
+    @Autowired
+    private AdmissionControlService admissionControl;
+
+    private final SnmpMetricProfile.CounterRates counterRates = new SnmpMetricProfile.CounterRates();
+    private final ConcurrentHashMap<String, String> sysObjectIds = new ConcurrentHashMap<>();
+
+    public void updateDeviceMetrics(Device device) {
+        // One operation per device at a time; a poll that finds it busy is skipped, not queued
+        String target = device.getIpAddress();
+        if (!admissionControl.tryEnterTarget(target)) {
+            logger.debug("SNMP poll skipped, another operation is in flight for IP {}", target);
+            return;
+        }
+        try {
+            collectMetrics(device);
+        } finally {
+            admissionControl.exitTarget(target);
+        }
+    }
+
+    /** Polls without taking the device's target slot; the caller must already hold it (the poller's permit does). */
+    void collectMetrics(Device device) {
+        try {
+            SnmpSession.Endpoint endpoint = snmpSession.endpointFor(device);
+            SnmpMetricProfile profile = profileRegistry.resolve(device, sysObjectIdOf(device, endpoint));
+
+            PDU response = snmpSession.send(profile.request(endpoint.newPdu()), endpoint);
+            if (response == null) {
+                logger.debug("SNMP poll timed out for IP {}", device.getIpAddress());
+                return;
+            }
+            SnmpMetricProfile.Readings readings = new SnmpMetricProfile.Readings();
+            List<OID> missing = profile.collect(response, readings);
+            if (!missing.isEmpty()) {
+                PDU fallback = snmpSession.send(profile.fallbackRequest(endpoint.newPdu(), missing), endpoint);
+                if (fallback != null) {
+                    profile.collectGet(fallback, readings);
+                }
+            }
+            profile.derive(device.getId(), readings, counterRates, System.nanoTime());
+            apply(device, profile, readings);
+        } catch (IOException e) {
+            logger.warn("SNMP metrics fetch failed for IP {}: {}", device.getIpAddress(), e.getMessage());
+        }
+    }
+
+    public void forgetDevice(String deviceId) {
+        counterRates.forgetDevice(deviceId);
+        sysObjectIds.remove(deviceId);
+    }
+
+    private void apply(Device device, SnmpMetricProfile profile, SnmpMetricProfile.Readings readings) {
+        Map<String, Object> fields = new HashMap<>();
+        for (SnmpMetricProfile.MetricDefinition metric : profile.getMetrics()) {
+            Double number = readings.getNumbers().get(metric.getName());
+            String text = readings.getTexts().get(metric.getName());
+            Object value = text != null ? text : number;
+            if (value == null) {
+                continue;
+            }
+            if (metric.getField() != null && setField(device, metric.getField(), value)) {
+                fields.put(metric.getField(), value);
+                if ("interfaceStatus".equals(metric.getField())) {
+                    // Numeric twin of the text status so alert rules can watch it (interfaceUp < 1)
+                    metricFeed.publish(device.getId(), "interfaceUp", "Up".equals(value.toString()) ? 1 : 0);
+                }
+            }
+            if (number != null && !metric.isInternal()) {
+                metricFeed.publish(device.getId(), metric.getName(), number);
+            }
+        }
+        if (!fields.isEmpty()) {
+            deviceWriter.submit(device.getId(), fields);
+        }
+    }
+
+    private static boolean setField(Device device, String field, Object value) {
+        switch (field) {
+            case "cpuUsage":
+                if (!(value instanceof Double)) return false;
+                device.setCpuUsage((Double) value);
+                return true;
+            case "memoryUsage":
+                if (!(value instanceof Double)) return false;
+                device.setMemoryUsage((Double) value);
+                return true;
+            case "interfaceStatus":
+                device.setInterfaceStatus(value.toString());
+                return true;
+            case "status":
+                device.setStatus(value.toString());
+                return true;
+            default:
+                logger.warn("SNMP profile maps to unsupported device field: {}", field);
+                return false;
+        }
+    }
+
+    // Fetched once per device, and only when some profile matches on it
+    private String sysObjectIdOf(Device device, SnmpSession.Endpoint endpoint) throws IOException {
+        if (!profileRegistry.matchesSysObjectId() || device.getId() == null) {
+            return null;
+        }
+        String cached = sysObjectIds.get(device.getId());
+        if (cached != null) {
+            return cached.isEmpty() ? null : cached;
+        }
+
+        PDU pdu = endpoint.newPdu();
+        pdu.setType(PDU.GET);
+        pdu.add(new VariableBinding(SYS_OBJECT_ID));
+        PDU response = snmpSession.send(pdu, endpoint);
+        if (response == null) {
+            return null; // unreachable for now, ask again next cycle
+        }
+        VariableBinding binding = response.getErrorStatus() == PDU.noError && response.size() > 0 ? response.get(0) : null;
+        String sysObjectId = binding != null && !binding.isException() ? binding.getVariable().toString() : "";
+        sysObjectIds.put(device.getId(), sysObjectId);
+        return sysObjectId.isEmpty() ? null : sysObjectId;
+    }
+}
@@ -0,0 +1,98 @@
+package com.netdash.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netdash.backend.model.Device;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads SNMP metric profiles from JSON (netdash.snmp.profiles-location) and compiles them
+ * once at startup. A device gets the first profile whose sysObjectID prefix matches, then
+ * the first whose types include Device.type, then the fallback profile.
+ */
+@Component
+public class SnmpProfileRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(SnmpProfileRegistry.class);
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${netdash.snmp.profiles-location:classpath:snmp-profiles.json}")
+    private String profilesLocation;
+
+    private List<SnmpMetricProfile> profiles = List.of();
+    private SnmpMetricProfile fallback;
+    private boolean matchesSysObjectId;
+
+    public static class ProfileFile {
+        private List<SnmpMetricProfile.Definition> profiles = new ArrayList<>();
+
+        public List<SnmpMetricProfile.Definition> getProfiles() { return profiles; }
+        public void setProfiles(List<SnmpMetricProfile.Definition> profiles) { this.profiles = profiles; }
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        Resource resource = resourceLoader.getResource(profilesLocation);
+        ProfileFile file;
+        try (InputStream in = resource.getInputStream()) {
+            file = objectMapper.readValue(in, ProfileFile.class);
+        }
+
+        List<SnmpMetricProfile> compiled = new ArrayList<>();
+        for (SnmpMetricProfile.Definition definition : file.getProfiles()) {
+            SnmpMetricProfile profile = new SnmpMetricProfile(definition);
+            compiled.add(profile);
+            if (definition.isFallback() && fallback == null) {
+                fallback = profile;
+            }
+            matchesSysObjectId |= !definition.getSysObjectIds().isEmpty();
+        }
+        if (fallback == null) {
+            throw new IllegalStateException("No fallback SNMP profile in " + profilesLocation);
+        }
+        profiles = compiled;
+        logger.info("Loaded {} SNMP metric profiles from {}", compiled.size(), profilesLocation);
+    }
+
+    /**
+     * Whether any profile matches on sysObjectID, i.e. whether it is worth fetching.
+     */
+    public boolean matchesSysObjectId() {
+        return matchesSysObjectId;
+    }
+
+    public SnmpMetricProfile resolve(Device device, String sysObjectId) {
+        if (sysObjectId != null) {
+            for (SnmpMetricProfile profile : profiles) {
+                for (String prefix : profile.getDefinition().getSysObjectIds()) {
+                    if (sysObjectId.equals(prefix) || sysObjectId.startsWith(prefix + ".")) {
+                        return profile;
+                    }
+                }
+            }
+        }
+        if (device.getType() != null) {
+            for (SnmpMetricProfile profile : profiles) {
+                if (profile.getDefinition().getTypes().stream().anyMatch(device.getType()::equalsIgnoreCase)) {
+                    return profile;
+                }
+            }
+        }
+        return fallback;
+    }
+}
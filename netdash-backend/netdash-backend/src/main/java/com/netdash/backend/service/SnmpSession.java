@@ -0,0 +1,250 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import com.netdash.backend.model.SnmpCredential;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.snmp4j.CommunityTarget;
+import org.snmp4j.PDU;
+import org.snmp4j.ScopedPDU;
+import org.snmp4j.Snmp;
+import org.snmp4j.Target;
+import org.snmp4j.TransportMapping;
+import org.snmp4j.UserTarget;
+import org.snmp4j.event.ResponseEvent;
+import org.snmp4j.mp.MPv3;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.security.SecurityLevel;
+import org.snmp4j.security.SecurityModels;
+import org.snmp4j.security.SecurityProtocols;
+import org.snmp4j.security.USM;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.OctetString;
+import org.snmp4j.smi.UdpAddress;
+import org.snmp4j.transport.DefaultUdpTransportMapping;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One shared SNMP session (a single UDP socket and listener thread) for all pollers,
+ * instead of opening and closing a transport per request. Created on first use.
+ *
+ * Devices with v3 credentials are polled authPriv. The engine id comes from SnmpEngineCache
+ * (discovered only once per agent, ever) and each user is localized once per engine, so after
+ * warm-up a v3 poll is the same single round trip as v2c.
+ */
+@Component
+public class SnmpSession {
+    private static final Logger logger = LoggerFactory.getLogger(SnmpSession.class);
+
+    @Value("${netdash.snmp.community:public}")
+    private String community;
+
+    @Value("${netdash.snmp.timeout-ms:1000}")
+    private long timeoutMs;
+
+    @Value("${netdash.snmp.retries:2}")
+    private int retries;
+
+    @Autowired
+    private SnmpCredentialService credentialService;
+
+    @Autowired
+    private SnmpEngineCache engineCache;
+
+    private Snmp snmp;
+    private USM usm;
+
+    // engineId|securityName -> fingerprint of the credentials its keys were localized from
+    private final ConcurrentHashMap<String, String> localizedUsers = new ConcurrentHashMap<>();
+
+    /**
+     * Where and how to send a device's requests; v3 endpoints need scoped PDUs.
+     */
+    public static class Endpoint {
+        private final Target target;
+        private final String address;
+        private final String contextName;
+
+        Endpoint(Target target, String address, String contextName) {
+            this.target = target;
+            this.address = address;
+            this.contextName = contextName;
+        }
+
+        public Target getTarget() { return target; }
+
+        public boolean isV3() {
+            return target.getVersion() == SnmpConstants.version3;
+        }
+
+        public PDU newPdu() {
+            if (!isV3()) {
+                return new PDU();
+            }
+            ScopedPDU pdu = new ScopedPDU();
+            if (contextName != null) {
+                pdu.setContextName(new OctetString(contextName));
+            }
+            return pdu;
+        }
+    }
+
+    public Endpoint endpointFor(Device device) throws IOException {
+        SnmpCredential credential = credentialService.forDevice(device.getId());
+        String address = device.getIpAddress() + "/161";
+        if (credential != null && credential.isV3()) {
+            return new Endpoint(userTarget(address, credential), address, credential.getContextName());
+        }
+        String deviceCommunity = credential != null ? credential.getCommunity() : community;
+        return new Endpoint(communityTarget(address, deviceCommunity), address, null);
+    }
+
+    /**
+     * Sends synchronously; returns the response PDU, or null on timeout.
+     */
+    public PDU send(PDU pdu, Endpoint endpoint) throws IOException {
+        ResponseEvent response = session().send(pdu, endpoint.getTarget());
+        PDU result = response != null ? response.getResponse() : null;
+        if (endpoint.isV3() && result != null) {
+            if (result.getType() == PDU.REPORT) {
+                handleReport(endpoint.address, result);
+                return null;
+            }
+            engineCache.observe(endpoint.address, usm.getTimeTable());
+        }
+        return result;
+    }
+
+    /**
+     * A REPORT names the usmStats counter of the check the request failed (RFC 3414). Only an
+     * unknown engine id or a time-window miss means the cached engine is stale; authentication
+     * failures are a credentials problem that rediscovery would not fix.
+     */
+    void handleReport(String address, PDU report) {
+        OID reason = report.size() > 0 ? report.get(0).getOid() : null;
+        if (reason == null) {
+            logger.warn("SNMPv3 report without a reason from {}", address);
+        } else if (reason.startsWith(SnmpConstants.usmStatsUnknownEngineIDs)
+                || reason.startsWith(SnmpConstants.usmStatsNotInTimeWindows)) {
+            engineCache.forget(address);
+        } else if (reason.startsWith(SnmpConstants.usmStatsWrongDigests)) {
+            logger.warn("SNMPv3 authentication failed for {}: wrong digest (check authProtocol and authPassphrase)", address);
+        } else if (reason.startsWith(SnmpConstants.usmStatsUnknownUserNames)) {
+            logger.warn("SNMPv3 authentication failed for {}: unknown user name", address);
+        } else if (reason.startsWith(SnmpConstants.usmStatsDecryptionErrors)) {
+            logger.warn("SNMPv3 decryption failed for {} (check privProtocol and privPassphrase)", address);
+        } else if (reason.startsWith(SnmpConstants.usmStatsUnsupportedSecLevels)) {
+            logger.warn("SNMPv3 agent at {} does not support authPriv for this user", address);
+        } else {
+            logger.warn("SNMPv3 report from {}: {}", address, reason);
+        }
+    }
+
+    private CommunityTarget communityTarget(String address, String community) {
+        CommunityTarget target = new CommunityTarget();
+        target.setCommunity(new OctetString(community));
+        target.setAddress(new UdpAddress(address));
+        target.setRetries(retries);
+        target.setTimeout(timeoutMs);
+        target.setVersion(SnmpConstants.version2c);
+        return target;
+    }
+
+    private UserTarget userTarget(String address, SnmpCredential credential) throws IOException {
+        Snmp session = session();
+        UdpAddress udpAddress = new UdpAddress(address);
+
+        byte[] engineId = engineCache.engineId(address, usm.getTimeTable());
+        if (engineId == null) {
+            engineId = session.discoverAuthoritativeEngineID(udpAddress, timeoutMs);
+            if (engineId == null) {
+                throw new IOException("SNMPv3 engine discovery failed for " + address);
+            }
+            engineCache.discovered(address, engineId);
+        }
+        localizeUser(engineId, credential);
+
+        UserTarget target = new UserTarget();
+        target.setAddress(udpAddress);
+        target.setRetries(retries);
+        target.setTimeout(timeoutMs);
+        target.setVersion(SnmpConstants.version3);
+        target.setSecurityLevel(SecurityLevel.AUTH_PRIV);
+        target.setSecurityName(new OctetString(credential.getSecurityName()));
+        target.setAuthoritativeEngineID(engineId);
+        return target;
+    }
+
+    // Key localization hashes about a megabyte per key, so it runs once per engine and user,
+    // and again only when the user's credentials change
+    private void localizeUser(byte[] engineId, SnmpCredential credential) {
+        String user = new OctetString(engineId).toHexString() + "|" + credential.getSecurityName();
+        String fingerprint = fingerprint(credential);
+        if (!needsLocalization(user, fingerprint)) {
+            return;
+        }
+
+        SecurityProtocols protocols = SecurityProtocols.getInstance();
+        OID authProtocol = SnmpCredentialService.authProtocol(credential.getAuthProtocol());
+        OID privProtocol = SnmpCredentialService.privProtocol(credential.getPrivProtocol());
+        byte[] authKey = protocols.passwordToKey(authProtocol, new OctetString(credential.getAuthPassphrase()), engineId);
+        byte[] privKey = protocols.passwordToKey(privProtocol, authProtocol, new OctetString(credential.getPrivPassphrase()), engineId);
+        usm.addLocalizedUser(engineId, new OctetString(credential.getSecurityName()), authProtocol, authKey, privProtocol, privKey);
+        markLocalized(user, fingerprint);
+        logger.debug("Localized SNMPv3 keys for user {} on engine {}", credential.getSecurityName(), user);
+    }
+
+    boolean needsLocalization(String user, String fingerprint) {
+        return !fingerprint.equals(localizedUsers.get(user));
+    }
+
+    void markLocalized(String user, String fingerprint) {
+        localizedUsers.put(user, fingerprint);
+    }
+
+    static String fingerprint(SnmpCredential credential) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String material = credential.getAuthProtocol() + "\u0000" + credential.getAuthPassphrase() + "\u0000"
+                    + credential.getPrivProtocol() + "\u0000" + credential.getPrivPassphrase();
+            return new OctetString(digest.digest(material.getBytes(StandardCharsets.UTF_8))).toHexString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private synchronized Snmp session() throws IOException {
+        if (snmp == null) {
+            TransportMapping transport = new DefaultUdpTransportMapping();
+            Snmp created = new Snmp(transport);
+            SecurityProtocols.getInstance().addDefaultProtocols();
+            usm = new USM(SecurityProtocols.getInstance(), new OctetString(MPv3.createLocalEngineID()), 0);
+            SecurityModels.getInstance().addSecurityModel(usm);
+            transport.listen();
+            snmp = created;
+            logger.info("SNMP session opened");
+        }
+        return snmp;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (snmp != null) {
+            try {
+                snmp.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close SNMP session: {}", e.getMessage());
+            }
+            snmp = null;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.netdash.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Sends SSE events off the producer's thread. Each subscriber has a bounded queue drained on the
+ * shared sse-push pool, one drain task per subscriber at a time so its events stay in order; a
+ * client that falls a full queue behind is disconnected instead of slowing the producer.
+ */
+@Component
+public class SsePush {
+    private static final Logger logger = LoggerFactory.getLogger(SsePush.class);
+
+    private final ExecutorService pushExecutor = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "sse-push");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PreDestroy
+    public void stop() {
+        pushExecutor.shutdownNow();
+    }
+
+    /** Wraps the emitter; onClose runs once when the client disconnects, overflows or is completed. */
+    public Subscriber subscribe(SseEmitter emitter, int capacity, Consumer<Subscriber> onClose) {
+        Subscriber subscriber = new Subscriber(emitter, capacity, onClose);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        return subscriber;
+    }
+
+    public final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final int capacity;
+        private final Consumer<Subscriber> onClose;
+        private final Deque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean completing;
+        private boolean closed;
+
+        private Subscriber(SseEmitter emitter, int capacity, Consumer<Subscriber> onClose) {
+            this.emitter = emitter;
+            this.capacity = capacity;
+            this.onClose = onClose;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        public void offer(String name, Object data) {
+            boolean overflow;
+            synchronized (this) {
+                if (closed || completing) {
+                    return;
+                }
+                overflow = queue.size() >= capacity;
+                if (!overflow) {
+                    queue.addLast(SseEmitter.event().name(name).data(data));
+                    if (draining) {
+                        return;
+                    }
+                    draining = true;
+                }
+            }
+            if (overflow) {
+                logger.warn("SSE subscriber fell {} events behind, disconnecting", capacity);
+                close();
+                return;
+            }
+            try {
+                pushExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                close(); // shutting down
+            }
+        }
+
+        /** Completes the stream once the events already queued have been sent. */
+        public void complete() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                completing = true;
+                if (draining) {
+                    return; // the drain task completes it after the last event
+                }
+            }
+            close();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                boolean closedWhileSending;
+                synchronized (this) {
+                    closedWhileSending = closed;
+                    event = closed ? null : queue.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        if (!closed && !completing) {
+                            return;
+                        }
+                    }
+                }
+                if (closedWhileSending) {
+                    emitter.complete(); // left to this task by close()
+                    return;
+                }
+                if (event == null) {
+                    close();
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close();
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        public void close() {
+            boolean sending;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                queue.clear();
+                sending = draining;
+            }
+            onClose.accept(this);
+            // A drain task blocked on a stalled client holds the emitter's lock; it completes the emitter itself
+            if (!sending) {
+                emitter.complete();
+            }
+        }
+    }
+}
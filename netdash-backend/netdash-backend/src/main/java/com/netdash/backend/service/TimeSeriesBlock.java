@@ -0,0 +1,219 @@
+package com.netdash.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Gorilla-style compression of one series' samples (Pelkonen et al., VLDB 2015).
+ * Timestamps (epoch ms) are stored as delta-of-deltas, so a steady poll interval costs one
+ * bit per sample; values are XORed with their predecessor and only the meaningful bits are
+ * kept, so unchanged or slowly moving gauges cost a bit or a few bits each.
+ *
+ * Timestamps within a block must not go backwards.
+ */
+public final class TimeSeriesBlock {
+
+    private TimeSeriesBlock() {
+    }
+
+    /**
+     * Appends samples to a growing bit stream.
+     */
+    public static final class Encoder {
+        private final BitWriter bits = new BitWriter();
+        private int count;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        private long lastDelta;
+        private long lastValueBits;
+        private int lastLeading = -1;
+        private int lastTrailing;
+
+        public void add(long timestamp, double value) {
+            if (count > 0 && timestamp < lastTimestamp) {
+                throw new IllegalArgumentException("Timestamps must not go backwards within a block");
+            }
+            long valueBits = Double.doubleToRawLongBits(value);
+            if (count == 0) {
+                firstTimestamp = timestamp;
+                bits.write(timestamp, 64);
+                bits.write(valueBits, 64);
+            } else {
+                long delta = timestamp - lastTimestamp;
+                writeDeltaOfDelta(delta - lastDelta);
+                lastDelta = delta;
+                writeXor(valueBits ^ lastValueBits);
+            }
+            lastTimestamp = timestamp;
+            lastValueBits = valueBits;
+            count++;
+        }
+
+        private void writeDeltaOfDelta(long dod) {
+            if (dod == 0) {
+                bits.write(0, 1);
+            } else if (dod >= -63 && dod <= 64) {
+                bits.write(0b10, 2);
+                bits.write(dod, 7);
+            } else if (dod >= -255 && dod <= 256) {
+                bits.write(0b110, 3);
+                bits.write(dod, 9);
+            } else if (dod >= -2047 && dod <= 2048) {
+                bits.write(0b1110, 4);
+                bits.write(dod, 12);
+            } else {
+                bits.write(0b1111, 4);
+                bits.write(dod, 64);
+            }
+        }
+
+        private void writeXor(long xor) {
+            if (xor == 0) {
+                bits.write(0, 1);
+                return;
+            }
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+                // Fits in the previous window: reuse its position
+                bits.write(0b10, 2);
+                bits.write(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                bits.write(0b11, 2);
+                bits.write(leading, 5);
+                bits.write(meaningful & 63, 6); // 64 is written as 0
+                bits.write(xor >>> trailing, meaningful);
+                lastLeading = leading;
+                lastTrailing = trailing;
+            }
+        }
+
+        public int getCount() { return count; }
+        public long getFirstTimestamp() { return firstTimestamp; }
+        public long getLastTimestamp() { return lastTimestamp; }
+
+        public int sizeInBytes() {
+            return bits.sizeInBytes();
+        }
+
+        public byte[] toByteArray() {
+            return bits.toByteArray();
+        }
+    }
+
+    public interface SampleConsumer {
+        void accept(long timestamp, double value);
+    }
+
+    /**
+     * Decodes count samples from data[offset, offset + length).
+     */
+    public static void decode(byte[] data, int offset, int length, int count, SampleConsumer consumer) {
+        if (count == 0) {
+            return;
+        }
+        BitReader bits = new BitReader(data, offset, length);
+        long timestamp = bits.read(64);
+        long valueBits = bits.read(64);
+        consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            delta += readDeltaOfDelta(bits);
+            timestamp += delta;
+
+            if (bits.read(1) != 0) {
+                if (bits.read(1) != 0) {
+                    leading = (int) bits.read(5);
+                    int meaningful = (int) bits.read(6);
+                    if (meaningful == 0) meaningful = 64;
+                    trailing = 64 - leading - meaningful;
+                }
+                valueBits ^= bits.read(64 - leading - trailing) << trailing;
+            }
+            consumer.accept(timestamp, Double.longBitsToDouble(valueBits));
+        }
+    }
+
+    private static long readDeltaOfDelta(BitReader bits) {
+        if (bits.read(1) == 0) return 0;
+        if (bits.read(1) == 0) return bits.readSigned(7);
+        if (bits.read(1) == 0) return bits.readSigned(9);
+        if (bits.read(1) == 0) return bits.readSigned(12);
+        return bits.read(64);
+    }
+
+    static final class BitWriter {
+        private byte[] buffer = new byte[64];
+        private long bitLength;
+
+        // Writes the low n bits of value, most significant first
+        void write(long value, int n) {
+            if (n == 0) return;
+            ensureCapacity(bitLength + n);
+            for (int i = n - 1; i >= 0; ) {
+                int byteIndex = (int) (bitLength >>> 3);
+                int freeInByte = 8 - (int) (bitLength & 7);
+                int take = Math.min(freeInByte, i + 1);
+                int chunk = (int) ((value >>> (i + 1 - take)) & ((1 << take) - 1));
+                buffer[byteIndex] |= (byte) (chunk << (freeInByte - take));
+                bitLength += take;
+                i -= take;
+            }
+        }
+
+        private void ensureCapacity(long bits) {
+            int bytes = (int) ((bits + 7) >>> 3);
+            if (bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(bytes, buffer.length * 2));
+            }
+        }
+
+        int sizeInBytes() {
+            return (int) ((bitLength + 7) >>> 3);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, sizeInBytes());
+        }
+    }
+
+    static final class BitReader {
+        private final byte[] data;
+        private final long endBit;
+        private long position;
+
+        BitReader(byte[] data, int offset, int length) {
+            this.data = data;
+            this.position = (long) offset << 3;
+            this.endBit = (long) (offset + length) << 3;
+        }
+
+        long read(int n) {
+            if (position + n > endBit) {
+                throw new IllegalStateException("Compressed block is truncated");
+            }
+            long value = 0;
+            while (n > 0) {
+                int byteIndex = (int) (position >>> 3);
+                int availableInByte = 8 - (int) (position & 7);
+                int take = Math.min(availableInByte, n);
+                int chunk = (data[byteIndex] >>> (availableInByte - take)) & ((1 << take) - 1);
+                value = (value << take) | chunk;
+                position += take;
+                n -= take;
+            }
+            return value;
+        }
+
+        long readSigned(int n) {
+            long value = read(n);
+            // Two's complement within n bits; the encoder's ranges are asymmetric (-63..64),
+            // so a set sign bit with value 1 << (n-1) means +64 and so on
+            long half = 1L << (n - 1);
+            return value > half ? value - (1L << n) : value;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlTests {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void limitGrowsWhileFastAndBacksOffWhenLatencyInflates() {
+		AdaptiveLimit limit = new AdaptiveLimit(4, 1, 16, 2.0);
+		for (int round = 0; round < 200; round++) {
+			int admitted = fill(limit);
+			for (int i = 0; i < admitted; i++) {
+				limit.release(10 * MS);
+			}
+		}
+		assertEquals(16, limit.getLimit());
+
+		for (int round = 0; round < 40; round++) {
+			int admitted = fill(limit);
+			assertFalse(limit.tryAcquire(), "admitted past the limit");
+			for (int i = 0; i < admitted; i++) {
+				limit.release(100 * MS);
+			}
+		}
+		assertTrue(limit.getLimit() <= 2, "limit still " + limit.getLimit());
+		assertEquals(0, limit.getInFlight());
+	}
+
+	@Test
+	void overloadSettlesNearCapacityWithBoundedLatency() {
+		// A backend that serves 8 operations in parallel at 10 ms; beyond that they queue
+		int capacity = 8;
+		AdaptiveLimit limit = new AdaptiveLimit(8, 1, 256, 2.0);
+		long worstLatency = 0;
+		for (int round = 0; round < 2000; round++) {
+			int admitted = fill(limit); // unbounded offered load
+			long latency = 10 * MS * Math.max(capacity, admitted) / capacity;
+			if (round >= 1000) {
+				worstLatency = Math.max(worstLatency, latency);
+				assertTrue(admitted >= capacity, "throughput collapsed to " + admitted);
+			}
+			for (int i = 0; i < admitted; i++) {
+				limit.release(latency);
+			}
+		}
+		assertTrue(worstLatency <= 25 * MS, "latency grew to " + worstLatency / MS + " ms");
+	}
+
+	@Test
+	void pollerWithMixedLatenciesAndMoreDevicesThanTheLimitKeepsItsLimit() {
+		AdaptiveLimit limit = new AdaptiveLimit(16, 1, 32, 2.0);
+		int devices = 200;
+		// Cached answers come back instantly and pull the baseline towards zero
+		for (int round = 0; round < 50; round++) {
+			int admitted = fillDeferrable(limit, devices);
+			for (int i = 0; i < admitted; i++) {
+				limit.release(0);
+			}
+		}
+		for (int round = 0; round < 1000; round++) {
+			int admitted = fillDeferrable(limit, devices);
+			for (int i = 0; i < admitted; i++) {
+				if (i % 10 == 9) {
+					limit.cancel(); // busy device, skipped
+				} else {
+					limit.release(i % 4 == 3 ? 40 * MS : 5 * MS);
+				}
+			}
+		}
+		assertEquals(0, limit.getInFlight());
+		assertTrue(limit.getBaselineNanos() > 2 * MS, "baseline pinned at " + limit.getBaselineNanos() / 1000 + " us");
+		assertTrue(limit.getLimit() >= 16, "limit collapsed to " + limit.getLimit());
+	}
+
+	@Test
+	void targetTakesOneOperationAtATimeAcrossClasses() {
+		AdmissionControlService admission = new AdmissionControlService(true, 1, 2.0, 2, 4, 64, 32);
+
+		AdmissionControlService.Permit config = admission.tryAcquire(AdmissionControlService.Operation.CONFIG, "10.0.0.1");
+		assertNotNull(config);
+		assertNull(admission.tryAcquire(AdmissionControlService.Operation.CONFIG, "10.0.0.1"));
+		assertEquals(1, admission.getInFlight(AdmissionControlService.Operation.CONFIG), "rejected target kept a class slot");
+		assertFalse(admission.tryEnterTarget("10.0.0.1"), "SNMP poll ran in parallel with a config push");
+		assertTrue(admission.tryEnterTarget("10.0.0.2"));
+		admission.exitTarget("10.0.0.2");
+
+		AdmissionControlService.Permit skipped = admission.tryAcquireDeferrable(AdmissionControlService.Operation.POLL, "10.0.0.3");
+		skipped.cancel();
+		skipped.release(); // no-op after cancel
+		assertEquals(0, admission.getInFlight(AdmissionControlService.Operation.POLL));
+		assertTrue(admission.tryEnterTarget("10.0.0.3"));
+		admission.exitTarget("10.0.0.3");
+
+		config.release();
+		config.release(); // idempotent
+		assertEquals(0, admission.getInFlight(AdmissionControlService.Operation.CONFIG));
+		assertTrue(admission.tryEnterTarget("10.0.0.1"));
+		admission.exitTarget("10.0.0.1");
+		assertEquals(1, admission.retryAfterSeconds(AdmissionControlService.Operation.CONFIG));
+
+		// Discover starts at half of its maximum of 2
+		assertNotNull(admission.tryAcquire(AdmissionControlService.Operation.DISCOVER));
+		assertNull(admission.tryAcquire(AdmissionControlService.Operation.DISCOVER));
+	}
+
+	private static int fill(AdaptiveLimit limit) {
+		int admitted = 0;
+		while (limit.tryAcquire()) {
+			admitted++;
+		}
+		return admitted;
+	}
+
+	private static int fillDeferrable(AdaptiveLimit limit, int devices) {
+		int admitted = 0;
+		while (admitted < devices && limit.tryAcquire(false)) {
+			admitted++;
+		}
+		return admitted;
+	}
+}
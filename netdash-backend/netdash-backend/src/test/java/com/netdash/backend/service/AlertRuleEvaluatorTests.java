@@ -0,0 +1,130 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.AlertRule;
+import com.netdash.backend.model.MetricSample;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlertRuleEvaluatorTests {
+
+	private static AlertRule rule(String id, String metric, String operator, double threshold, int samples, long seconds) {
+		AlertRule rule = new AlertRule(id, metric, operator, threshold, samples, seconds);
+		rule.setId(id);
+		return rule;
+	}
+
+	@Test
+	void firesAfterConsecutiveSamplesAndClearsOnRecovery() {
+		AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+		evaluator.setRules(List.of(rule("cpu-high", "cpuUsage", ">", 90, 3, 0)));
+
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 95, 1000)).isEmpty());
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 96, 2000)).isEmpty());
+		List<AlertRuleEvaluator.Transition> fired = evaluator.evaluate(new MetricSample("d1", "cpuUsage", 97, 3000));
+		assertEquals(1, fired.size());
+		assertTrue(fired.get(0).isFiring());
+
+		// Still breaching: no duplicate FIRING
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 99, 4000)).isEmpty());
+
+		List<AlertRuleEvaluator.Transition> cleared = evaluator.evaluate(new MetricSample("d1", "cpuUsage", 10, 5000));
+		assertEquals(1, cleared.size());
+		assertFalse(cleared.get(0).isFiring());
+	}
+
+	@Test
+	void interruptedBreachResetsTheWindow() {
+		AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+		evaluator.setRules(List.of(rule("cpu-high", "cpuUsage", ">", 90, 2, 0)));
+
+		evaluator.evaluate(new MetricSample("d1", "cpuUsage", 95, 1000));
+		evaluator.evaluate(new MetricSample("d1", "cpuUsage", 50, 2000));
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 95, 3000)).isEmpty());
+		assertEquals(1, evaluator.evaluate(new MetricSample("d1", "cpuUsage", 95, 4000)).size());
+	}
+
+	@Test
+	void durationRuleWaitsForElapsedTime() {
+		AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+		evaluator.setRules(List.of(rule("if-down", "interfaceUp", "<", 1, 1, 30)));
+
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "interfaceUp", 0, 0)).isEmpty());
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "interfaceUp", 0, 29_000)).isEmpty());
+		assertEquals(1, evaluator.evaluate(new MetricSample("d1", "interfaceUp", 0, 30_000)).size());
+		// Other devices keep independent state
+		assertTrue(evaluator.evaluate(new MetricSample("d2", "interfaceUp", 0, 30_000)).isEmpty());
+	}
+
+	@Test
+	void sweepFiresDurationRuleForADeviceThatStoppedReporting() {
+		AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+		evaluator.setRules(List.of(rule("if-down", "interfaceUp", "<", 1, 1, 30)));
+
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "interfaceUp", 0, 0)).isEmpty());
+		assertTrue(evaluator.evaluate(new MetricSample("d2", "interfaceUp", 1, 0)).isEmpty());
+		assertTrue(evaluator.sweep(29_000).isEmpty());
+
+		List<AlertRuleEvaluator.Transition> fired = evaluator.sweep(30_000);
+		assertEquals(1, fired.size());
+		assertTrue(fired.get(0).isFiring());
+		assertEquals("d1", fired.get(0).getSample().getDeviceId());
+		assertEquals(0, fired.get(0).getSample().getValue());
+		// Fires once; the next sample of a recovered interface clears it
+		assertTrue(evaluator.sweep(60_000).isEmpty());
+		assertFalse(evaluator.evaluate(new MetricSample("d1", "interfaceUp", 1, 61_000)).get(0).isFiring());
+	}
+
+	@Test
+	void firingStateSurvivesRuleReload() {
+		AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+		AlertRule cpu = rule("cpu-high", "cpuUsage", ">", 90, 1, 0);
+		evaluator.setRules(List.of(cpu));
+		assertEquals(1, evaluator.evaluate(new MetricSample("d1", "cpuUsage", 95, 1000)).size());
+
+		evaluator.setRules(List.of(rule("mem-high", "memoryUsage", ">", 80, 1, 0), cpu));
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 96, 2000)).isEmpty());
+		List<AlertRuleEvaluator.Transition> cleared = evaluator.evaluate(new MetricSample("d1", "cpuUsage", 5, 3000));
+		assertEquals(1, cleared.size());
+		assertFalse(cleared.get(0).isFiring());
+	}
+
+	@Test
+	void aggregateRuleComparesTheSlidingWindow() {
+		AlertRuleEvaluator evaluator = new AlertRuleEvaluator();
+		AlertRule avg = rule("cpu-avg", "cpuUsage", ">", 50, 1, 0);
+		avg.setAggregate("avg");
+		avg.setWindowSeconds(60);
+		evaluator.setRules(List.of(avg));
+
+		for (long t = 0; t <= 50_000; t += 10_000) {
+			assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 0, t)).isEmpty());
+		}
+		// A single spike is averaged away
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 100, 60_000)).isEmpty());
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 100, 70_000)).isEmpty());
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 100, 80_000)).isEmpty());
+		// Zeros age out of the window: 40..90 s now averages 66
+		List<AlertRuleEvaluator.Transition> fired = evaluator.evaluate(new MetricSample("d1", "cpuUsage", 100, 90_000));
+		assertEquals(1, fired.size());
+		assertTrue(fired.get(0).isFiring());
+
+		// A late sample from before the window changes nothing
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "cpuUsage", 0, 5_000)).isEmpty());
+
+		AlertRule min = rule("if-flap", "interfaceUp", "<", 1, 1, 0);
+		min.setAggregate("min");
+		min.setWindowSeconds(30);
+		evaluator.setRules(List.of(avg, min));
+		evaluator.evaluate(new MetricSample("d1", "interfaceUp", 0, 100_000));
+		// Still firing while the down sample is inside the window, cleared once it ages out
+		assertTrue(evaluator.evaluate(new MetricSample("d1", "interfaceUp", 1, 120_000)).isEmpty());
+		List<AlertRuleEvaluator.Transition> cleared = evaluator.evaluate(new MetricSample("d1", "interfaceUp", 1, 140_000));
+		assertEquals(1, cleared.size());
+		assertFalse(cleared.get(0).isFiring());
+	}
+}
@@ -0,0 +1,71 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.Device;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkTransferServiceTests {
+
+	@Test
+	void csvRowsRoundTripQuotesAndCommas() throws Exception {
+		StringWriter out = new StringWriter();
+		BulkTransferService.writeCsvRow(out, Arrays.asList("core, rack 2", "say \"hi\"", null, 1.5));
+
+		String line = out.toString();
+		assertEquals("\"core, rack 2\",\"say \"\"hi\"\"\",,1.5\n", line);
+		assertEquals(List.of("core, rack 2", "say \"hi\"", "", "1.5"),
+				BulkTransferService.parseCsvLine(line.substring(0, line.length() - 1)));
+	}
+
+	@Test
+	void deviceFromCsvMapsColumnsByHeader() {
+		List<String> header = List.of("name", "ipAddress", "cpuUsage", "id");
+		Device device = BulkTransferService.deviceFromCsv(header, List.of("edge-1", "10.0.0.1", "12.5", ""));
+
+		assertEquals("edge-1", device.getName());
+		assertEquals("10.0.0.1", device.getIpAddress());
+		assertEquals(12.5, device.getCpuUsage());
+		assertNull(device.getId());
+	}
+
+	@Test
+	void badCsvRowsAreRejected() {
+		List<String> header = List.of("name", "ipAddress");
+		assertThrows(IllegalArgumentException.class,
+				() -> BulkTransferService.deviceFromCsv(header, List.of("only-one")));
+		assertThrows(IllegalArgumentException.class,
+				() -> BulkTransferService.parseCsvLine("\"unterminated,10.0.0.1"));
+	}
+
+	@Test
+	void importOnlySetsTheColumnsARowCarries() {
+		Device device = BulkTransferService.deviceFromCsv(List.of("id", "name", "ipAddress", "version"),
+				List.of("d1", "edge-1", "10.0.0.1", "3"));
+		Document update = BulkTransferService.importUpdate(device, Set.of("id", "name", "ipAddress", "version"))
+				.getUpdateObject();
+
+		assertEquals(new Document("name", "edge-1").append("ipAddress", "10.0.0.1"), update.get("$set"));
+		// Version never moves backwards; metrics the row leaves out are not touched
+		assertEquals(new Document("version", 3L), update.get("$max"));
+		Document onInsert = (Document) update.get("$setOnInsert");
+		assertEquals("Online", onInsert.get("status"));
+		assertFalse(onInsert.containsKey("version"));
+		assertFalse(((Document) update.get("$set")).containsKey("cpuUsage"));
+
+		// Without a version column the import still moves the version, so stale edits conflict
+		Document unversioned = BulkTransferService.importUpdate(device, Set.of("id", "name", "ipAddress"))
+				.getUpdateObject();
+		assertEquals(new Document("version", 1), unversioned.get("$inc"));
+		assertFalse(((Document) unversioned.get("$setOnInsert")).containsKey("version"));
+	}
+}
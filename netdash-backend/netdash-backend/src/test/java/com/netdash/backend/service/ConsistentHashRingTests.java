@@ -0,0 +1,45 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistentHashRingTests {
+
+	private static final int PARTITIONS = 256;
+
+	@Test
+	void spreadsPartitionsAcrossNodes() {
+		ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c", "d"), 64);
+		Map<String, Integer> counts = new HashMap<>();
+		for (int p = 0; p < PARTITIONS; p++) {
+			counts.merge(ring.ownerOf(p), 1, Integer::sum);
+		}
+		assertEquals(4, counts.size());
+		counts.values().forEach(count -> assertTrue(count > PARTITIONS / 8, "unbalanced: " + counts));
+	}
+
+	@Test
+	void removingANodeOnlyMovesItsPartitions() {
+		ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 64);
+		ConsistentHashRing after = new ConsistentHashRing(List.of("a", "c"), 64);
+		for (int p = 0; p < PARTITIONS; p++) {
+			String owner = before.ownerOf(p);
+			if (!"b".equals(owner)) {
+				assertEquals(owner, after.ownerOf(p));
+			}
+		}
+	}
+
+	@Test
+	void partitionOfIsStable() {
+		int partition = ConsistentHashRing.partitionOf("device-42", PARTITIONS);
+		assertEquals(partition, ConsistentHashRing.partitionOf("device-42", PARTITIONS));
+		assertTrue(partition >= 0 && partition < PARTITIONS);
+	}
+}
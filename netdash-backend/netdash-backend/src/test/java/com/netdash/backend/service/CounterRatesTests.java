@@ -0,0 +1,47 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CounterRatesTests {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void thirtyTwoBitCounterWraps() {
+		SnmpMetricProfile.CounterRates rates = new SnmpMetricProfile.CounterRates();
+		assertNull(rates.rate("d|in", 4_294_967_000.0, 32, 0));
+		// 296 units to the wrap plus 704 after it, over two seconds
+		assertEquals(500.0, rates.rate("d|in", 704.0, 32, 2 * SECOND), 1e-6);
+	}
+
+	@Test
+	void implausibleWrapIsAReset() {
+		SnmpMetricProfile.CounterRates rates = new SnmpMetricProfile.CounterRates();
+		rates.rate("d|in", 1_000_000.0, 32, 0);
+		// Dropping from 1M to 100 would mean ~4.29G counted in a second: the agent restarted
+		assertNull(rates.rate("d|in", 100.0, 32, SECOND));
+		// The reset value is the new baseline
+		assertEquals(50.0, rates.rate("d|in", 150.0, 32, 2 * SECOND), 1e-6);
+	}
+
+	@Test
+	void sixtyFourBitCounterGoingBackwardsIsAReset() {
+		SnmpMetricProfile.CounterRates rates = new SnmpMetricProfile.CounterRates();
+		rates.rate("d|in", 18_446_744_073_709_000_000.0, 64, 0);
+		assertNull(rates.rate("d|in", 1_000.0, 64, SECOND));
+		assertEquals(1_000.0, rates.rate("d|in", 2_000.0, 64, 2 * SECOND), 1e-6);
+	}
+
+	@Test
+	void forgetDeviceDropsItsBaselines() {
+		SnmpMetricProfile.CounterRates rates = new SnmpMetricProfile.CounterRates();
+		rates.rate("d1|in", 10.0, 32, 0);
+		rates.rate("d2|in", 10.0, 32, 0);
+		rates.forgetDevice("d1");
+		assertNull(rates.rate("d1|in", 20.0, 32, SECOND));
+		assertEquals(10.0, rates.rate("d2|in", 20.0, 32, SECOND), 1e-6);
+	}
+}
@@ -0,0 +1,204 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.gnmi.Notification;
+import com.netdash.backend.gnmi.Path;
+import com.netdash.backend.gnmi.PathElem;
+import com.netdash.backend.gnmi.SubscribeRequest;
+import com.netdash.backend.gnmi.SubscribeResponse;
+import com.netdash.backend.gnmi.SubscriptionList;
+import com.netdash.backend.gnmi.SubscriptionMode;
+import com.netdash.backend.gnmi.TypedValue;
+import com.netdash.backend.gnmi.Update;
+import com.netdash.backend.gnmi.gNMIGrpc;
+import com.netdash.backend.model.MetricSample;
+import com.google.protobuf.ByteString;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GnmiSubscriptionTests {
+
+	private Server server;
+	private ManagedChannel channel;
+	private ExecutorService clientExecutor;
+
+	@AfterEach
+	void tearDown() {
+		if (channel != null) channel.shutdownNow();
+		if (server != null) server.shutdownNow();
+		if (clientExecutor != null) clientExecutor.shutdownNow();
+	}
+
+	@Test
+	void decoderMapsOpenConfigLeavesToDeviceFields() {
+		GnmiTelemetryDecoder decoder = new GnmiTelemetryDecoder("d1");
+		Map<String, Object> fields = new HashMap<>();
+		List<MetricSample> samples = new ArrayList<>();
+
+		decoder.apply(Notification.newBuilder()
+				.setTimestamp(1_000_000_000L)
+				.setPrefix(path("openconfig-system:system"))
+				.addUpdate(update(path("cpus", "cpu[index=0]", "state", "total", "instant"), TypedValue.newBuilder().setUintVal(20)))
+				.addUpdate(update(path("cpus", "cpu[index=1]", "state", "total", "instant"), TypedValue.newBuilder().setUintVal(40)))
+				.addUpdate(update(path("memory", "state", "used"), TypedValue.newBuilder().setUintVal(512L * 1048576)))
+				.build(), fields, samples);
+		decoder.apply(Notification.newBuilder()
+				.setTimestamp(1_000_000_000L)
+				.addUpdate(update(path("interfaces", "interface[name=eth0]", "state", "oper-status"),
+						TypedValue.newBuilder().setJsonIetfVal(ByteString.copyFrom("\"openconfig-interfaces:DOWN\"", StandardCharsets.UTF_8))))
+				.addUpdate(update(path("interfaces", "interface[name=eth0]", "state", "counters", "in-octets"), TypedValue.newBuilder().setUintVal(1000)))
+				.build(), fields, samples);
+
+		assertEquals(30.0, fields.get("cpuUsage"));
+		assertEquals(512.0, fields.get("memoryUsage"));
+		assertEquals("Down", fields.get("interfaceStatus"));
+		assertTrue(samples.stream().noneMatch(s -> s.getMetric().equals("ifInBitsPerSec")), "first counter value has no rate");
+
+		// One second later eth0 received another 1000 octets: 8000 bits/s
+		fields.clear();
+		samples.clear();
+		decoder.apply(Notification.newBuilder()
+				.setTimestamp(2_000_000_000L)
+				.addUpdate(update(path("interfaces", "interface[name=eth0]", "state", "counters", "in-octets"), TypedValue.newBuilder().setUintVal(2000)))
+				.build(), fields, samples);
+
+		assertNull(fields.get("cpuUsage"));
+		MetricSample in = samples.stream().filter(s -> s.getMetric().equals("ifInBitsPerSec")).findFirst().orElseThrow();
+		assertEquals(8000.0, in.getValue(), 1e-9);
+		assertEquals(2000, in.getTimestamp());
+	}
+
+	@Test
+	void streamsUpdatesWithBoundedInFlightWindow() throws Exception {
+		int total = 20_000;
+		int window = 8;
+		AtomicReference<SubscribeRequest> received = new AtomicReference<>();
+		AtomicInteger sent = new AtomicInteger();
+		startServer(received, sent, total);
+
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+		AtomicInteger handled = new AtomicInteger();
+		AtomicInteger outOfOrder = new AtomicInteger();
+		GnmiSubscription subscription = new GnmiSubscription(window, new GnmiSubscription.Listener() {
+			@Override
+			public void onNotification(Notification notification) {
+				try {
+					release.await(); // storage saturated until released
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				if (notification.getTimestamp() != handled.getAndIncrement()) {
+					outOfOrder.incrementAndGet();
+				}
+			}
+
+			@Override
+			public void onSynced() {
+			}
+
+			@Override
+			public void onClosed(Throwable error) {
+				done.countDown();
+			}
+		});
+		subscription.start(gNMIGrpc.newStub(channel), GnmiTelemetryDecoder.subscribeRequest(1000));
+
+		// While the listener is stuck the target may only send what the client requested
+		Thread.sleep(300);
+		assertTrue(sent.get() <= window + 1, "sent " + sent.get() + " with a window of " + window);
+
+		release.countDown();
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertEquals(total, handled.get());
+		assertEquals(0, outOfOrder.get());
+
+		SubscriptionList list = received.get().getSubscribe();
+		assertEquals(SubscriptionList.Mode.STREAM, list.getMode());
+		assertEquals(3, list.getSubscriptionList().stream().filter(s -> s.getMode() == SubscriptionMode.SAMPLE).count());
+		assertEquals(1, list.getSubscriptionList().stream().filter(s -> s.getMode() == SubscriptionMode.ON_CHANGE).count());
+		assertEquals(1_000_000_000L, list.getSubscription(0).getSampleInterval());
+	}
+
+	// A stand-in target that only sends while the client has asked for more
+	private void startServer(AtomicReference<SubscribeRequest> received, AtomicInteger sent, int total) throws Exception {
+		String name = InProcessServerBuilder.generateName();
+		server = InProcessServerBuilder.forName(name).addService(new gNMIGrpc.gNMIImplBase() {
+			@Override
+			public StreamObserver<SubscribeRequest> subscribe(StreamObserver<SubscribeResponse> responses) {
+				ServerCallStreamObserver<SubscribeResponse> stream = (ServerCallStreamObserver<SubscribeResponse>) responses;
+				Runnable pump = () -> {
+					if (received.get() == null) {
+						return;
+					}
+					while (stream.isReady() && sent.get() < total) {
+						stream.onNext(SubscribeResponse.newBuilder()
+								.setUpdate(Notification.newBuilder().setTimestamp(sent.getAndIncrement()))
+								.build());
+					}
+					if (sent.get() == total) {
+						sent.incrementAndGet();
+						stream.onCompleted();
+					}
+				};
+				stream.setOnReadyHandler(pump);
+				return new StreamObserver<>() {
+					@Override
+					public void onNext(SubscribeRequest request) {
+						received.set(request);
+						pump.run();
+					}
+
+					@Override
+					public void onError(Throwable t) {
+					}
+
+					@Override
+					public void onCompleted() {
+					}
+				};
+			}
+		}).build().start();
+		clientExecutor = Executors.newSingleThreadExecutor();
+		channel = InProcessChannelBuilder.forName(name).executor(clientExecutor).build();
+	}
+
+	private static Path path(String... elems) {
+		Path.Builder builder = Path.newBuilder();
+		for (String elem : elems) {
+			int bracket = elem.indexOf('[');
+			if (bracket < 0) {
+				builder.addElem(PathElem.newBuilder().setName(elem));
+			} else {
+				String[] key = elem.substring(bracket + 1, elem.length() - 1).split("=");
+				builder.addElem(PathElem.newBuilder().setName(elem.substring(0, bracket)).putKey(key[0], key[1]));
+			}
+		}
+		return builder.build();
+	}
+
+	private static Update update(Path path, TypedValue.Builder value) {
+		return Update.newBuilder().setPath(path).setVal(value).build();
+	}
+}
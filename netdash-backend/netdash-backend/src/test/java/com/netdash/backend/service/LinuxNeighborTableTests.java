@@ -0,0 +1,69 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LinuxNeighborTableTests {
+
+	private static final String ROUTE =
+			"Iface\tDestination\tGateway \tFlags\tRefCnt\tUse\tMetric\tMask\t\tMTU\tWindow\tIRTT\n"
+			+ "eth0\t00000000\t0102A8C0\t0003\t0\t0\t100\t00000000\t0\t0\t0\n"
+			+ "wlan0\t00000000\t0101A8C0\t0003\t0\t0\t600\t00000000\t0\t0\t0\n"
+			+ "eth0\t0002A8C0\t00000000\t0001\t0\t0\t100\t00FFFFFF\t0\t0\t0\n";
+
+	private static final String ARP_HEADER =
+			"IP address       HW type     Flags       HW address            Mask     Device\n";
+
+	@Test
+	void readsLowestMetricDefaultGateway(@TempDir Path dir) throws Exception {
+		LinuxNeighborTable table = table(dir, ARP_HEADER);
+		assertEquals("192.168.2.1", table.readDefaultGateway());
+	}
+
+	@Test
+	void reportsOnlyNeighborChanges(@TempDir Path dir) throws Exception {
+		LinuxNeighborTable table = table(dir, ARP_HEADER
+				+ "192.168.2.1      0x1         0x2         aa:bb:cc:dd:ee:01     *        eth0\n"
+				+ "192.168.2.7      0x1         0x0         00:00:00:00:00:00     *        eth0\n");
+
+		LinuxNeighborTable.NeighborChanges first = table.refresh();
+		assertEquals(Map.of("192.168.2.1", "aa:bb:cc:dd:ee:01"), first.getAdded());
+		LinuxNeighborTable.NeighborChanges unchanged = table.refresh();
+		assertTrue(unchanged.isEmpty());
+		// Known neighbors are still listed when nothing changed
+		assertEquals(Map.of("192.168.2.1", "aa:bb:cc:dd:ee:01"), unchanged.getCurrent());
+
+		Files.writeString(dir.resolve("arp"), ARP_HEADER
+				+ "192.168.2.9      0x1         0x2         aa:bb:cc:dd:ee:09     *        eth0\n");
+		LinuxNeighborTable.NeighborChanges second = table.refresh();
+		assertEquals(Map.of("192.168.2.9", "aa:bb:cc:dd:ee:09"), second.getAdded());
+		assertEquals(Map.of("192.168.2.1", "aa:bb:cc:dd:ee:01"), second.getRemoved());
+	}
+
+	@Test
+	void skipsMalformedLines(@TempDir Path dir) throws Exception {
+		Files.writeString(dir.resolve("route"), ROUTE
+				+ "eth1\t00000000\tzz02A8C0\t0003\t0\t0\t50\t00000000\t0\t0\t0\n"
+				+ "eth2\t00000000\t0103A8C0\t00x3\t0\t0\t10\t00000000\t0\t0\t0\n");
+		Files.writeString(dir.resolve("arp"), ARP_HEADER
+				+ "192.168.2.5      0x1         bogus       aa:bb:cc:dd:ee:05     *        eth0\n"
+				+ "192.168.2.1      0x1         0x2         aa:bb:cc:dd:ee:01     *        eth0\n");
+		LinuxNeighborTable table = new LinuxNeighborTable(dir.resolve("route"), dir.resolve("arp"));
+
+		assertEquals("192.168.2.1", table.readDefaultGateway());
+		assertEquals(Map.of("192.168.2.1", "aa:bb:cc:dd:ee:01"), table.readNeighbors());
+	}
+
+	private static LinuxNeighborTable table(Path dir, String arp) throws Exception {
+		Files.writeString(dir.resolve("route"), ROUTE);
+		Files.writeString(dir.resolve("arp"), arp);
+		return new LinuxNeighborTable(dir.resolve("route"), dir.resolve("arp"));
+	}
+}
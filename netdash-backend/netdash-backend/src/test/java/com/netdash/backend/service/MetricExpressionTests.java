@@ -0,0 +1,38 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MetricExpressionTests {
+
+	@Test
+	void evaluatesWithPrecedenceAndParentheses() {
+		MetricExpression expression = MetricExpression.parse("used * units / 1048576");
+		assertEquals(Set.of("used", "units"), expression.getVariables());
+		assertEquals(512.0, expression.evaluate(Map.of("used", 131072.0, "units", 4096.0)), 1e-9);
+
+		assertEquals(14.0, MetricExpression.parse("2 + 3 * 4").evaluate(Map.of()), 1e-9);
+		assertEquals(20.0, MetricExpression.parse("(2 + 3) * 4").evaluate(Map.of()), 1e-9);
+		assertEquals(1.0, MetricExpression.parse("-(a - 2) / a").evaluate(Map.of("a", 1.0)), 1e-9);
+	}
+
+	@Test
+	void missingInputsAndDivisionByZeroYieldNull() {
+		MetricExpression expression = MetricExpression.parse("a / b");
+		assertNull(expression.evaluate(Map.of("a", 1.0)));
+		assertNull(expression.evaluate(Map.of("a", 1.0, "b", 0.0)));
+	}
+
+	@Test
+	void rejectsMalformedExpressions() {
+		assertThrows(IllegalArgumentException.class, () -> MetricExpression.parse("a * (b + 1"));
+		assertThrows(IllegalArgumentException.class, () -> MetricExpression.parse("a b"));
+		assertThrows(IllegalArgumentException.class, () -> MetricExpression.parse(" "));
+	}
+}
@@ -0,0 +1,54 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuantileSketchTests {
+
+	@Test
+	void quantilesStayWithinRelativeAccuracy() {
+		QuantileSketch sketch = new QuantileSketch();
+		for (int i = 1; i <= 1000; i++) {
+			sketch.add(i / 10.0);
+		}
+		assertEquals(1000, sketch.getCount());
+		assertEquals(95.0, sketch.quantile(0.95), 95.0 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+		assertEquals(50.0, sketch.quantile(0.5), 50.0 * QuantileSketch.DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	@Test
+	void mergeMatchesSingleSketch() {
+		Random random = new Random(42);
+		QuantileSketch all = new QuantileSketch();
+		QuantileSketch left = new QuantileSketch();
+		QuantileSketch right = new QuantileSketch();
+		for (int i = 0; i < 5000; i++) {
+			double value = random.nextDouble() * 100;
+			all.add(value);
+			(i % 2 == 0 ? left : right).add(value);
+		}
+		left.merge(right);
+
+		assertEquals(all.getCount(), left.getCount());
+		assertArrayEquals(all.getBins(), left.getBins());
+		assertArrayEquals(all.getCounts(), left.getCounts());
+		assertEquals(all.quantile(0.95), left.quantile(0.95));
+	}
+
+	@Test
+	void zerosAndRestoreRoundTrip() {
+		QuantileSketch sketch = new QuantileSketch();
+		sketch.add(0);
+		sketch.add(0);
+		sketch.add(10);
+		assertEquals(0.0, sketch.quantile(0.5));
+
+		QuantileSketch restored = new QuantileSketch(sketch.getBins(), sketch.getCounts(), sketch.getZeroCount());
+		assertEquals(3, restored.getCount());
+		assertEquals(sketch.quantile(0.99), restored.quantile(0.99));
+	}
+}
@@ -0,0 +1,54 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.SnmpCredential;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SnmpCredentialServiceTests {
+
+	private static SnmpCredential v3(String auth, String authPassphrase, String priv, String privPassphrase) {
+		SnmpCredential credential = new SnmpCredential();
+		credential.setVersion("v3");
+		credential.setSecurityName("netdash");
+		credential.setAuthProtocol(auth);
+		credential.setAuthPassphrase(authPassphrase);
+		credential.setPrivProtocol(priv);
+		credential.setPrivPassphrase(privPassphrase);
+		return credential;
+	}
+
+	@Test
+	void acceptsCompleteCredentials() {
+		assertDoesNotThrow(() -> SnmpCredentialService.validate(v3("sha256", "authpass1", "aes128", "privpass1")));
+
+		SnmpCredential v2c = new SnmpCredential();
+		v2c.setCommunity("private");
+		assertDoesNotThrow(() -> SnmpCredentialService.validate(v2c));
+	}
+
+	@Test
+	void rejectsIncompleteOrUnknownSettings() {
+		SnmpCredential v2c = new SnmpCredential();
+		assertThrows(IllegalArgumentException.class, () -> SnmpCredentialService.validate(v2c));
+
+		SnmpCredential v1 = new SnmpCredential();
+		v1.setVersion("v1");
+		assertThrows(IllegalArgumentException.class, () -> SnmpCredentialService.validate(v1));
+
+		SnmpCredential noUser = v3("SHA", "authpass1", "AES128", "privpass1");
+		noUser.setSecurityName("");
+		assertThrows(IllegalArgumentException.class, () -> SnmpCredentialService.validate(noUser));
+
+		assertThrows(IllegalArgumentException.class,
+				() -> SnmpCredentialService.validate(v3("SHA1024", "authpass1", "AES128", "privpass1")));
+		assertThrows(IllegalArgumentException.class,
+				() -> SnmpCredentialService.validate(v3("SHA", "authpass1", "3DES", "privpass1")));
+		// authPriv needs both passphrases of at least eight characters
+		assertThrows(IllegalArgumentException.class,
+				() -> SnmpCredentialService.validate(v3("SHA", "short", "AES128", "privpass1")));
+		assertThrows(IllegalArgumentException.class,
+				() -> SnmpCredentialService.validate(v3("SHA", "authpass1", "AES128", null)));
+	}
+}
@@ -0,0 +1,72 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.SnmpEngineState;
+import com.netdash.backend.repository.SnmpEngineStateRepository;
+import org.junit.jupiter.api.Test;
+import org.snmp4j.security.UsmTimeEntry;
+import org.snmp4j.security.UsmTimeTable;
+import org.snmp4j.smi.OctetString;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SnmpEngineCacheTests {
+
+	private static final String ADDRESS = "10.0.0.1/161";
+	private static final byte[] ENGINE_ID = {(byte) 0x80, 0x00, 0x1f, (byte) 0x88, 0x04, 0x01};
+
+	private static SnmpEngineCache cache(SnmpEngineStateRepository repository) {
+		SnmpEngineCache cache = new SnmpEngineCache();
+		ReflectionTestUtils.setField(cache, "engineStateRepository", repository);
+		return cache;
+	}
+
+	@Test
+	void restoresEngineAndSeedsAdvancedTime() {
+		SnmpEngineStateRepository repository = mock(SnmpEngineStateRepository.class);
+		when(repository.findById(ADDRESS)).thenReturn(Optional.of(new SnmpEngineState(ADDRESS,
+				new OctetString(ENGINE_ID).toHexString(), 7, 1000, Instant.now().minusSeconds(60))));
+		SnmpEngineCache cache = cache(repository);
+		UsmTimeTable timeTable = new UsmTimeTable();
+
+		assertArrayEquals(ENGINE_ID, cache.engineId(ADDRESS, timeTable));
+
+		UsmTimeEntry seeded = timeTable.getEntry(new OctetString(ENGINE_ID));
+		assertNotNull(seeded);
+		assertEquals(7, seeded.getEngineBoots());
+		// Stored engine time plus the minute since it was observed
+		int engineTime = seeded.getTimeDiff() + (int) (System.nanoTime() / 1_000_000_000L);
+		assertTrue(Math.abs(engineTime - 1060) <= 2, "engine time " + engineTime);
+
+		// Later lookups come from memory
+		assertArrayEquals(ENGINE_ID, cache.engineId(ADDRESS, timeTable));
+		verify(repository, times(1)).findById(ADDRESS);
+	}
+
+	@Test
+	void unknownAddressNeedsDiscoveryAndForgetDropsTheEngine() {
+		SnmpEngineStateRepository repository = mock(SnmpEngineStateRepository.class);
+		when(repository.findById(ADDRESS)).thenReturn(Optional.empty());
+		SnmpEngineCache cache = cache(repository);
+
+		assertNull(cache.engineId(ADDRESS, new UsmTimeTable()));
+
+		cache.discovered(ADDRESS, ENGINE_ID);
+		assertArrayEquals(ENGINE_ID, cache.engineId(ADDRESS, new UsmTimeTable()));
+
+		cache.forget(ADDRESS);
+		verify(repository).deleteById(ADDRESS);
+		assertNull(cache.engineId(ADDRESS, new UsmTimeTable()));
+	}
+}
@@ -0,0 +1,75 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.snmp4j.PDU;
+import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.Null;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.VariableBinding;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class SnmpMetricProfileTests {
+
+	private static SnmpMetricProfile.MetricDefinition scalar(String name, String oid) {
+		SnmpMetricProfile.MetricDefinition metric = new SnmpMetricProfile.MetricDefinition();
+		metric.setName(name);
+		metric.setOid(oid);
+		return metric;
+	}
+
+	private static SnmpMetricProfile.MetricDefinition column(String name, String oid, String aggregate) {
+		SnmpMetricProfile.MetricDefinition metric = new SnmpMetricProfile.MetricDefinition();
+		metric.setName(name);
+		metric.setColumn(oid);
+		metric.setAggregate(aggregate);
+		return metric;
+	}
+
+	private static VariableBinding binding(String oid, int value) {
+		return new VariableBinding(new OID(oid), new Integer32(value));
+	}
+
+	@Test
+	void collectsGetBulkNonRepeatersThenRepeaterRows() {
+		SnmpMetricProfile.Definition definition = new SnmpMetricProfile.Definition();
+		definition.setName("test");
+		definition.setMetrics(List.of(
+				scalar("units", "1.3.6.1.2.1.25.2.3.1.4.1"),
+				scalar("used", "1.3.6.1.2.1.25.2.3.1.6.1"),
+				column("cpu", "1.3.6.1.2.1.25.3.3.1.2", "avg"),
+				column("load", "1.3.6.1.2.1.25.3.3.1.3", "sum")));
+		SnmpMetricProfile profile = new SnmpMetricProfile(definition);
+
+		PDU request = profile.request(new PDU());
+		assertEquals(PDU.GETBULK, request.getType());
+		assertEquals(2, request.getNonRepeaters());
+		// Scalars are asked for by their predecessor so GETNEXT lands on the instance
+		assertEquals(new OID("1.3.6.1.2.1.25.2.3.1.4.0"), request.get(0).getOid());
+
+		PDU response = new PDU();
+		response.setType(PDU.RESPONSE);
+		response.add(binding("1.3.6.1.2.1.25.2.3.1.4.1", 4096));
+		// GETNEXT walked past a missing instance into the next object
+		response.add(binding("1.3.6.1.2.1.25.2.3.1.6.2", 7));
+		response.add(binding("1.3.6.1.2.1.25.3.3.1.2.196608", 10));
+		response.add(binding("1.3.6.1.2.1.25.3.3.1.3.196608", 1));
+		response.add(binding("1.3.6.1.2.1.25.3.3.1.2.196609", 30));
+		response.add(binding("1.3.6.1.2.1.25.3.3.1.3.196609", 2));
+		// End of the cpu column and of the MIB view: neither is a row
+		response.add(binding("1.3.6.1.2.1.25.3.3.1.3.196608", 99));
+		response.add(new VariableBinding(new OID("1.3.6.1.2.1.25.3.3.1.3.196610"), Null.endOfMibView));
+
+		SnmpMetricProfile.Readings readings = new SnmpMetricProfile.Readings();
+		List<OID> missing = profile.collect(response, readings);
+
+		assertEquals(List.of(new OID("1.3.6.1.2.1.25.2.3.1.6.1")), missing);
+		assertEquals(4096.0, readings.getNumbers().get("units"));
+		assertFalse(readings.getNumbers().containsKey("used"));
+		assertEquals(20.0, readings.getNumbers().get("cpu"), 1e-9);
+		assertEquals(3.0, readings.getNumbers().get("load"), 1e-9);
+	}
+}
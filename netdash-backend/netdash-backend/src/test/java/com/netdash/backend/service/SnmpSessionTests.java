@@ -0,0 +1,70 @@
+package com.netdash.backend.service;
+
+import com.netdash.backend.model.SnmpCredential;
+import org.junit.jupiter.api.Test;
+import org.snmp4j.PDU;
+import org.snmp4j.mp.SnmpConstants;
+import org.snmp4j.smi.Integer32;
+import org.snmp4j.smi.OID;
+import org.snmp4j.smi.VariableBinding;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class SnmpSessionTests {
+
+	private static final String ADDRESS = "10.0.0.1/161";
+
+	private static SnmpCredential credential(String authPassphrase) {
+		SnmpCredential credential = new SnmpCredential();
+		credential.setVersion("v3");
+		credential.setSecurityName("netdash");
+		credential.setAuthPassphrase(authPassphrase);
+		credential.setPrivPassphrase("privpass1");
+		return credential;
+	}
+
+	private static PDU report(OID reason) {
+		PDU report = new PDU();
+		report.setType(PDU.REPORT);
+		report.add(new VariableBinding(reason, new Integer32(1)));
+		return report;
+	}
+
+	@Test
+	void credentialChangeTriggersRelocalization() {
+		SnmpSession session = new SnmpSession();
+		String user = "80001f8804|netdash";
+		String fingerprint = SnmpSession.fingerprint(credential("authpass1"));
+		assertEquals(fingerprint, SnmpSession.fingerprint(credential("authpass1")));
+
+		assertTrue(session.needsLocalization(user, fingerprint));
+		session.markLocalized(user, fingerprint);
+		assertFalse(session.needsLocalization(user, fingerprint));
+
+		String changed = SnmpSession.fingerprint(credential("authpass2"));
+		assertNotEquals(fingerprint, changed);
+		assertTrue(session.needsLocalization(user, changed));
+	}
+
+	@Test
+	void onlyEngineReportsForgetTheEngine() {
+		SnmpSession session = new SnmpSession();
+		SnmpEngineCache engineCache = mock(SnmpEngineCache.class);
+		ReflectionTestUtils.setField(session, "engineCache", engineCache);
+
+		session.handleReport(ADDRESS, report(SnmpConstants.usmStatsWrongDigests));
+		session.handleReport(ADDRESS, report(SnmpConstants.usmStatsUnknownUserNames));
+		session.handleReport(ADDRESS, report(SnmpConstants.usmStatsDecryptionErrors));
+		verify(engineCache, never()).forget(ADDRESS);
+
+		session.handleReport(ADDRESS, report(SnmpConstants.usmStatsUnknownEngineIDs));
+		verify(engineCache).forget(ADDRESS);
+	}
+}
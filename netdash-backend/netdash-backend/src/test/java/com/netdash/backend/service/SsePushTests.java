@@ -0,0 +1,75 @@
+package com.netdash.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SsePushTests {
+
+	@Test
+	void stalledClientIsDisconnectedWithoutBlockingTheProducer() throws Exception {
+		SsePush push = new SsePush();
+		CountDownLatch unblock = new CountDownLatch(1);
+		SseEmitter stalled = mock(SseEmitter.class);
+		doAnswer(invocation -> {
+			unblock.await();
+			return null;
+		}).when(stalled).send(any(SseEmitter.SseEventBuilder.class));
+		CountDownLatch completed = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			completed.countDown();
+			return null;
+		}).when(stalled).complete();
+		List<SsePush.Subscriber> closed = new CopyOnWriteArrayList<>();
+		SsePush.Subscriber subscriber = push.subscribe(stalled, 4, closed::add);
+
+		long start = System.nanoTime();
+		for (int i = 0; i < 10; i++) {
+			subscriber.offer("progress", i);
+		}
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "offer waited for the client");
+		assertEquals(List.of(subscriber), closed);
+		// The emitter is completed by the drain task once the stalled write returns, not by the producer
+		assertEquals(1, completed.getCount());
+
+		unblock.countDown();
+		assertTrue(completed.await(5, TimeUnit.SECONDS));
+		push.stop();
+	}
+
+	@Test
+	void completeSendsQueuedEventsFirst() throws Exception {
+		SsePush push = new SsePush();
+		SseEmitter emitter = mock(SseEmitter.class);
+		CountDownLatch completed = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			completed.countDown();
+			return null;
+		}).when(emitter).complete();
+		List<SsePush.Subscriber> closed = new CopyOnWriteArrayList<>();
+		SsePush.Subscriber subscriber = push.subscribe(emitter, 16, closed::add);
+
+		subscriber.offer("device", "a");
+		subscriber.offer("done", "b");
+		subscriber.complete();
+		subscriber.offer("progress", "ignored");
+
+		// complete() is synchronized on the emitter, so it is observed through a stub rather than verify
+		assertTrue(completed.await(5, TimeUnit.SECONDS));
+		verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+		assertEquals(List.of(subscriber), closed);
+		push.stop();
+	}
+}
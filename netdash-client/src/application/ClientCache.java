@@ -0,0 +1,214 @@
+package application;
+
+import model.Device;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk snapshot of the device table pages and recent CPU history, kept in a fixed-size
+ * memory-mapped file under ~/.netdash so the dashboard can draw before the backend answers.
+ *
+ * Layout: a 24-byte header (magic, format, payload length, saved-at millis, CRC32) followed by
+ * the payload. The payload is written first and the header last, so a torn write fails the
+ * CRC and is treated as no cache rather than as bad data.
+ */
+public class ClientCache {
+
+    private static final int MAGIC = 0x4E44_4331; // "NDC1"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int FILE_BYTES = 8 * 1024 * 1024;
+
+    private final Path file;
+
+    /**
+     * Cached device rows as they sat in the table, keyed by page index.
+     */
+    public static class Snapshot {
+        public int total;
+        public int pageSize;
+        public long savedAt;
+        public final Map<Integer, List<Device>> pages = new LinkedHashMap<>();
+        public final Map<Integer, String> etags = new HashMap<>();
+        public final Map<String, List<Double>> cpuHistory = new LinkedHashMap<>();
+    }
+
+    public ClientCache(Path file) {
+        this.file = file;
+    }
+
+    public static ClientCache openDefault() {
+        return new ClientCache(Path.of(System.getProperty("user.home"), ".netdash", "client-cache.bin"));
+    }
+
+    /**
+     * Returns the last saved snapshot, or null if there is none or it fails validation.
+     */
+    public Snapshot load() {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) return null;
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.getInt(0) != MAGIC || map.getInt(4) != FORMAT) return null;
+            int length = map.getInt(8);
+            long savedAt = map.getLong(12);
+            int crc = map.getInt(20);
+            if (length < 0 || HEADER_BYTES + (long) length > channel.size()) return null;
+
+            byte[] payload = new byte[length];
+            map.get(HEADER_BYTES, payload);
+            CRC32 check = new CRC32();
+            check.update(payload);
+            if ((int) check.getValue() != crc) return null;
+
+            Snapshot snapshot = decode(new DataInputStream(new ByteArrayInputStream(payload)));
+            snapshot.savedAt = savedAt;
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable client cache: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot through the mapping. Pages are dropped from the end if the
+     * encoded snapshot would not fit the file.
+     */
+    public synchronized void save(Snapshot snapshot) throws IOException {
+        int pageLimit = snapshot.pages.size();
+        byte[] payload = encode(snapshot, pageLimit);
+        while (payload.length > FILE_BYTES - HEADER_BYTES && pageLimit > 0) {
+            payload = encode(snapshot, --pageLimit);
+        }
+        if (payload.length > FILE_BYTES - HEADER_BYTES) return;
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_BYTES);
+            map.putInt(0, 0); // invalidate while the payload is being replaced
+            map.put(HEADER_BYTES, payload);
+            map.force();
+
+            CRC32 check = new CRC32();
+            check.update(payload);
+            map.putInt(4, FORMAT);
+            map.putInt(8, payload.length);
+            map.putLong(12, System.currentTimeMillis());
+            map.putInt(20, (int) check.getValue());
+            map.putInt(0, MAGIC);
+            map.force();
+        }
+    }
+
+    private static byte[] encode(Snapshot snapshot, int pageLimit) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(snapshot.total);
+        out.writeInt(snapshot.pageSize);
+
+        out.writeInt(pageLimit);
+        int written = 0;
+        for (Map.Entry<Integer, List<Device>> page : snapshot.pages.entrySet()) {
+            if (written++ == pageLimit) break;
+            out.writeInt(page.getKey());
+            writeString(out, snapshot.etags.get(page.getKey()));
+            out.writeInt(page.getValue().size());
+            for (Device device : page.getValue()) {
+                writeDevice(out, device);
+            }
+        }
+
+        out.writeInt(snapshot.cpuHistory.size());
+        for (Map.Entry<String, List<Double>> history : snapshot.cpuHistory.entrySet()) {
+            writeString(out, history.getKey());
+            out.writeShort(history.getValue().size());
+            for (double value : history.getValue()) {
+                out.writeFloat((float) value);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Snapshot decode(DataInputStream in) throws IOException {
+        Snapshot snapshot = new Snapshot();
+        snapshot.total = in.readInt();
+        snapshot.pageSize = in.readInt();
+
+        int pageCount = in.readInt();
+        for (int p = 0; p < pageCount; p++) {
+            int pageIndex = in.readInt();
+            String etag = readString(in);
+            int rows = in.readInt();
+            List<Device> devices = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                devices.add(readDevice(in));
+            }
+            snapshot.pages.put(pageIndex, devices);
+            if (etag != null) snapshot.etags.put(pageIndex, etag);
+        }
+
+        int historyCount = in.readInt();
+        for (int h = 0; h < historyCount; h++) {
+            String deviceId = readString(in);
+            int points = in.readUnsignedShort();
+            List<Double> values = new ArrayList<>(points);
+            for (int i = 0; i < points; i++) {
+                values.add((double) in.readFloat());
+            }
+            snapshot.cpuHistory.put(deviceId, values);
+        }
+        return snapshot;
+    }
+
+    private static void writeDevice(DataOutputStream out, Device device) throws IOException {
+        writeString(out, device.getId());
+        writeString(out, device.getName());
+        writeString(out, device.getIpAddress());
+        writeString(out, device.getType());
+        writeString(out, device.getStatus());
+        out.writeDouble(device.getCpuUsage());
+        out.writeDouble(device.getMemoryUsage());
+        writeString(out, device.getCreatedAt() == null ? null : device.getCreatedAt().toString());
+        writeString(out, device.getMacAddress());
+        writeString(out, device.getInterfaceStatus());
+        writeString(out, device.getProtocol());
+        out.writeLong(device.getVersion());
+    }
+
+    private static Device readDevice(DataInputStream in) throws IOException {
+        Device device = new Device();
+        device.setId(readString(in));
+        device.setName(readString(in));
+        device.setIpAddress(readString(in));
+        device.setType(readString(in));
+        device.setStatus(readString(in));
+        device.setCpuUsage(in.readDouble());
+        device.setMemoryUsage(in.readDouble());
+        String createdAt = readString(in);
+        device.setCreatedAt(createdAt == null ? null : LocalDateTime.parse(createdAt));
+        device.setMacAddress(readString(in));
+        device.setInterfaceStatus(readString(in));
+        device.setProtocol(readString(in));
+        device.setVersion(in.readLong());
+        return device;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -7,9 +7,8 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
 import com.google.gson.reflect.TypeToken;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
@@ -17,18 +16,28 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
 import javafx.util.Callback;
+import javafx.util.Duration;
 import model.Device;
 import model.ApiResponse;
+import model.DiscoveryJob;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
 
 public class DeviceViewController {
 
@@ -47,17 +56,40 @@ public class DeviceViewController {
     @FXML private TextField hostnameField;
     @FXML private TextField interfaceIpField;
     @FXML private Label loadingLabel;
+    @FXML private TextField searchField;
 
-    private final ObservableList<Device> deviceList = FXCollections.observableArrayList();
     private final String BASE_URL = "http://localhost:8080/api/devices";
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 10;
+    private PagedDeviceList devicePages;
     private XYChart.Series<Number, Number> cpuSeries;
-    private List<Double> cpuHistory = new ArrayList<>();
     private static final int HISTORY_WINDOW = 60;
+    private static final int MAX_HISTORY_DEVICES = 200;
+    private volatile String discoveryJobId;
+
+    // Recent CPU samples per device (FX thread only), persisted with the device cache
+    private final Map<String, List<Double>> cpuHistories = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<Double>> eldest) {
+            return size() > MAX_HISTORY_DEVICES;
+        }
+    };
+    private static final int CACHE_SAVE_INTERVAL_S = 30;
+    private static final int RECONNECT_INTERVAL_S = 10;
+    private final ClientCache clientCache = ClientCache.openDefault();
+    private final ExecutorService cacheWriter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "client-cache-writer");
+        t.setDaemon(true);
+        return t;
+    });
+    private ClientCache.Snapshot lastSnapshot;
+    private volatile boolean offline;
 
     @FXML
     public void initialize() {
         setupTableColumns();
-        deviceTable.setItems(deviceList);
+        setupDevicePages();
+        restoreFromCache();
         deviceTable.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         cpuSeries = new XYChart.Series<>();
@@ -66,8 +98,7 @@ public class DeviceViewController {
 
         deviceTable.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null) {
-                updateChartForDevice(newSelection);
-                cpuHistory.clear();
+                drawCpuHistory(cpuHistories.getOrDefault(newSelection.getId(), List.of()));
                 populateConfigFields(newSelection);
             }
         });
@@ -84,45 +115,124 @@ public class DeviceViewController {
         macCol.setCellValueFactory(new PropertyValueFactory<>("macAddress"));
         interfaceCol.setCellValueFactory(new PropertyValueFactory<>("interfaceStatus"));
         protocolCol.setCellValueFactory(new PropertyValueFactory<>("protocol"));
+        actionCol.setSortable(false);
     }
 
-    private void loadDevicesFromAPI() {
-        Platform.runLater(() -> loadingLabel.setText("🔄 Loading devices..."));
-        new Thread(() -> {
-            try {
-                URL url = new URL(BASE_URL);
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("Accept", "application/json");
+    // Rows are paged in from the server; sorting and the search box are applied server-side
+    private void setupDevicePages() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+        devicePages = new PagedDeviceList(BASE_URL, gson, PAGE_SIZE, MAX_CACHED_PAGES);
+        devicePages.setOnLoaded(total -> {
+            offline = false;
+            loadingLabel.setText("✅ Devices Loaded: " + total);
+        });
+        devicePages.setOnError(e -> {
+            e.printStackTrace();
+            offline = true;
+            if (devicePages.isEmpty()) {
+                loadingLabel.setText("⚠️ Error connecting to backend");
+            } else {
+                loadingLabel.setText("📴 Backend unreachable - showing cached devices (read-only)");
+            }
+        });
+        deviceTable.setItems(devicePages);
+
+        deviceTable.setSortPolicy(table -> {
+            TableColumn<Device, ?> column = table.getSortOrder().isEmpty() ? null : table.getSortOrder().get(0);
+            Object factory = column == null ? null : column.getCellValueFactory();
+            if (factory instanceof PropertyValueFactory) {
+                String field = ((PropertyValueFactory<?, ?>) factory).getProperty();
+                String dir = column.getSortType() == TableColumn.SortType.ASCENDING ? "asc" : "desc";
+                devicePages.setSort(field, dir);
+            } else {
+                devicePages.setSort(null, null);
+            }
+            return true;
+        });
 
-                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = in.readLine()) != null) response.append(line);
-                in.close();
+        PauseTransition searchDelay = new PauseTransition(Duration.millis(300));
+        searchDelay.setOnFinished(event -> devicePages.setFilter(searchField.getText()));
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+    }
 
-                String json = response.toString();
-                Gson gson = new GsonBuilder()
-                        .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                        .create();
-                ApiResponse<List<Device>> apiResponse = gson.fromJson(json, new TypeToken<ApiResponse<List<Device>>>(){}.getType());
-                List<Device> devices = apiResponse.getData();
+    // Draws the last saved pages and charts immediately; loadDevicesFromAPI reconciles afterwards
+    private void restoreFromCache() {
+        ClientCache.Snapshot cached = clientCache.load();
+        if (cached == null || !devicePages.restore(cached)) {
+            return;
+        }
+        lastSnapshot = cached;
+        cached.cpuHistory.forEach((id, history) -> cpuHistories.put(id, new ArrayList<>(history)));
+        loadingLabel.setText("🗂 Showing " + cached.total + " cached devices, syncing...");
+    }
 
-                Platform.runLater(() -> {
-                    deviceList.setAll(devices);
-                    loadingLabel.setText("✅ Devices Loaded: " + devices.size());
-                });
+    // Must run on the FX thread; the returned snapshot is not touched again here
+    private ClientCache.Snapshot buildSnapshot() {
+        ClientCache.Snapshot snapshot = new ClientCache.Snapshot();
+        if (!devicePages.snapshot(snapshot) && lastSnapshot != null) {
+            // A sort or filter is active; keep the default view from the last save
+            snapshot.total = lastSnapshot.total;
+            snapshot.pageSize = lastSnapshot.pageSize;
+            snapshot.pages.putAll(lastSnapshot.pages);
+            snapshot.etags.putAll(lastSnapshot.etags);
+        }
+        cpuHistories.forEach((id, history) -> snapshot.cpuHistory.put(id, new ArrayList<>(history)));
+        lastSnapshot = snapshot;
+        return snapshot;
+    }
 
-                conn.disconnect();
-            } catch (Exception e) {
-                e.printStackTrace();
-                Platform.runLater(() -> loadingLabel.setText("⚠️ Error connecting to backend"));
-            }
-        }).start();
+    private void saveCacheInBackground() {
+        Platform.runLater(() -> {
+            ClientCache.Snapshot snapshot = buildSnapshot();
+            cacheWriter.execute(() -> writeCache(snapshot));
+        });
+    }
+
+    private void writeCache(ClientCache.Snapshot snapshot) {
+        try {
+            clientCache.save(snapshot);
+        } catch (IOException e) {
+            System.out.println("Could not write client cache: " + e.getMessage());
+        }
+    }
+
+    // Called from Main.stop() on the FX thread
+    public void shutdown() {
+        writeCache(buildSnapshot());
+    }
+
+    private boolean rejectWhileOffline() {
+        if (!offline) return false;
+        loadingLabel.setText("📴 Offline: changes are disabled until the backend is reachable");
+        return true;
+    }
+
+    private void loadDevicesFromAPI() {
+        Platform.runLater(() -> {
+            loadingLabel.setText("🔄 Loading devices...");
+            devicePages.refresh();
+        });
+    }
+
+    private String readResponseBody(HttpURLConnection conn) throws IOException {
+        InputStream body = conn.getInputStream();
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            body = new GZIPInputStream(body);
+        }
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(body, "UTF-8"))) {
+            String line;
+            while ((line = in.readLine()) != null) response.append(line);
+        }
+        return response.toString();
     }
 
     @FXML
     private void handleAddDevice() {
+        if (rejectWhileOffline()) return;
+
         String name = nameField.getText().trim();
         String ip = ipField.getText().trim();
 
@@ -168,6 +278,8 @@ public class DeviceViewController {
 
     @FXML
     private void handleUpdateDevice() {
+        if (rejectWhileOffline()) return;
+
         String name = nameField.getText().trim();
         String ip = ipField.getText().trim();
         Device selectedDevice = deviceTable.getSelectionModel().getSelectedItem();
@@ -177,36 +289,36 @@ public class DeviceViewController {
             return;
         }
 
-        selectedDevice.setName(name);
-        selectedDevice.setIpAddress(ip);
+        // PATCH only what the dialog edits; the row's metrics are display values, not ours to write
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("name", name);
+        changes.put("ipAddress", ip);
+        changes.put("version", selectedDevice.getVersion());
 
         new Thread(() -> {
             try {
-                Gson gson = new GsonBuilder()
-                        .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
-                        .create();
-                String json = gson.toJson(selectedDevice);
-                HttpURLConnection conn = (HttpURLConnection) new URL(BASE_URL + "/" + selectedDevice.getId()).openConnection();
-                conn.setRequestMethod("PUT");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setDoOutput(true);
-
-                try (OutputStream os = conn.getOutputStream()) {
-                    os.write(json.getBytes());
-                }
-
-                if (conn.getResponseCode() == 200) {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/" + selectedDevice.getId()))
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(new Gson().toJson(changes)))
+                        .build();
+                // HttpURLConnection has no PATCH
+                int status = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+
+                if (status == 200) {
                     Platform.runLater(() -> {
                         nameField.clear();
                         ipField.clear();
                         loadingLabel.setText("✅ Device updated");
                         loadDevicesFromAPI();
                     });
+                } else if (status == 409) {
+                    Platform.runLater(() -> {
+                        loadingLabel.setText("⚠️ Device was changed elsewhere, reloaded - edit again");
+                        loadDevicesFromAPI();
+                    });
                 } else {
                     Platform.runLater(() -> loadingLabel.setText("❌ Failed to update device"));
                 }
-
-                conn.disconnect();
             } catch (Exception e) {
                 e.printStackTrace();
                 Platform.runLater(() -> loadingLabel.setText("⚠️ Error updating device"));
@@ -215,6 +327,8 @@ public class DeviceViewController {
     }
 
     private void handleDeleteDevice(Device device) {
+        if (rejectWhileOffline()) return;
+
         new Thread(() -> {
             try {
                 HttpURLConnection conn = (HttpURLConnection) new URL(BASE_URL + "/" + device.getId()).openConnection();
@@ -222,7 +336,7 @@ public class DeviceViewController {
 
                 if (conn.getResponseCode() == 200) {
                     Platform.runLater(() -> {
-                        deviceList.remove(device);
+                        devicePages.refresh();
                         loadingLabel.setText("🗑 Deleted: " + device.getName());
                     });
                 } else {
@@ -247,41 +361,116 @@ public class DeviceViewController {
 
     @FXML
     private void discoverNewDevices() {
+        if (rejectWhileOffline()) return;
+
         Platform.runLater(() -> loadingLabel.setText("🔄 Discovering devices..."));
         new Thread(() -> {
             try {
-                URL url = new URL(BASE_URL + "/discover");
-                HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-                conn.setRequestMethod("GET");
-                conn.setRequestProperty("Accept", "application/json");
-
-                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = in.readLine()) != null) response.append(line);
-                in.close();
-
-                String json = response.toString();
                 Gson gson = new GsonBuilder()
                         .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                         .create();
-                ApiResponse<List<Device>> apiResponse = gson.fromJson(json, new TypeToken<ApiResponse<List<Device>>>(){}.getType());
-                List<Device> devices = apiResponse.getData();
+                HttpURLConnection conn = (HttpURLConnection) new URL(BASE_URL + "/discover/jobs").openConnection();
+                conn.setRequestMethod("POST");
+                conn.setRequestProperty("Accept", "application/json");
 
-                Platform.runLater(() -> {
-                    deviceList.removeIf(d -> d.getName().equals("Local Router"));
-                    deviceList.addAll(devices);
-                    loadingLabel.setText("✅ Discovered " + devices.size() + " devices");
-                });
+                if (conn.getResponseCode() == 429) {
+                    Platform.runLater(() -> loadingLabel.setText("⏳ Discovery already running, try again shortly"));
+                    conn.disconnect();
+                    return;
+                }
 
+                ApiResponse<DiscoveryJob> apiResponse = gson.fromJson(readResponseBody(conn), new TypeToken<ApiResponse<DiscoveryJob>>(){}.getType());
                 conn.disconnect();
+
+                String jobId = apiResponse.getData().getId();
+                discoveryJobId = jobId;
+                streamDiscoveryEvents(jobId, gson);
             } catch (Exception e) {
                 e.printStackTrace();
+                discoveryJobId = null;
                 Platform.runLater(() -> loadingLabel.setText("⚠️ Error discovering devices"));
             }
         }).start();
     }
 
+    // Reads the job's Server-Sent Events and adds devices to the table as they are found
+    private void streamDiscoveryEvents(String jobId, Gson gson) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(BASE_URL + "/discover/jobs/" + jobId + "/events").openConnection();
+        conn.setRequestMethod("GET");
+        conn.setRequestProperty("Accept", "text/event-stream");
+        conn.setReadTimeout(0);
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream(), "UTF-8"))) {
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("event:")) {
+                    event = line.substring(6).trim();
+                } else if (line.startsWith("data:")) {
+                    data.append(line.substring(5).trim());
+                } else if (line.isEmpty() && event != null) {
+                    handleDiscoveryEvent(event, data.toString(), gson);
+                    event = null;
+                    data.setLength(0);
+                }
+            }
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    private void handleDiscoveryEvent(String event, String data, Gson gson) {
+        if ("device".equals(event)) {
+            // The device is already stored; refresh the loaded pages so it shows in its sorted position
+            Platform.runLater(() -> devicePages.scheduleRefresh());
+            return;
+        }
+
+        DiscoveryJob job = gson.fromJson(data, DiscoveryJob.class);
+        if ("progress".equals(event)) {
+            Platform.runLater(() -> loadingLabel.setText("🔄 Discovering devices... " + job.getProgress() + "% (" + job.getDevicesFound() + " found)"));
+        } else if ("done".equals(event)) {
+            discoveryJobId = null;
+            Platform.runLater(() -> {
+                if ("COMPLETED".equals(job.getState())) {
+                    loadingLabel.setText("✅ Discovered " + job.getDevicesFound() + " devices");
+                } else if ("CANCELLED".equals(job.getState())) {
+                    loadingLabel.setText("⏹ Discovery cancelled (" + job.getDevicesFound() + " found)");
+                } else {
+                    loadingLabel.setText("⚠️ Error discovering devices");
+                }
+            });
+        }
+    }
+
+    @FXML
+    private void cancelDiscovery() {
+        String jobId = discoveryJobId;
+        if (jobId == null) {
+            loadingLabel.setText("⚠️ No discovery running");
+            return;
+        }
+
+        new Thread(() -> {
+            try {
+                HttpURLConnection conn = (HttpURLConnection) new URL(BASE_URL + "/discover/jobs/" + jobId).openConnection();
+                conn.setRequestMethod("DELETE");
+
+                if (conn.getResponseCode() == 200) {
+                    Platform.runLater(() -> loadingLabel.setText("⏹ Cancelling discovery..."));
+                } else {
+                    Platform.runLater(() -> loadingLabel.setText("❌ Failed to cancel discovery"));
+                }
+
+                conn.disconnect();
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> loadingLabel.setText("⚠️ Error cancelling discovery"));
+            }
+        }).start();
+    }
+
     private void addActionButtonsToTable() {
         Callback<TableColumn<Device, Void>, TableCell<Device, Void>> cellFactory = new Callback<>() {
             @Override
@@ -290,6 +479,7 @@ public class DeviceViewController {
                     private final Button deleteBtn = new Button("❌");
                     private final Button editBtn = new Button("✏️");
                     private final Button configBtn = new Button("⚙️");
+                    private final HBox buttons = new HBox(5, editBtn, configBtn, deleteBtn);
 
                     {
                         deleteBtn.setOnAction(event -> {
@@ -316,11 +506,9 @@ public class DeviceViewController {
                     @Override
                     protected void updateItem(Void item, boolean empty) {
                         super.updateItem(item, empty);
-                        if (empty) {
-                            setGraphic(null);
-                        } else {
-                            setGraphic(new HBox(5, editBtn, configBtn, deleteBtn));
-                        }
+                        // Rows of a page that is still loading have no device yet
+                        boolean loaded = !empty && getTableRow() != null && getTableRow().getItem() != null;
+                        setGraphic(loaded ? buttons : null);
                     }
                 };
             }
@@ -331,9 +519,20 @@ public class DeviceViewController {
 
     private void startPolling() {
         Thread pollThread = new Thread(() -> {
+            long ticks = 0;
             while (true) {
                 try {
                     Thread.sleep(1000);
+                    ticks++;
+                    if (ticks % CACHE_SAVE_INTERVAL_S == 0) {
+                        saveCacheInBackground();
+                    }
+                    if (offline) {
+                        if (ticks % RECONNECT_INTERVAL_S == 0) {
+                            Platform.runLater(() -> devicePages.refresh());
+                        }
+                        continue;
+                    }
                     Device selectedDevice = deviceTable.getSelectionModel().getSelectedItem();
                     if (selectedDevice != null) {
                         fetchDeviceStatus(selectedDevice);
@@ -356,14 +555,13 @@ public class DeviceViewController {
                 HttpURLConnection conn = (HttpURLConnection) url.openConnection();
                 conn.setRequestMethod("GET");
                 conn.setRequestProperty("Accept", "application/json");
+                conn.setRequestProperty("Accept-Encoding", "gzip");
 
-                BufferedReader in = new BufferedReader(new InputStreamReader(conn.getInputStream()));
-                StringBuilder response = new StringBuilder();
-                String line;
-                while ((line = in.readLine()) != null) response.append(line);
-                in.close();
-
-                String json = response.toString();
+                if (conn.getResponseCode() == 429) {
+                    conn.disconnect(); // backend is shedding load; the next poll tick asks again
+                    return;
+                }
+                String json = readResponseBody(conn);
                 Gson gson = new GsonBuilder()
                         .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                         .create();
@@ -371,9 +569,7 @@ public class DeviceViewController {
                 Device updatedDevice = apiResponse.getData();
 
                 Platform.runLater(() -> {
-                    int index = deviceList.indexOf(device);
-                    if (index >= 0) {
-                        deviceList.set(index, updatedDevice);
+                    if (devicePages.replace(updatedDevice)) {
                         if (device.equals(deviceTable.getSelectionModel().getSelectedItem())) {
                             updateChartForDevice(updatedDevice);
                         }
@@ -388,13 +584,17 @@ public class DeviceViewController {
     }
 
     private void updateChartForDevice(Device device) {
-        cpuHistory.add(device.getCpuUsage());
-        if (cpuHistory.size() > HISTORY_WINDOW) cpuHistory.remove(0);
+        List<Double> history = cpuHistories.computeIfAbsent(device.getId(), id -> new ArrayList<>());
+        history.add(device.getCpuUsage());
+        if (history.size() > HISTORY_WINDOW) history.remove(0);
+        drawCpuHistory(history);
+    }
 
+    private void drawCpuHistory(List<Double> history) {
         cpuSeries.getData().clear();
         long currentTime = System.currentTimeMillis() / 1000;
-        for (int i = 0; i < cpuHistory.size(); i++) {
-            cpuSeries.getData().add(new XYChart.Data<>(currentTime - (HISTORY_WINDOW - i), cpuHistory.get(i)));
+        for (int i = 0; i < history.size(); i++) {
+            cpuSeries.getData().add(new XYChart.Data<>(currentTime - (HISTORY_WINDOW - i), history.get(i)));
         }
     }
 
@@ -405,6 +605,8 @@ public class DeviceViewController {
 
     @FXML
     private void handleConfigureDevice() {
+        if (rejectWhileOffline()) return;
+
         Device selectedDevice = deviceTable.getSelectionModel().getSelectedItem();
         if (selectedDevice == null) {
             loadingLabel.setText("⚠️ Select a device to configure");
@@ -444,6 +646,8 @@ public class DeviceViewController {
                         loadingLabel.setText("✅ Device configured");
                         loadDevicesFromAPI();
                     });
+                } else if (conn.getResponseCode() == 429) {
+                    Platform.runLater(() -> loadingLabel.setText("⏳ Device busy, try again shortly"));
                 } else {
                     Platform.runLater(() -> loadingLabel.setText("❌ Failed to configure device"));
                 }
@@ -9,9 +9,13 @@ import javafx.stage.Stage;
 
 public class Main extends Application {
 
+    private DeviceViewController controller;
+
     @Override
     public void start(Stage primaryStage) throws Exception {
-        Parent root = FXMLLoader.load(getClass().getResource("/device-view.fxml"));
+        FXMLLoader loader = new FXMLLoader(getClass().getResource("/device-view.fxml"));
+        Parent root = loader.load();
+        controller = loader.getController();
         Scene scene = new Scene(root);
 
         scene.getStylesheets().add(getClass().getResource("/style.css").toExternalForm());
@@ -24,6 +28,12 @@ public class Main extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        // Persist the device cache so the next launch can draw without waiting on the backend
+        if (controller != null) controller.shutdown();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
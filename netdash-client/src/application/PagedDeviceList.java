@@ -0,0 +1,339 @@
+package application;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import model.ApiResponse;
+import model.Device;
+import model.DevicePage;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Read-only list backing the device table. size() is the server-side total and rows are
+ * fetched from /page a page at a time as the table asks for them; only the most recently
+ * used pages are kept, so memory stays bounded however large the fleet is. Rows whose page
+ * is not loaded read as null until it arrives. Sorting and filtering are done by the server.
+ *
+ * All state is confined to the FX thread; HTTP runs on a single background loader.
+ */
+public class PagedDeviceList extends ObservableListBase<Device> {
+
+    private static final long REFRESH_DELAY_MS = 300;
+
+    private final String pageUrl;
+    private final Gson gson;
+    private final int pageSize;
+    private final Map<Integer, Page> pages;
+    private final Set<Integer> loading = new HashSet<>();
+    private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "device-page-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int size;
+    private int generation;
+    private boolean resetPending;
+    private boolean refreshScheduled;
+    private boolean offline;
+    private String sort;
+    private String dir;
+    private String filter;
+    private IntConsumer onLoaded = total -> {};
+    private Consumer<Exception> onError = e -> {};
+
+    private static class Page {
+        final List<Device> items;
+        final String etag;
+
+        Page(List<Device> items, String etag) {
+            this.items = items;
+            this.etag = etag;
+        }
+    }
+
+    public PagedDeviceList(String baseUrl, Gson gson, int pageSize, int maxPages) {
+        this.pageUrl = baseUrl + "/page";
+        this.gson = gson;
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    public void setOnLoaded(IntConsumer onLoaded) { this.onLoaded = onLoaded; }
+    public void setOnError(Consumer<Exception> onError) { this.onError = onError; }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Device get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int pageIndex = index / pageSize;
+        Page page = pages.get(pageIndex);
+        int offset = index % pageSize;
+        if (page != null && offset < page.items.size()) {
+            return page.items.get(offset);
+        }
+        if (page == null && !offline) {
+            load(pageIndex, null, false);
+        }
+        return null;
+    }
+
+    // Searches loaded rows only - scanning the whole list would page in the entire fleet
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, Page> entry : pages.entrySet()) {
+            int i = entry.getValue().items.indexOf(o);
+            if (i >= 0) return entry.getKey() * pageSize + i;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Shows cached rows before the server has answered. Only applies to the default
+     * (unsorted, unfiltered) view the cache was written from.
+     */
+    public boolean restore(ClientCache.Snapshot snapshot) {
+        if (snapshot == null || snapshot.pageSize != pageSize || sort != null || dir != null || filter != null) {
+            return false;
+        }
+        pages.clear();
+        for (Map.Entry<Integer, List<Device>> entry : snapshot.pages.entrySet()) {
+            pages.put(entry.getKey(), new Page(new ArrayList<>(entry.getValue()), snapshot.etags.get(entry.getKey())));
+        }
+        int oldSize = size;
+        size = snapshot.total;
+        beginChange();
+        if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, (Device) null));
+        if (size > 0) nextAdd(0, size);
+        endChange();
+        return true;
+    }
+
+    /**
+     * Copies the loaded pages of the default view into the snapshot; returns false (leaving
+     * the snapshot's pages untouched) while a sort or filter is active.
+     */
+    public boolean snapshot(ClientCache.Snapshot snapshot) {
+        if (sort != null || dir != null || filter != null) {
+            return false;
+        }
+        snapshot.total = size;
+        snapshot.pageSize = pageSize;
+        snapshot.pages.clear();
+        snapshot.etags.clear();
+        new TreeMap<>(pages).forEach((pageIndex, page) -> {
+            snapshot.pages.put(pageIndex, new ArrayList<>(page.items));
+            if (page.etag != null) snapshot.etags.put(pageIndex, page.etag);
+        });
+        return true;
+    }
+
+    public void setSort(String sort, String dir) {
+        if (Objects.equals(this.sort, sort) && Objects.equals(this.dir, dir)) return;
+        this.sort = sort;
+        this.dir = dir;
+        requery();
+    }
+
+    public void setFilter(String filter) {
+        String normalized = filter == null || filter.isBlank() ? null : filter.trim();
+        if (Objects.equals(this.filter, normalized)) return;
+        this.filter = normalized;
+        requery();
+    }
+
+    /**
+     * Revalidates every cached page (cheap 304s when nothing changed) and reports the total.
+     */
+    public void refresh() {
+        offline = false;
+        Set<Integer> cached = new HashSet<>(pages.keySet());
+        if (cached.isEmpty()) cached.add(0);
+        for (Integer pageIndex : cached) {
+            Page page = pages.get(pageIndex);
+            load(pageIndex, page == null ? null : page.etag, true);
+        }
+    }
+
+    /**
+     * Coalesces bursts of change notifications (e.g. discovery) into one refresh.
+     */
+    public void scheduleRefresh() {
+        if (refreshScheduled) return;
+        refreshScheduled = true;
+        loader.schedule(() -> Platform.runLater(() -> {
+            refreshScheduled = false;
+            refresh();
+        }), REFRESH_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Swaps in a fresher copy of a loaded device; returns false if its row is not loaded.
+     */
+    public boolean replace(Device updated) {
+        for (Map.Entry<Integer, Page> entry : pages.entrySet()) {
+            List<Device> items = entry.getValue().items;
+            for (int i = 0; i < items.size(); i++) {
+                Device old = items.get(i);
+                if (old.getId() != null && old.getId().equals(updated.getId())) {
+                    items.set(i, updated);
+                    beginChange();
+                    nextSet(entry.getKey() * pageSize + i, old);
+                    endChange();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void requery() {
+        generation++;
+        pages.clear();
+        loading.clear();
+        resetPending = true;
+        load(0, null, true);
+    }
+
+    private void load(int pageIndex, String etag, boolean announce) {
+        if (!loading.add(pageIndex)) return;
+        int gen = generation;
+        String url = pageUrl + "?offset=" + (long) pageIndex * pageSize + "&limit=" + pageSize
+                + param("sort", sort) + param("dir", dir) + param("filter", filter);
+
+        loader.execute(() -> {
+            try {
+                HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+                conn.setRequestMethod("GET");
+                conn.setRequestProperty("Accept", "application/json");
+                conn.setRequestProperty("Accept-Encoding", "gzip");
+                if (etag != null) conn.setRequestProperty("If-None-Match", etag);
+
+                if (conn.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                    conn.disconnect();
+                    Platform.runLater(() -> applyNotModified(pageIndex, gen, announce));
+                    return;
+                }
+
+                ApiResponse<DevicePage> apiResponse = gson.fromJson(readBody(conn), new TypeToken<ApiResponse<DevicePage>>(){}.getType());
+                String newEtag = conn.getHeaderField("ETag");
+                conn.disconnect();
+
+                DevicePage page = apiResponse.getData();
+                Platform.runLater(() -> applyPage(pageIndex, gen, page, newEtag, announce));
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    if (gen == generation) loading.remove(pageIndex);
+                    // Stop paging in rows until the next refresh; cached rows stay readable
+                    offline = true;
+                    onError.accept(e);
+                });
+            }
+        });
+    }
+
+    private void applyNotModified(int pageIndex, int gen, boolean announce) {
+        if (gen != generation) return;
+        loading.remove(pageIndex);
+        offline = false;
+        if (announce) onLoaded.accept(size);
+    }
+
+    private void applyPage(int pageIndex, int gen, DevicePage page, String etag, boolean announce) {
+        if (gen != generation) return;
+        loading.remove(pageIndex);
+        offline = false;
+
+        List<Device> items = new ArrayList<>(page.getItems());
+        int newSize = (int) Math.min(page.getTotal(), Integer.MAX_VALUE);
+        Page previous = pages.put(pageIndex, new Page(items, etag));
+
+        if (resetPending || newSize != size) {
+            // Rows shifted (or a new query): other cached pages no longer line up
+            if (!resetPending) pages.keySet().retainAll(Set.of(pageIndex));
+            resetPending = false;
+            int oldSize = size;
+            size = newSize;
+            beginChange();
+            if (oldSize > 0) nextRemove(0, Collections.nCopies(oldSize, (Device) null));
+            if (newSize > 0) nextAdd(0, newSize);
+            endChange();
+        } else if (!items.isEmpty()) {
+            int from = pageIndex * pageSize;
+            beginChange();
+            for (int i = 0; i < items.size(); i++) {
+                Device old = previous != null && i < previous.items.size() ? previous.items.get(i) : null;
+                nextSet(from + i, old);
+            }
+            endChange();
+        }
+
+        if (announce) onLoaded.accept(size);
+    }
+
+    private static String param(String name, String value) {
+        if (value == null) return "";
+        return "&" + name + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String readBody(HttpURLConnection conn) throws IOException {
+        InputStream body = conn.getInputStream();
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            body = new GZIPInputStream(body);
+        }
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) response.append(line);
+        }
+        return response.toString();
+    }
+}
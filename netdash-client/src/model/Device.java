@@ -14,6 +14,7 @@ public class Device {
     private String macAddress;
     private String interfaceStatus;
     private String protocol;
+    private long version;
 
     public Device() {}
 
@@ -58,4 +59,6 @@ public class Device {
     public void setInterfaceStatus(String interfaceStatus) { this.interfaceStatus = interfaceStatus; }
     public String getProtocol() { return protocol; }
     public void setProtocol(String protocol) { this.protocol = protocol; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package model;
+
+import java.util.List;
+
+public class DevicePage {
+    private List<Device> items;
+    private long total;
+    private int offset;
+    private int limit;
+
+    public DevicePage() {}
+
+    public List<Device> getItems() { return items; }
+    public void setItems(List<Device> items) { this.items = items; }
+    public long getTotal() { return total; }
+    public void setTotal(long total) { this.total = total; }
+    public int getOffset() { return offset; }
+    public void setOffset(int offset) { this.offset = offset; }
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,25 @@
+package model;
+
+public class DiscoveryJob {
+    private String id;
+    private String state;
+    private String step;
+    private int progress;
+    private int devicesFound;
+    private String message;
+
+    public DiscoveryJob() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public String getStep() { return step; }
+    public void setStep(String step) { this.step = step; }
+    public int getProgress() { return progress; }
+    public void setProgress(int progress) { this.progress = progress; }
+    public int getDevicesFound() { return devicesFound; }
+    public void setDevicesFound(int devicesFound) { this.devicesFound = devicesFound; }
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}